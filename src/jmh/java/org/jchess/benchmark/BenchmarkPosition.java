@@ -0,0 +1,40 @@
+package org.jchess.benchmark;
+
+/**
+ * This enum contains the fixed set of positions all benchmarks run on, so results can be compared between versions
+ * Every position comes with a legal move in standard chess notation and the same move in UCI notation
+ */
+public enum BenchmarkPosition
+{
+    START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", "Nf3", "g1f3"),
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", "Qxf6", "f3f6"),
+    MIDDLEGAME("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", "Kh1", "g1h1"),
+    ROOK_ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", "Rxf4+", "b4f4"),
+    PAWN_ENDGAME("8/P1k5/8/8/8/8/5K2/8 w - - 0 1", "a8=Q", "a7a8q");
+
+    private final String FEN;
+    private final String move;
+    private final String UCIMove;
+
+    private BenchmarkPosition(String FEN, String move, String UCIMove)
+    {
+        this.FEN = FEN;
+        this.move = move;
+        this.UCIMove = UCIMove;
+    }
+
+    public String getFEN()
+    {
+        return FEN;
+    }
+
+    public String getMove()
+    {
+        return move;
+    }
+
+    public String getUCIMove()
+    {
+        return UCIMove;
+    }
+}
@@ -0,0 +1,101 @@
+package org.jchess.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.jchess.control.BinaryPositionManager;
+import org.jchess.control.BoardManager;
+import org.jchess.control.FENManager;
+import org.jchess.model.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for encoding and decoding the binary position format, compared to setting up a board from a FEN
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BinaryPositionBenchmark
+{
+    private static final int BATCH_SIZE = 1000; // how many positions the batch benchmarks handle at once
+
+    @Param
+    private BenchmarkPosition position;
+
+    private Board board; // the board that is set up again and again
+    private String FEN;
+    private ByteBuffer data; // the encoded position
+    private ByteBuffer batchData; // the encoded position BATCH_SIZE times
+    private Board[] boards; // the boards a batch is decoded into
+
+    @Setup
+    public void setup()
+    {
+        this.FEN = this.position.getFEN();
+        this.board = BoardManager.generateBoard(this.FEN);
+        this.data = ByteBuffer.allocate(BinaryPositionManager.ENCODED_SIZE);
+        this.batchData = ByteBuffer.allocate(BinaryPositionManager.ENCODED_SIZE * BATCH_SIZE);
+        this.boards = new Board[BATCH_SIZE];
+
+        for (int i = 0; i < BATCH_SIZE; i ++)
+        {
+            this.boards[i] = this.board;
+        }
+
+        BinaryPositionManager.encodeAll(this.boards, this.batchData);
+        BinaryPositionManager.encode(this.board, this.data);
+        this.boards = new Board[BATCH_SIZE];
+    }
+
+    @Benchmark
+    public ByteBuffer encode()
+    {
+        this.data.clear();
+        BinaryPositionManager.encode(this.board, this.data);
+        return this.data;
+    }
+
+    @Benchmark
+    public Board decode()
+    {
+        this.data.clear();
+        BinaryPositionManager.decode(this.data, this.board);
+        return this.board;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Board[] decodeBatch()
+    {
+        this.batchData.clear();
+        BinaryPositionManager.decodeAll(this.batchData, this.boards);
+        return this.boards;
+    }
+
+    @Benchmark
+    public Board readFEN()
+    {
+        FENManager.setBoard(this.board, this.FEN);
+        return this.board;
+    }
+
+    @Benchmark
+    public Board generateBoard()
+    {
+        return BoardManager.generateBoard(this.FEN);
+    }
+}
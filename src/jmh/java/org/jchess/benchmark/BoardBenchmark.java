@@ -0,0 +1,87 @@
+package org.jchess.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.EvaluationManager;
+import org.jchess.model.Board;
+import org.jchess.model.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for creating, copying, reading and evaluating boards
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark
+{
+    @Param
+    private BenchmarkPosition position;
+
+    private Board board;
+    private Position[] squares; // every position of the board
+
+    @Setup
+    public void setup()
+    {
+        this.board = BoardManager.generateBoard(this.position.getFEN());
+        this.squares = new Position[64];
+
+        for (int i = 0; i < 64; i ++)
+        {
+            this.squares[i] = Position.of(i);
+        }
+    }
+
+    @Benchmark
+    public Board generateBoard()
+    {
+        return BoardManager.generateBoard(this.position.getFEN());
+    }
+
+    @Benchmark
+    public Board copyBoard()
+    {
+        return BoardManager.copyBoard(this.board);
+    }
+
+    /**
+     * Looks up the piece on every square of the board, the time is for all 64 lookups
+     */
+    @Benchmark
+    public void getPieceAtPosition(Blackhole blackhole)
+    {
+        for (int i = 0; i < 64; i ++)
+        {
+            blackhole.consume(BoardManager.getPieceAtPosition(this.board, this.squares[i]));
+        }
+    }
+
+    @Benchmark
+    public Board updateCheckedPiecesStatus()
+    {
+        BoardManager.updateCheckedPiecesStatus(this.board);
+        return this.board;
+    }
+
+    @Benchmark
+    public int evaluate()
+    {
+        return EvaluationManager.evaluate(this.board);
+    }
+}
@@ -0,0 +1,104 @@
+package org.jchess.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.FENManager;
+import org.jchess.model.Board;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading and writing FEN as text and as bytes
+ * Besides the operations per nanosecond, every benchmark counts the FEN characters it handled, which JMH reports as <i>bytes</i> per nanosecond
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FENBenchmark
+{
+    @Param
+    private BenchmarkPosition position;
+
+    private Board board; // the board that is set up again and again
+    private String FEN;
+    private ByteBuffer input; // the FEN as bytes
+    private ByteBuffer output; // the buffer bytes are written to
+    private StringBuilder builder; // the builder text is written to
+
+    /**
+     * Counts the FEN characters that were read or written
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes
+    {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            this.bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup()
+    {
+        this.board = BoardManager.generateBoard(this.position.getFEN());
+        this.FEN = this.position.getFEN();
+        this.input = ByteBuffer.wrap(this.FEN.getBytes(StandardCharsets.US_ASCII));
+        this.output = ByteBuffer.allocate(FENManager.MAX_FEN_LENGTH);
+        this.builder = new StringBuilder(FENManager.MAX_FEN_LENGTH);
+    }
+
+    @Benchmark
+    public Board readText(Bytes counter)
+    {
+        FENManager.setBoard(this.board, this.FEN);
+        counter.bytes += this.FEN.length();
+        return this.board;
+    }
+
+    @Benchmark
+    public Board readBytes(Bytes counter)
+    {
+        FENManager.setBoard(this.board, this.input);
+        counter.bytes += this.input.remaining();
+        return this.board;
+    }
+
+    @Benchmark
+    public StringBuilder writeText(Bytes counter)
+    {
+        this.builder.setLength(0);
+        FENManager.appendFEN(this.board, this.builder);
+        counter.bytes += this.builder.length();
+        return this.builder;
+    }
+
+    @Benchmark
+    public ByteBuffer writeBytes(Bytes counter)
+    {
+        this.output.clear();
+        FENManager.writeFEN(this.board, this.output);
+        counter.bytes += this.output.position();
+        return this.output;
+    }
+}
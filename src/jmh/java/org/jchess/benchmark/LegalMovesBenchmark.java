@@ -0,0 +1,75 @@
+package org.jchess.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.MoveManager;
+import org.jchess.model.Board;
+import org.jchess.model.Piece;
+import org.jchess.model.PieceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for generating the legal moves of each piece type
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LegalMovesBenchmark
+{
+    @Param
+    private BenchmarkPosition position;
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    private PieceType pieceType;
+
+    private Board board;
+    private Piece[] pieces; // the pieces of the playing side that have the benchmarked type
+
+    @Setup
+    public void setup()
+    {
+        List<Piece> matchingPieces = new ArrayList<>();
+
+        this.board = BoardManager.generateBoard(this.position.getFEN());
+
+        for (Piece piece : this.board.getPieces())
+        {
+            if (piece.getColor() == this.board.getPlayingSideColor() && piece.getType() == this.pieceType)
+            {
+                matchingPieces.add(piece);
+            }
+        }
+
+        this.pieces = matchingPieces.toArray(new Piece[0]);
+    }
+
+    /**
+     * Gets the legal moves of every piece of the benchmarked type, the time is for all of them
+     * Positions that do not contain the type only measure the overhead of the loop
+     */
+    @Benchmark
+    public void getLegalMoves(Blackhole blackhole)
+    {
+        for (Piece piece : this.pieces)
+        {
+            blackhole.consume(MoveManager.getLegalMoves(this.board, piece));
+        }
+    }
+}
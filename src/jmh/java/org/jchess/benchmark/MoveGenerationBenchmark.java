@@ -0,0 +1,58 @@
+package org.jchess.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.MoveManager;
+import org.jchess.model.Board;
+import org.jchess.model.MoveGenerationType;
+import org.jchess.model.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for generating all legal moves, only the captures or only the quiet moves of a position in one call
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark
+{
+    @Param
+    private BenchmarkPosition position;
+
+    @Param
+    private MoveGenerationType type;
+
+    private Board board;
+    private MoveList moveList = new MoveList(); // reused, so the benchmark does not measure the allocation of the list
+
+    @Setup
+    public void setup()
+    {
+        this.board = BoardManager.generateBoard(this.position.getFEN());
+    }
+
+    @Benchmark
+    public int generateLegalMoves()
+    {
+        // Forget the attack maps, otherwise every call after the first would reuse them
+        this.board.setValidAttackMaps(0);
+        this.moveList.clear();
+        MoveManager.generateLegalMoves(this.board, this.moveList, this.type);
+
+        return this.moveList.size();
+    }
+}
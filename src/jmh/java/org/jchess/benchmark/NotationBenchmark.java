@@ -0,0 +1,54 @@
+package org.jchess.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.MoveManager;
+import org.jchess.model.Board;
+import org.jchess.model.Move;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading moves in standard chess notation and UCI notation
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NotationBenchmark
+{
+    @Param
+    private BenchmarkPosition position;
+
+    private Board board;
+
+    @Setup
+    public void setup()
+    {
+        this.board = BoardManager.generateBoard(this.position.getFEN());
+    }
+
+    @Benchmark
+    public Move getMoveFromString()
+    {
+        return MoveManager.getMoveFromString(this.board, this.position.getMove());
+    }
+
+    @Benchmark
+    public Move getUCIMoveFromString()
+    {
+        return MoveManager.getUCIMoveFromString(this.board, this.position.getUCIMove());
+    }
+}
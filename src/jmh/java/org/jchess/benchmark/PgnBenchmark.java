@@ -0,0 +1,79 @@
+package org.jchess.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.jchess.model.Game;
+import org.jchess.pgn.PgnReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how many games per second the PGN reader parses and replays
+ * The input repeats two annotated master games with tags, comments, NAGs and a variation
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PgnBenchmark
+{
+    private static final int GAME_COUNT = 100; // how many games are read per invocation
+
+    static final String GAMES =
+        "[Event \"Paris\"]\n[Site \"Paris FRA\"]\n[Date \"1858.??.??\"]\n[White \"Paul Morphy\"]\n[Black \"Duke Karl / Count Isouard\"]\n[Result \"1-0\"]\n\n"
+        + "1. e4 e5 2. Nf3 d6 3. d4 Bg4 {This is a weak move already.} 4. dxe5 Bxf3 5. Qxf3 dxe5 6. Bc4 Nf6 7. Qb3 Qe7\n"
+        + "8. Nc3 c6 9. Bg5 b5?! 10. Nxb5! cxb5 11. Bxb5+ Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7 14. Rd1 Qe6 15. Bxd7+ Nxd7\n"
+        + "16. Qb8+ $1 Nxb8 17. Rd8# 1-0\n\n"
+        + "[Event \"London\"]\n[Site \"London ENG\"]\n[Date \"1851.06.21\"]\n[White \"Adolf Anderssen\"]\n[Black \"Lionel Kieseritzky\"]\n[Result \"1-0\"]\n\n"
+        + "1. e4 e5 2. f4 exf4 3. Bc4 Qh4+ 4. Kf1 b5 (4... Nf6 5. Nc3 c6) 5. Bxb5 Nf6 6. Nf3 Qh6 7. d3 Nh5 8. Nh4 Qg5\n"
+        + "9. Nf5 c6 10. g4 Nf6 11. Rg1 cxb5 12. h4 Qg6 13. h5 Qg5 14. Qf3 Ng8 15. Bxf4 Qf6 16. Nc3 Bc5 17. Nd5 Qxb2\n"
+        + "18. Bd6 Bxg1 19. e5 Qxa1+ 20. Ke2 Na6 21. Nxg7+ Kd8 22. Qf6+ Nxf6 23. Be7# 1-0\n\n";
+
+    private byte[] input;
+
+    @Setup
+    public void setup()
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < GAME_COUNT / 2; i ++)
+        {
+            builder.append(GAMES);
+        }
+
+        this.input = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads all games of the input, the score is in games per second
+     */
+    @Benchmark
+    @OperationsPerInvocation(GAME_COUNT)
+    public void readGames(Blackhole blackhole) throws IOException
+    {
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(this.input)))
+        {
+            Game game;
+
+            while ((game = reader.readGame()) != null)
+            {
+                blackhole.consume(game);
+            }
+        }
+    }
+}
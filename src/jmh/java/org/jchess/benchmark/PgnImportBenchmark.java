@@ -0,0 +1,66 @@
+package org.jchess.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.jchess.model.PgnImportResult;
+import org.jchess.pgn.PgnImporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many games per second the parallel PGN import replays with different thread counts
+ * The input is large enough to be split into several chunks, so every worker gets games to replay
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PgnImportBenchmark
+{
+    private static final int GAME_COUNT = 10000; // how many games are imported per invocation
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private byte[] input;
+    private PgnImporter importer;
+
+    @Setup
+    public void setup()
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < GAME_COUNT / 2; i ++)
+        {
+            builder.append(PgnBenchmark.GAMES);
+        }
+
+        this.input = builder.toString().getBytes(StandardCharsets.UTF_8);
+        this.importer = new PgnImporter(this.threads);
+    }
+
+    /**
+     * Imports all games of the input, the score is in games per second
+     */
+    @Benchmark
+    @OperationsPerInvocation(GAME_COUNT)
+    public PgnImportResult importGames() throws IOException
+    {
+        return this.importer.importGames(new ByteArrayInputStream(this.input), null);
+    }
+}
@@ -0,0 +1,154 @@
+package org.jchess.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jchess.book.PolyglotBook;
+import org.jchess.book.PolyglotKeys;
+import org.jchess.control.BoardManager;
+import org.jchess.control.MoveManager;
+import org.jchess.model.Board;
+import org.jchess.model.BookMove;
+import org.jchess.model.Move;
+import org.jchess.model.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for looking up positions in a memory mapped Polyglot book
+ * The book is generated before the run: random entries from a fixed seed plus every legal move of the benchmark positions, sorted like a real book
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PolyglotBookBenchmark
+{
+    private static final long SEED = 2024; // the seed of the random table and the random entries
+
+    @Param({ "1000000", "10000000" })
+    private int entryCount; // how many random entries the book has besides the benchmark positions
+
+    @Param
+    private BenchmarkPosition position;
+
+    private Path path; // the generated book
+    private PolyglotBook book;
+    private Board board;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        Random random = new Random(SEED);
+        long[] randoms = new long[PolyglotKeys.RANDOM_COUNT];
+
+        for (int i = 0; i < randoms.length; i ++)
+        {
+            randoms[i] = random.nextLong();
+        }
+
+        PolyglotKeys keys = new PolyglotKeys(randoms);
+        BenchmarkPosition[] positions = BenchmarkPosition.values();
+        Map<Long, MoveList> positionMoves = new HashMap<>(); // the legal moves of every benchmark position by key
+        long[] entryKeys = new long[this.entryCount + positions.length]; // one key per random entry and per benchmark position
+
+        for (int i = 0; i < this.entryCount; i ++)
+        {
+            entryKeys[i] = random.nextLong();
+        }
+
+        for (int i = 0; i < positions.length; i ++)
+        {
+            Board positionBoard = BoardManager.generateBoard(positions[i].getFEN());
+            MoveList moveList = new MoveList();
+
+            MoveManager.generateLegalMoves(positionBoard, moveList);
+            entryKeys[this.entryCount + i] = keys.computeKey(positionBoard);
+            positionMoves.put(entryKeys[this.entryCount + i], moveList);
+        }
+
+        // Flipping the highest bit makes the signed order the same as the unsigned order of the book
+        for (int i = 0; i < entryKeys.length; i ++)
+        {
+            entryKeys[i] ^= Long.MIN_VALUE;
+        }
+
+        Arrays.sort(entryKeys);
+
+        ByteBuffer data = ByteBuffer.allocate((this.entryCount + positions.length * 256) * 16);
+
+        for (int i = 0; i < entryKeys.length; i ++)
+        {
+            long key = entryKeys[i] ^ Long.MIN_VALUE;
+            MoveList moveList = positionMoves.get(key);
+
+            if (moveList == null)
+            {
+                PolyglotBookBenchmark.putEntry(data, key, random.nextInt(1 << 12));
+                continue;
+            }
+
+            for (int j = 0; j < moveList.size(); j ++)
+            {
+                PolyglotBookBenchmark.putEntry(data, key, Move.getTo(moveList.get(j)) | (Move.getFrom(moveList.get(j)) << 6));
+            }
+        }
+
+        this.path = Files.createTempFile("jchess-book", ".bin");
+        Files.write(this.path, Arrays.copyOf(data.array(), data.position()));
+        this.book = new PolyglotBook(this.path, keys);
+        this.board = BoardManager.generateBoard(this.position.getFEN());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        this.book.close();
+        Files.deleteIfExists(this.path);
+    }
+
+    @Benchmark
+    public boolean contains()
+    {
+        return this.book.contains(this.board);
+    }
+
+    @Benchmark
+    public BookMove[] getMoves()
+    {
+        return this.book.getMoves(this.board);
+    }
+
+    /**
+     * Writes an entry in the book format with a weight of 1
+     * @param data The book
+     * @param key The key of the position
+     * @param move The move in the book format
+     */
+    private static void putEntry(ByteBuffer data, long key, int move)
+    {
+        data.putLong(key);
+        data.putShort((short) move);
+        data.putShort((short) 1);
+        data.putInt(0);
+    }
+}
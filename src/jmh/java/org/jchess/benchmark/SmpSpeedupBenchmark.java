@@ -0,0 +1,96 @@
+package org.jchess.benchmark;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.jchess.control.BoardManager;
+import org.jchess.engine.ParallelSearch;
+import org.jchess.engine.SearchLimits;
+import org.jchess.engine.SearchResult;
+import org.jchess.model.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how long the parallel search needs to reach a fixed depth with different thread counts
+ * Every search starts with an empty transposition table. Run the <i>main</i> method to get the speedup of every thread count compared to a single thread:
+ * <i>java -cp target/benchmarks.jar org.jchess.benchmark.SmpSpeedupBenchmark</i>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SmpSpeedupBenchmark
+{
+    @Param({"KIWIPETE", "MIDDLEGAME"})
+    private BenchmarkPosition position;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    private int threads;
+
+    @Param({"6"})
+    private int depth;
+
+    private Board board;
+    private ParallelSearch search;
+
+    @Setup(Level.Invocation)
+    public void setup()
+    {
+        this.board = BoardManager.generateBoard(this.position.getFEN());
+        this.search = new ParallelSearch(this.threads);
+    }
+
+    @Benchmark
+    public SearchResult timeToDepth()
+    {
+        return this.search.search(this.board, new SearchLimits(this.depth, SearchLimits.NO_LIMIT, SearchLimits.NO_LIMIT));
+    }
+
+    /**
+     * Runs the benchmark for every thread count up to the number of available cores and prints the speedups
+     * @param args Unused
+     */
+    public static void main(String[] args) throws RunnerException
+    {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (BenchmarkPosition position : new BenchmarkPosition[] { BenchmarkPosition.KIWIPETE, BenchmarkPosition.MIDDLEGAME })
+        {
+            double singleThreadTime = 0;
+
+            for (int threads = 1; threads <= cores; threads *= 2)
+            {
+                Collection<RunResult> results = new Runner(new OptionsBuilder()
+                    .include(SmpSpeedupBenchmark.class.getSimpleName())
+                    .param("position", position.name())
+                    .param("threads", String.valueOf(threads))
+                    .build()).run();
+                double time = results.iterator().next().getPrimaryResult().getScore();
+
+                if (threads == 1)
+                {
+                    singleThreadTime = time;
+                }
+
+                System.out.println(position + ", " + threads + " threads: " + time + " ms, speedup " + (singleThreadTime / time));
+            }
+        }
+    }
+}
@@ -1,9 +1,26 @@
 package org.jchess;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.jchess.book.PolyglotBook;
+import org.jchess.book.PolyglotKeys;
+import org.jchess.control.BoardManager;
 import org.jchess.control.GameManager;
+import org.jchess.control.PerftManager;
+import org.jchess.model.Board;
+import org.jchess.pgn.PgnImporter;
+import org.jchess.uci.UCIEngine;
+import org.jchess.view.UI;
 
 /**
  * This class is used to show a simple example of the JChess libary
+ * Started without arguments it lets the user play a game, started with <i>perft &lt;depth&gt; [threads] [FEN]</i> it counts the move tree of a position
+ * started with <i>pgn &lt;file&gt; [threads]</i> it replays all games of a PGN file
+ * started with <i>book &lt;file&gt; [random table] [FEN]</i> it prints the moves of a Polyglot opening book
+ * and started with <i>uci</i> it runs as an engine that a chess GUI talks to through the Universal Chess Interface
  *
  * @author Arian Dannemann
  * @version 0.3
@@ -12,6 +29,30 @@ public class App
 {
     public static void main(String[] args)
     {
+        if (args.length > 0 && args[0].equals("perft"))
+        {
+            startPerft(args);
+            return;
+        }
+
+        if (args.length > 1 && args[0].equals("pgn"))
+        {
+            startPgn(args);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("uci"))
+        {
+            startUCI();
+            return;
+        }
+
+        if (args.length > 1 && args[0].equals("book"))
+        {
+            startBook(args);
+            return;
+        }
+
         startGame();
     }
 
@@ -19,4 +60,97 @@ public class App
     {
         GameManager.startGame();
     }
+
+    /**
+     * Runs perft on a position and prints the node count of every move
+     * @param args The program arguments: <i>perft &lt;depth&gt; [threads] [FEN]</i>, the standard position is used if no FEN is given
+     */
+    public static void startPerft(String[] args)
+    {
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int threads = 1;
+        int FENStart = 2;
+        Board board;
+
+        // The thread count is optional, a FEN never starts with a plain number
+        if (args.length > 2 && args[2].matches("\\d+"))
+        {
+            threads = Integer.parseInt(args[2]);
+            FENStart = 3;
+        }
+
+        if (args.length > FENStart)
+        {
+            board = BoardManager.generateBoard(String.join(" ", Arrays.copyOfRange(args, FENStart, args.length)));
+        }
+        else
+        {
+            board = BoardManager.generateBoard();
+        }
+
+        UI.printPerftResult(PerftManager.divide(board, depth, threads));
+    }
+
+    /**
+     * Reads and replays all games of a PGN file and prints the statistics of the games
+     * @param args The program arguments: <i>pgn &lt;file&gt; [threads]</i>, all available cores are used if no thread count is given
+     */
+    public static void startPgn(String[] args)
+    {
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        try
+        {
+            UI.printPgnResult(new PgnImporter(threads).importGames(Paths.get(args[1]), null));
+        }
+        catch (IOException exception)
+        {
+            UI.println("The PGN file could not be read: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Looks up a position in a Polyglot opening book and prints its moves
+     * @param args The program arguments: <i>book &lt;file&gt; [random table] [FEN]</i>, the random table is a text file with the 781 numbers of another
+     * <i>Random64</i> table than the one of Polyglot, it is only used if the file exists. The standard position is used if no FEN is given
+     */
+    public static void startBook(String[] args)
+    {
+        Board board;
+        boolean hasRandomTable = args.length > 2 && Files.isRegularFile(Paths.get(args[2]));
+        int fenStart = hasRandomTable ? 3 : 2;
+
+        if (args.length > fenStart)
+        {
+            board = BoardManager.generateBoard(String.join(" ", Arrays.copyOfRange(args, fenStart, args.length)));
+        }
+        else
+        {
+            board = BoardManager.generateBoard();
+        }
+
+        try (PolyglotBook book = new PolyglotBook(Paths.get(args[1]), hasRandomTable ? PolyglotKeys.read(Paths.get(args[2])) : PolyglotKeys.STANDARD))
+        {
+            UI.printBookMoves(book.getMoves(board));
+        }
+        catch (IOException exception)
+        {
+            UI.println("The opening book could not be read: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Runs the engine through the Universal Chess Interface on the standard input and output until the GUI sends <i>quit</i>
+     */
+    public static void startUCI()
+    {
+        try
+        {
+            new UCIEngine(System.in, System.out).run();
+        }
+        catch (IOException exception)
+        {
+            System.err.println("The UCI input could not be read: " + exception.getMessage());
+        }
+    }
 }
@@ -0,0 +1,278 @@
+package org.jchess.book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.jchess.control.BitboardManager;
+import org.jchess.control.MoveManager;
+import org.jchess.exceptions.InvalidBookException;
+import org.jchess.model.Board;
+import org.jchess.model.BookMove;
+import org.jchess.model.Move;
+import org.jchess.model.MoveList;
+import org.jchess.model.PieceType;
+
+/**
+ * Looks up moves in an opening book in the Polyglot format (<i>.bin</i>)
+ * <p>
+ * A book is a list of entries of 16 bytes (big-endian) that is sorted by key: the Polyglot key of the position (8 bytes), the move (2 bytes), its weight (2 bytes)
+ * and learning data (4 bytes). The file is memory mapped in windows and searched in place, so a lookup only reads the few pages it needs and books
+ * larger than the heap can be used. Reading does not change the book, so one book can be shared by several threads
+ */
+public class PolyglotBook implements Closeable
+{
+    private static final int ENTRY_SIZE = 16; // how many bytes an entry takes
+    private static final int WINDOW_SHIFT = 26; // a window holds 2^26 entries (1 GB), so the offsets inside of a window fit into an int
+    private static final long WINDOW_MASK = (1L << WINDOW_SHIFT) - 1;
+    private static final PieceType[] PROMOTION_TYPES = { PieceType.NONE, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN }; // the promotion types in the order of the book format
+
+    private final FileChannel file;
+    private final MappedByteBuffer[] windows; // the mapped parts of the file, every one except the last holds 2^WINDOW_SHIFT entries
+    private final long entryCount; // how many entries the book has
+    private final PolyglotKeys keys; // computes the keys of the positions that are looked up
+
+    /**
+     * Open a book that uses the standard Polyglot keys
+     * @param path The path of the book
+     * @throws IOException If the file could not be opened
+     * @throws InvalidBookException If the size of the file is not a multiple of 16 bytes
+     */
+    public PolyglotBook(Path path) throws IOException
+    {
+        this(path, PolyglotKeys.STANDARD);
+    }
+
+    /**
+     * Open a book
+     * @param path The path of the book
+     * @param keys The keys of the Polyglot <i>Random64</i> table, usually {@link PolyglotKeys#STANDARD}
+     * @throws IOException If the file could not be opened
+     * @throws InvalidBookException If the size of the file is not a multiple of 16 bytes
+     */
+    public PolyglotBook(Path path, PolyglotKeys keys) throws IOException
+    {
+        this.file = FileChannel.open(path, StandardOpenOption.READ);
+        this.keys = keys;
+
+        try
+        {
+            long size = this.file.size();
+
+            if (size % ENTRY_SIZE != 0)
+            {
+                throw new InvalidBookException();
+            }
+
+            this.entryCount = size / ENTRY_SIZE;
+            this.windows = new MappedByteBuffer[(int) ((this.entryCount + WINDOW_MASK) >>> WINDOW_SHIFT)];
+
+            for (int i = 0; i < this.windows.length; i ++)
+            {
+                long start = ((long) i << WINDOW_SHIFT) * ENTRY_SIZE;
+
+                this.windows[i] = this.file.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, (WINDOW_MASK + 1) * ENTRY_SIZE));
+            }
+        }
+        catch (IOException | RuntimeException exception)
+        {
+            this.file.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Gets the book moves of a position
+     * Moves that are not legal on the board, i.e. because of a key collision, are left out. Castling is stored as the king capturing its own rook
+     * in the book and returned as our castling move
+     * @param board The board
+     * @return The moves in the order of the book, which is usually the highest weight first. Empty if the book does not know the position
+     */
+    public BookMove[] getMoves(Board board)
+    {
+        long key = this.keys.computeKey(board);
+        long first = this.findFirstEntry(key);
+        long last = first;
+
+        while (last < this.entryCount && this.getKey(last) == key)
+        {
+            last ++;
+        }
+
+        if (first == last)
+        {
+            return new BookMove[0];
+        }
+
+        MoveList legalMoves = new MoveList();
+        BookMove[] moves = new BookMove[(int) (last - first)];
+        int count = 0;
+
+        MoveManager.generateLegalMoves(board, legalMoves);
+
+        for (long i = first; i < last; i ++)
+        {
+            MappedByteBuffer window = this.windows[(int) (i >>> WINDOW_SHIFT)];
+            int offset = (int) (i & WINDOW_MASK) * ENTRY_SIZE;
+            int move = PolyglotBook.findMove(board, legalMoves, window.getShort(offset + 8) & 0xFFFF);
+
+            if (move != Move.NONE)
+            {
+                moves[count] = new BookMove(move, window.getShort(offset + 10) & 0xFFFF, window.getInt(offset + 12));
+                count ++;
+            }
+        }
+
+        return count == moves.length ? moves : Arrays.copyOf(moves, count);
+    }
+
+    /**
+     * Picks one of the book moves of a position, moves with a higher weight are picked more often
+     * @param board The board
+     * @param random The random numbers the move is picked with
+     * @return The move that can be played with <i>BoardManager.movePiece</i>, <i>null</i> if the book does not know the position or all weights are 0
+     */
+    public Move pickMove(Board board, Random random)
+    {
+        BookMove[] moves = this.getMoves(board);
+        int totalWeight = 0;
+
+        for (int i = 0; i < moves.length; i ++)
+        {
+            totalWeight += moves[i].getWeight();
+        }
+
+        if (totalWeight == 0)
+        {
+            return null;
+        }
+
+        int pick = random.nextInt(totalWeight);
+
+        for (int i = 0; i < moves.length; i ++)
+        {
+            pick -= moves[i].getWeight();
+
+            if (pick < 0)
+            {
+                return MoveManager.getMoveFromEncodedMove(board, moves[i].getMove());
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks if the book knows a position without decoding its moves
+     * @param board The board
+     * @return <i>true</i> if there is at least one entry for the position
+     */
+    public boolean contains(Board board)
+    {
+        long key = this.keys.computeKey(board);
+        long first = this.findFirstEntry(key);
+
+        return first < this.entryCount && this.getKey(first) == key;
+    }
+
+    public long getEntryCount()
+    {
+        return this.entryCount;
+    }
+
+    public PolyglotKeys getKeys()
+    {
+        return this.keys;
+    }
+
+    /**
+     * Closes the file. The mapped windows are released by the garbage collector, the book cannot be used afterwards
+     */
+    @Override
+    public void close() throws IOException
+    {
+        this.file.close();
+    }
+
+    /**
+     * Searches for the first entry of a key
+     * The entries are sorted by their keys as unsigned numbers
+     * @param key The key
+     * @return The index of the first entry whose key is not smaller than the given one, <i>entryCount</i> if there is none
+     */
+    private long findFirstEntry(long key)
+    {
+        long low = 0;
+        long high = this.entryCount;
+
+        while (low < high)
+        {
+            long middle = (low + high) >>> 1;
+
+            if (Long.compareUnsigned(this.getKey(middle), key) < 0)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Gets the key of an entry
+     * @param index The index of the entry
+     * @return The key
+     */
+    private long getKey(long index)
+    {
+        return this.windows[(int) (index >>> WINDOW_SHIFT)].getLong((int) (index & WINDOW_MASK) * ENTRY_SIZE);
+    }
+
+    /**
+     * Finds the legal move that belongs to a move of the book
+     * The book stores the destination file in bits 0-2, the destination rank in bits 3-5, the origin in bits 6-11 the same way and the promotion type in bits 12-14,
+     * so the squares are numbered like ours
+     * @param board The board
+     * @param legalMoves The legal moves of the board
+     * @param bookMove The move of the book
+     * @return The encoded move, <i>Move.NONE</i> if it is not legal
+     */
+    private static int findMove(Board board, MoveList legalMoves, int bookMove)
+    {
+        int to = bookMove & 63;
+        int from = (bookMove >>> 6) & 63;
+        int promotion = (bookMove >>> 12) & 7;
+        PieceType promotionType = promotion < PROMOTION_TYPES.length ? PROMOTION_TYPES[promotion] : PieceType.NONE;
+        int[] squares = board.getSquares();
+
+        // The king captures its own rook when castling, we move the king two squares instead
+        if (squares[from] != BitboardManager.NO_PIECE && squares[to] != BitboardManager.NO_PIECE
+            && BitboardManager.getPieceType(squares[from]) == PieceType.KING
+            && BitboardManager.getPieceType(squares[to]) == PieceType.ROOK
+            && BitboardManager.getPieceColor(squares[from]) == BitboardManager.getPieceColor(squares[to]))
+        {
+            to = to > from ? from + 2 : from - 2;
+        }
+
+        for (int i = 0; i < legalMoves.size(); i ++)
+        {
+            int move = legalMoves.get(i);
+
+            if (Move.getFrom(move) == from && Move.getTo(move) == to && Move.getPromotionType(move) == promotionType)
+            {
+                return move;
+            }
+        }
+
+        return Move.NONE;
+    }
+}
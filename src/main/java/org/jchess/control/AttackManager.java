@@ -0,0 +1,331 @@
+package org.jchess.control;
+
+import org.jchess.model.Color;
+
+/**
+ * This class contains precomputed attack tables for all pieces
+ * Rook and bishop attacks are looked up through magic bitboards: the relevant blockers of a square are multiplied by a magic number,
+ * which maps every possible blocker configuration to its own slot inside a shared attack table
+ * All tables are built once when the class is loaded, the time this took can be read through {@link #getInitializationTime()}
+ */
+public class AttackManager
+{
+    private static final long[] ROOK_MAGICS = {
+        0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+        0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+        0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+        0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+        0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+        0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+        0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+        0x0442000A00049020L, 0x2100040080020080L, 0x0800120400900148L, 0x0010040A00128541L,
+        0x2800804000800030L, 0x1010002000400041L, 0x4000200011004100L, 0x0610008410800800L,
+        0x0400802402800800L, 0xC100020080800400L, 0x0002000802000401L, 0x0182085882000401L,
+        0x0220204000808000L, 0x2860100040024022L, 0x0001002004110040L, 0x99101042000A0020L,
+        0x0004080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+        0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+        0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+        0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+        0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+        0xA010041108003100L, 0x006082020A002900L, 0x6810010619200000L, 0x08281A0520000408L,
+        0x0001104001000400L, 0x0018901008048400L, 0x00040A0210245280L, 0x000200210808A402L,
+        0x9140048410821200L, 0x0800091010820041L, 0x20504804832202C0L, 0x0100091401081000L,
+        0x8021011140000012L, 0x0810020804450400L, 0x208B0542109008A2L, 0x0080084A08040204L,
+        0x0040E2A80811244CL, 0x2505022008008108L, 0x0430220100420040L, 0x010A040420220040L,
+        0x1105000290400000L, 0x0093001200822120L, 0x4000A62048043004L, 0x280120048A015004L,
+        0x006090002A020814L, 0x44042000240800D0L, 0x01102800040A4400L, 0x1004080080220040L,
+        0x0001001011004024L, 0x0010044000805040L, 0x0914041200820100L, 0x0004821012821480L,
+        0x0024040500C05021L, 0x0088611002080200L, 0x0116080A00040020L, 0x4000020080080080L,
+        0x2450450140840040L, 0x0000880201484100L, 0x0222020404020092L, 0x8081110600002E00L,
+        0x2842101105000801L, 0x1100809008001025L, 0x00020202221C0400L, 0x0422014022009020L,
+        0x0210046102100C00L, 0xC004008082029102L, 0x00AA461801101200L, 0x0404080080201108L,
+        0x020542108C205002L, 0x0410544804100100L, 0x0040910841100000L, 0x0400200042021100L,
+        0x00004204850400C0L, 0x0200100410A42102L, 0x1040020801210102L, 0x0805040410420000L,
+        0x2884804130100200L, 0x800C262201242000L, 0x1058000194108800L, 0x0014221054420204L,
+        0x0104000012A02200L, 0x0200881003300100L, 0x0140400202840100L, 0x0402020801010201L
+    };
+
+    private static final int[][] KNIGHT_OFFSETS = { { 2, 1 }, { 2, -1 }, { -2, 1 }, { -2, -1 }, { 1, 2 }, { -1, 2 }, { 1, -2 }, { -1, -2 } };
+    private static final int[][] KING_OFFSETS = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 }, { 1, 1 }, { -1, 1 }, { 1, -1 }, { -1, -1 } };
+    private static final int[][][] PAWN_OFFSETS = { { { -1, 1 }, { 1, 1 } }, { { -1, -1 }, { 1, -1 } } }; // the capture offsets of white and black pawns
+
+    private static final int[][] ROOK_DIRECTIONS = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+    private static final int[][] BISHOP_DIRECTIONS = { { 1, 1 }, { -1, 1 }, { 1, -1 }, { -1, -1 } };
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64]; // the squares attacked by a white or black pawn on each square
+
+    private static final long[] ROOK_MASKS = new long[64]; // the squares that can block a rook on each square
+    private static final long[] BISHOP_MASKS = new long[64]; // the squares that can block a bishop on each square
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64]; // where the attacks of each square start inside the attack table
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] SLIDING_ATTACKS; // the attacks of every square and blocker configuration for rooks and bishops
+
+    private static final long[][] SQUARES_BETWEEN = new long[64][64]; // the squares between two squares on the same line, excluding both
+    private static final long[][] LINES = new long[64][64]; // the entire line through two squares from edge to edge
+
+    private static final long INITIALIZATION_TIME; // how many nanoseconds it took to build the tables
+
+    static
+    {
+        long startTime = System.nanoTime();
+        int tableSize = 0;
+        int square = 0;
+
+        for (square = 0; square < 64; square ++)
+        {
+            KNIGHT_ATTACKS[square] = getOffsetAttacks(square, KNIGHT_OFFSETS);
+            KING_ATTACKS[square] = getOffsetAttacks(square, KING_OFFSETS);
+            PAWN_ATTACKS[0][square] = getOffsetAttacks(square, PAWN_OFFSETS[0]);
+            PAWN_ATTACKS[1][square] = getOffsetAttacks(square, PAWN_OFFSETS[1]);
+
+            ROOK_MASKS[square] = getRelevantBlockers(square, ROOK_DIRECTIONS);
+            BISHOP_MASKS[square] = getRelevantBlockers(square, BISHOP_DIRECTIONS);
+            ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+            BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+
+            ROOK_OFFSETS[square] = tableSize;
+            tableSize += 1 << Long.bitCount(ROOK_MASKS[square]);
+            BISHOP_OFFSETS[square] = tableSize;
+            tableSize += 1 << Long.bitCount(BISHOP_MASKS[square]);
+        }
+
+        SLIDING_ATTACKS = new long[tableSize];
+
+        for (square = 0; square < 64; square ++)
+        {
+            fillAttackTable(square, ROOK_MASKS[square], ROOK_MAGICS[square], ROOK_SHIFTS[square], ROOK_OFFSETS[square], ROOK_DIRECTIONS);
+            fillAttackTable(square, BISHOP_MASKS[square], BISHOP_MAGICS[square], BISHOP_SHIFTS[square], BISHOP_OFFSETS[square], BISHOP_DIRECTIONS);
+        }
+
+        for (square = 0; square < 64; square ++)
+        {
+            for (int otherSquare = 0; otherSquare < 64; otherSquare ++)
+            {
+                long squareBit = 1L << square;
+                long otherSquareBit = 1L << otherSquare;
+
+                if ((getRookAttacks(square, 0L) & otherSquareBit) != 0)
+                {
+                    SQUARES_BETWEEN[square][otherSquare] = getRookAttacks(square, otherSquareBit) & getRookAttacks(otherSquare, squareBit);
+                    LINES[square][otherSquare] = (getRookAttacks(square, 0L) & getRookAttacks(otherSquare, 0L)) | squareBit | otherSquareBit;
+                }
+                else if ((getBishopAttacks(square, 0L) & otherSquareBit) != 0)
+                {
+                    SQUARES_BETWEEN[square][otherSquare] = getBishopAttacks(square, otherSquareBit) & getBishopAttacks(otherSquare, squareBit);
+                    LINES[square][otherSquare] = (getBishopAttacks(square, 0L) & getBishopAttacks(otherSquare, 0L)) | squareBit | otherSquareBit;
+                }
+            }
+        }
+
+        INITIALIZATION_TIME = System.nanoTime() - startTime;
+    }
+
+    /**
+     * Gets all squares a knight could move to or capture on
+     * @param square The square of the knight from 0 to 63
+     * @return A bitboard of the attacked squares
+     */
+    public static long getKnightAttacks(int square)
+    {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * Gets all squares a king could move to or capture on, not including castling
+     * @param square The square of the king from 0 to 63
+     * @return A bitboard of the attacked squares
+     */
+    public static long getKingAttacks(int square)
+    {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * Gets the squares a pawn could capture on
+     * @param square The square of the pawn from 0 to 63
+     * @param color The color of the pawn
+     * @return A bitboard of the attacked squares
+     */
+    public static long getPawnAttacks(int square, Color color)
+    {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * Gets all squares a rook could move to or capture on
+     * @param square The square of the rook from 0 to 63
+     * @param occupancy All occupied squares of the board
+     * @return A bitboard of the attacked squares, including squares occupied by pieces of the same color
+     */
+    public static long getRookAttacks(int square, long occupancy)
+    {
+        return SLIDING_ATTACKS[ROOK_OFFSETS[square] + (int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * Gets all squares a bishop could move to or capture on
+     * @param square The square of the bishop from 0 to 63
+     * @param occupancy All occupied squares of the board
+     * @return A bitboard of the attacked squares, including squares occupied by pieces of the same color
+     */
+    public static long getBishopAttacks(int square, long occupancy)
+    {
+        return SLIDING_ATTACKS[BISHOP_OFFSETS[square] + (int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * Gets all squares a queen could move to or capture on
+     * @param square The square of the queen from 0 to 63
+     * @param occupancy All occupied squares of the board
+     * @return A bitboard of the attacked squares, including squares occupied by pieces of the same color
+     */
+    public static long getQueenAttacks(int square, long occupancy)
+    {
+        return getRookAttacks(square, occupancy) | getBishopAttacks(square, occupancy);
+    }
+
+    /**
+     * Gets the squares between two squares that share a rank, file or diagonal
+     * @param square The first square from 0 to 63
+     * @param otherSquare The second square from 0 to 63
+     * @return A bitboard of the squares in between, not including the two squares themselves. Empty if the squares are not on a common line
+     */
+    public static long getSquaresBetween(int square, int otherSquare)
+    {
+        return SQUARES_BETWEEN[square][otherSquare];
+    }
+
+    /**
+     * Gets the whole rank, file or diagonal that goes through two squares
+     * @param square The first square from 0 to 63
+     * @param otherSquare The second square from 0 to 63
+     * @return A bitboard of the line from one edge of the board to the other. Empty if the squares are not on a common line
+     */
+    public static long getLine(int square, int otherSquare)
+    {
+        return LINES[square][otherSquare];
+    }
+
+    /**
+     * Gets how long it took to build the attack tables when the class was loaded
+     * @return The initialization time in nanoseconds
+     */
+    public static long getInitializationTime()
+    {
+        return INITIALIZATION_TIME;
+    }
+
+    /**
+     * Gets all squares that can be reached by jumping from a square by one of the given offsets. Only used to build the tables
+     * @param square The square of the piece
+     * @param offsets The file and rank offsets the piece can jump by
+     * @return A bitboard of the reachable squares
+     */
+    private static long getOffsetAttacks(int square, int[][] offsets)
+    {
+        long attacks = 0L;
+
+        for (int[] offset : offsets)
+        {
+            int file = (square & 7) + offset[0];
+            int rank = (square >>> 3) + offset[1];
+
+            if (BitboardManager.isOnBoard(file, rank))
+            {
+                attacks |= 1L << BitboardManager.getSquare(file, rank);
+            }
+        }
+
+        return attacks;
+    }
+
+    /**
+     * Gets all squares whose occupancy changes the attacks of a sliding piece. The last square of every ray is left out, since it is attacked either way
+     * @param square The square of the piece
+     * @param directions The directions the piece can slide in
+     * @return A bitboard of all relevant blocker squares
+     */
+    private static long getRelevantBlockers(int square, int[][] directions)
+    {
+        long blockers = 0L;
+
+        for (int[] direction : directions)
+        {
+            int file = (square & 7) + direction[0];
+            int rank = (square >>> 3) + direction[1];
+
+            while (BitboardManager.isOnBoard(file + direction[0], rank + direction[1]))
+            {
+                blockers |= 1L << BitboardManager.getSquare(file, rank);
+                file += direction[0];
+                rank += direction[1];
+            }
+        }
+
+        return blockers;
+    }
+
+    /**
+     * Calculates the attacks of a sliding piece by walking each ray until it hits a blocker. Only used to build the tables
+     * @param square The square of the piece
+     * @param occupancy All occupied squares
+     * @param directions The directions the piece can slide in
+     * @return A bitboard of the attacked squares
+     */
+    private static long getRayAttacks(int square, long occupancy, int[][] directions)
+    {
+        long attacks = 0L;
+
+        for (int[] direction : directions)
+        {
+            int file = (square & 7) + direction[0];
+            int rank = (square >>> 3) + direction[1];
+
+            while (BitboardManager.isOnBoard(file, rank))
+            {
+                long bit = 1L << BitboardManager.getSquare(file, rank);
+
+                attacks |= bit;
+
+                if ((occupancy & bit) != 0)
+                {
+                    break;
+                }
+
+                file += direction[0];
+                rank += direction[1];
+            }
+        }
+
+        return attacks;
+    }
+
+    /**
+     * Stores the attacks of every blocker configuration of a square inside the attack table
+     * @param square The square of the piece
+     * @param mask The relevant blockers of the square
+     * @param magic The magic number of the square
+     * @param shift How far the product of blockers and magic number is shifted to get the table index
+     * @param offset Where the attacks of the square start inside the attack table
+     * @param directions The directions the piece can slide in
+     */
+    private static void fillAttackTable(int square, long mask, long magic, int shift, int offset, int[][] directions)
+    {
+        long blockers = 0L;
+
+        // Walk through every subset of the mask
+        do
+        {
+            SLIDING_ATTACKS[offset + (int) ((blockers * magic) >>> shift)] = getRayAttacks(square, blockers, directions);
+            blockers = (blockers - mask) & mask;
+        }
+        while (blockers != 0);
+    }
+}
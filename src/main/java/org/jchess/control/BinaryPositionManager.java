@@ -0,0 +1,287 @@
+package org.jchess.control;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.jchess.exceptions.InvalidBinaryPositionException;
+import org.jchess.model.Board;
+import org.jchess.model.CastlingStatus;
+import org.jchess.model.Color;
+import org.jchess.model.Position;
+
+/**
+ * This class stores boards in a compact binary format of {@link #ENCODED_SIZE} bytes, to keep many positions in memory or send them over the network
+ * <p>
+ * Every position has the same size, so a batch of positions is just one after another and can be read at any index. The bytes are:
+ * <ul>
+ * <li>0 - 7: the occupancy bitboard, bit <i>n</i> is set if square <i>n</i> is occupied</li>
+ * <li>8 - 23: the piece index of every occupied square as 4 bits, in the order of the squares. The first one is in the lowest bits of byte 15,
+ * the 17th one in the lowest bits of byte 23, unused entries are 0</li>
+ * <li>24: bit 0 is set if black is to move, bits 1 - 2 are the castling status of white and bits 3 - 4 the one of black (ordinal of <i>CastlingStatus</i>)</li>
+ * <li>25: the file of the en passant position plus 1, 0 if there is none</li>
+ * <li>26 - 27: the halfmove clock, up to 65535</li>
+ * <li>28 - 31: how many moves have been played, counting the moves of both sides</li>
+ * </ul>
+ * Numbers are always big-endian, no matter what order the buffer uses. Moves that could be taken back are not stored
+ */
+public class BinaryPositionManager
+{
+    public static final int ENCODED_SIZE = 32; // how many bytes a position takes
+    public static final int MAX_PIECES = 32; // how many pieces a board can have at most to be encoded
+
+    private static final int MAX_HALFMOVE_CLOCK = 0xFFFF; // a longer halfmove clock is stored as this
+    private static final int UNUSED_FLAGS = ~0x1F; // the bits of byte 24 that have to be 0
+    private static final CastlingStatus[] CASTLING_STATUSES = CastlingStatus.values();
+
+    /**
+     * Encodes a board
+     * @param board The board
+     * @return A new array with the encoded position
+     * @throws InvalidBinaryPositionException If the board has more than 32 pieces
+     */
+    public static byte[] encode(Board board)
+    {
+        byte[] data = new byte[ENCODED_SIZE];
+
+        BinaryPositionManager.encode(board, ByteBuffer.wrap(data));
+
+        return data;
+    }
+
+    /**
+     * Encodes a board into a buffer
+     * @param board The board
+     * @param buffer The buffer, the position is written at its position which is moved behind it
+     * @throws InvalidBinaryPositionException If the board has more than 32 pieces, nothing is written in that case
+     */
+    public static void encode(Board board, ByteBuffer buffer)
+    {
+        long[] colorBitboards = board.getColorBitboards();
+        int[] squares = board.getSquares();
+        long occupancy = colorBitboards[0] | colorBitboards[1];
+        long lowPieces = 0; // the pieces of the first 16 occupied squares
+        long highPieces = 0; // the pieces of the remaining occupied squares
+        long rest = occupancy;
+        int i;
+
+        if (Long.bitCount(occupancy) > MAX_PIECES)
+        {
+            throw new InvalidBinaryPositionException();
+        }
+
+        for (i = 0; i < 16 && rest != 0; i ++)
+        {
+            lowPieces |= (long) squares[Long.numberOfTrailingZeros(rest)] << (i * 4);
+            rest &= rest - 1;
+        }
+
+        for (i = 0; rest != 0; i ++)
+        {
+            highPieces |= (long) squares[Long.numberOfTrailingZeros(rest)] << (i * 4);
+            rest &= rest - 1;
+        }
+
+        boolean isBigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        Position enPassantPosition = board.getEnPassanPosition();
+
+        buffer.putLong(isBigEndian ? occupancy : Long.reverseBytes(occupancy));
+        buffer.putLong(isBigEndian ? lowPieces : Long.reverseBytes(lowPieces));
+        buffer.putLong(isBigEndian ? highPieces : Long.reverseBytes(highPieces));
+        buffer.put((byte) ((board.getPlayingSideColor() == Color.BLACK ? 1 : 0)
+            | board.getWhiteCastlingStatus().ordinal() << 1
+            | board.getBlackCastlingStatus().ordinal() << 3));
+        buffer.put((byte) (enPassantPosition == null ? 0 : enPassantPosition.getFile() + 1));
+
+        short halfmoveClock = (short) Math.min(board.getHalfmoveClock(), MAX_HALFMOVE_CLOCK);
+
+        buffer.putShort(isBigEndian ? halfmoveClock : Short.reverseBytes(halfmoveClock));
+        buffer.putInt(isBigEndian ? board.getMovesPlayed() : Integer.reverseBytes(board.getMovesPlayed()));
+    }
+
+    /**
+     * Decodes a position into a new board
+     * @param data The encoded position
+     * @return The board
+     * @throws InvalidBinaryPositionException If the data is not a valid position
+     */
+    public static Board decode(byte[] data)
+    {
+        Board board = new Board();
+
+        BinaryPositionManager.decode(ByteBuffer.wrap(data), board);
+
+        return board;
+    }
+
+    /**
+     * Decodes a position and sets up an existing board. Everything that was on the board before is removed, including the moves that could be taken back
+     * The bitboards, Zobrist key and evaluation scores are built in one pass over the occupied squares, without going through the <i>BitboardManager</i> per piece
+     * @param buffer The buffer, the position is read at its position which is moved behind it
+     * @param board The board that should be set up
+     * @throws InvalidBinaryPositionException If the data is not a valid position. The board is empty afterwards
+     */
+    public static void decode(ByteBuffer buffer, Board board)
+    {
+        boolean isBigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        long occupancy = buffer.getLong();
+        long lowPieces = buffer.getLong();
+        long highPieces = buffer.getLong();
+        int flags = buffer.get() & 0xFF;
+        int enPassantFile = buffer.get() & 0xFF;
+        short halfmoveClock = buffer.getShort();
+        int movesPlayed = buffer.getInt();
+
+        if (!isBigEndian)
+        {
+            occupancy = Long.reverseBytes(occupancy);
+            lowPieces = Long.reverseBytes(lowPieces);
+            highPieces = Long.reverseBytes(highPieces);
+            halfmoveClock = Short.reverseBytes(halfmoveClock);
+            movesPlayed = Integer.reverseBytes(movesPlayed);
+        }
+
+        board.clear();
+
+        if (Long.bitCount(occupancy) > MAX_PIECES || (flags & UNUSED_FLAGS) != 0 || enPassantFile > 8 || movesPlayed < 0)
+        {
+            throw new InvalidBinaryPositionException();
+        }
+
+        long[] bitboards = board.getBitboards();
+        int[] squares = board.getSquares();
+        long zobristKey = 0;
+        int middlegameScore = 0;
+        int endgameScore = 0;
+        int phase = 0;
+        long pieces = lowPieces;
+        long rest = occupancy;
+        int i;
+
+        for (i = 0; rest != 0; i ++)
+        {
+            if (i == 16)
+            {
+                pieces = highPieces;
+            }
+
+            int square = Long.numberOfTrailingZeros(rest);
+            int pieceIndex = (int) pieces & 0xF;
+
+            if (pieceIndex >= 12)
+            {
+                board.clear();
+                throw new InvalidBinaryPositionException();
+            }
+
+            bitboards[pieceIndex] |= rest & -rest;
+            squares[square] = pieceIndex;
+            zobristKey ^= ZobristManager.getPieceKey(pieceIndex, square);
+            middlegameScore += EvaluationManager.getMiddlegameScore(pieceIndex, square);
+            endgameScore += EvaluationManager.getEndgameScore(pieceIndex, square);
+            phase += EvaluationManager.getPhase(pieceIndex);
+            pieces >>>= 4;
+            rest &= rest - 1;
+        }
+
+        long[] colorBitboards = board.getColorBitboards();
+
+        colorBitboards[0] = bitboards[0] | bitboards[1] | bitboards[2] | bitboards[3] | bitboards[4] | bitboards[5];
+        colorBitboards[1] = occupancy & ~colorBitboards[0];
+
+        Color playingSideColor = (flags & 1) == 0 ? Color.WHITE : Color.BLACK;
+
+        board.setPlayingSideColor(playingSideColor);
+        board.setWhiteCastlingStatus(CASTLING_STATUSES[(flags >>> 1) & 3]);
+        board.setBlackCastlingStatus(CASTLING_STATUSES[(flags >>> 3) & 3]);
+
+        if (enPassantFile != 0)
+        {
+            board.setEnPassantPosition(Position.of(enPassantFile - 1, playingSideColor == Color.WHITE ? 5 : 2));
+        }
+
+        board.setHalfmoveClock(halfmoveClock & MAX_HALFMOVE_CLOCK);
+        board.setMovesPlayed(movesPlayed);
+        board.setMiddlegameScore(middlegameScore);
+        board.setEndgameScore(endgameScore);
+        board.setPhase(phase);
+        board.setArePiecesOutdated(true);
+
+        // The castling rights, the en passant file and the side to move are part of the key as well
+        board.setZobristKey(zobristKey
+            ^ ZobristManager.getCastlingKey(board)
+            ^ ZobristManager.getEnPassantKey(board.getEnPassanPosition())
+            ^ (playingSideColor == Color.BLACK ? ZobristManager.getSideKey() : 0));
+    }
+
+    /**
+     * Encodes several boards one after another
+     * @param boards The boards
+     * @return A new array with <i>ENCODED_SIZE</i> bytes per board
+     * @throws InvalidBinaryPositionException If a board has more than 32 pieces
+     */
+    public static byte[] encodeAll(Board[] boards)
+    {
+        byte[] data = new byte[boards.length * ENCODED_SIZE];
+
+        BinaryPositionManager.encodeAll(boards, ByteBuffer.wrap(data));
+
+        return data;
+    }
+
+    /**
+     * Encodes several boards one after another into a buffer
+     * @param boards The boards
+     * @param buffer The buffer, the positions are written at its position which is moved behind them
+     * @throws InvalidBinaryPositionException If a board has more than 32 pieces, the boards before it were written already
+     */
+    public static void encodeAll(Board[] boards, ByteBuffer buffer)
+    {
+        int i;
+
+        for (i = 0; i < boards.length; i ++)
+        {
+            BinaryPositionManager.encode(boards[i], buffer);
+        }
+    }
+
+    /**
+     * Decodes all positions of an array
+     * @param data The encoded positions, its length has to be a multiple of <i>ENCODED_SIZE</i>
+     * @return A new board for every position
+     * @throws InvalidBinaryPositionException If a position is not valid or the length does not fit
+     */
+    public static Board[] decodeAll(byte[] data)
+    {
+        if (data.length % ENCODED_SIZE != 0)
+        {
+            throw new InvalidBinaryPositionException();
+        }
+
+        Board[] boards = new Board[data.length / ENCODED_SIZE];
+
+        BinaryPositionManager.decodeAll(ByteBuffer.wrap(data), boards);
+
+        return boards;
+    }
+
+    /**
+     * Decodes one position per board from a buffer, existing boards are reused so decoding a batch again does not allocate any memory
+     * @param buffer The buffer, the positions are read at its position which is moved behind them
+     * @param boards The boards that should be set up, a new board is created for every entry that is <i>null</i>
+     * @throws InvalidBinaryPositionException If a position is not valid, the boards before it were set up already
+     */
+    public static void decodeAll(ByteBuffer buffer, Board[] boards)
+    {
+        int i;
+
+        for (i = 0; i < boards.length; i ++)
+        {
+            if (boards[i] == null)
+            {
+                boards[i] = new Board();
+            }
+
+            BinaryPositionManager.decode(buffer, boards[i]);
+        }
+    }
+}
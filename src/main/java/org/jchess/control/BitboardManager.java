@@ -0,0 +1,220 @@
+package org.jchess.control;
+
+import java.util.Arrays;
+
+import org.jchess.model.Board;
+import org.jchess.model.Color;
+import org.jchess.model.Piece;
+import org.jchess.model.PieceType;
+import org.jchess.model.Position;
+
+/**
+ * This class manages the bitboard representation of a board
+ * Every square is numbered from 0 (<i>a1</i>) to 63 (<i>h8</i>), the bit of a square inside a bitboard is <i>1L &lt;&lt; square</i>
+ * Pieces are identified by an index from 0 to 11: white king, queen, bishop, knight, rook, pawn followed by the black pieces in the same order
+ */
+public class BitboardManager
+{
+    public static final int NO_PIECE = -1; // the index stored for an empty square
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final Color[] COLORS = Color.values();
+
+    /**
+     * Gets the index of the bitboard that stores pieces of the given type and color
+     * @param type The type of the piece
+     * @param color The color of the piece
+     * @return The piece index from 0 to 11
+     */
+    public static int getPieceIndex(PieceType type, Color color)
+    {
+        return color.ordinal() * 6 + type.ordinal() - 1;
+    }
+
+    /**
+     * Gets the piece type that belongs to a piece index
+     * @param pieceIndex The piece index from 0 to 11
+     * @return The type of the piece
+     */
+    public static PieceType getPieceType(int pieceIndex)
+    {
+        return PIECE_TYPES[pieceIndex % 6 + 1];
+    }
+
+    /**
+     * Gets the color that belongs to a piece index
+     * @param pieceIndex The piece index from 0 to 11
+     * @return The color of the piece
+     */
+    public static Color getPieceColor(int pieceIndex)
+    {
+        return COLORS[pieceIndex / 6];
+    }
+
+    /**
+     * Gets the square number of a position
+     * @param position The position on the board
+     * @return The square from 0 (<i>a1</i>) to 63 (<i>h8</i>)
+     */
+    public static int getSquare(Position position)
+    {
+        return getSquare(position.getFile(), position.getRank());
+    }
+
+    /**
+     * Gets the square number of a file and rank
+     * @param file The file starting at 0
+     * @param rank The rank starting at 0
+     * @return The square from 0 (<i>a1</i>) to 63 (<i>h8</i>)
+     */
+    public static int getSquare(int file, int rank)
+    {
+        return rank * 8 + file;
+    }
+
+    /**
+     * Gets the position of a square number
+     * @param square The square from 0 (<i>a1</i>) to 63 (<i>h8</i>)
+     * @return The position of the square
+     */
+    public static Position getPosition(int square)
+    {
+        return Position.of(square);
+    }
+
+    /**
+     * Checks whether a file and rank lie inside the board
+     * @param file The file starting at 0
+     * @param rank The rank starting at 0
+     * @return <i>true</i> if the coordinates are on the board, <i>false</i> otherwise
+     */
+    public static boolean isOnBoard(int file, int rank)
+    {
+        return ((file | rank) & ~7) == 0;
+    }
+
+    /**
+     * Gets a bitboard of all occupied squares
+     * @param board The board we want to look at
+     * @return All squares that have a piece standing on them
+     */
+    public static long getOccupancy(Board board)
+    {
+        return board.getColorBitboards()[0] | board.getColorBitboards()[1];
+    }
+
+    /**
+     * Checks if there is a piece standing on a square
+     * @param board The board we want to look at
+     * @param square The square from 0 to 63
+     * @return <i>true</i> if the square is occupied, <i>false</i> otherwise
+     */
+    public static boolean isSquareOccupied(Board board, int square)
+    {
+        return (getOccupancy(board) & (1L << square)) != 0;
+    }
+
+    /**
+     * Gets the index of the piece standing on a square
+     * @param board The board we want to look at
+     * @param square The square from 0 to 63
+     * @return The piece index from 0 to 11 or {@link #NO_PIECE} if the square is empty
+     */
+    public static int getPieceIndexAtSquare(Board board, int square)
+    {
+        return board.getSquares()[square];
+    }
+
+    /**
+     * Places a piece on a square of the bitboards. The square has to be empty
+     * The attack maps of the board are computed again the next time they are needed
+     * @param board The board the piece should be placed on
+     * @param pieceIndex The piece index from 0 to 11
+     * @param square The square from 0 to 63
+     */
+    public static void setPiece(Board board, int pieceIndex, int square)
+    {
+        long bit = 1L << square;
+
+        board.getBitboards()[pieceIndex] |= bit;
+        board.getColorBitboards()[pieceIndex / 6] |= bit;
+        board.getSquares()[square] = pieceIndex;
+        board.setZobristKey(board.getZobristKey() ^ ZobristManager.getPieceKey(pieceIndex, square));
+        EvaluationManager.addPiece(board, pieceIndex, square);
+        board.setValidAttackMaps(0);
+    }
+
+    /**
+     * Removes whatever piece is standing on a square from the bitboards
+     * The attack maps of the board are computed again the next time they are needed
+     * @param board The board the piece should be removed from
+     * @param square The square from 0 to 63
+     */
+    public static void clearSquare(Board board, int square)
+    {
+        int pieceIndex = board.getSquares()[square];
+        long bit = 1L << square;
+
+        if (pieceIndex == NO_PIECE)
+        {
+            return;
+        }
+
+        board.getBitboards()[pieceIndex] &= ~bit;
+        board.getColorBitboards()[pieceIndex / 6] &= ~bit;
+        board.getSquares()[square] = NO_PIECE;
+        board.setZobristKey(board.getZobristKey() ^ ZobristManager.getPieceKey(pieceIndex, square));
+        EvaluationManager.removePiece(board, pieceIndex, square);
+        board.setValidAttackMaps(0);
+    }
+
+    /**
+     * Rebuilds the bitboards of a board from its list of pieces
+     * This only has to be called if pieces were changed without using the {@link BoardManager}
+     * @param board The board that should be updated
+     */
+    public static void updateBitboards(Board board)
+    {
+        Arrays.fill(board.getBitboards(), 0L);
+        Arrays.fill(board.getColorBitboards(), 0L);
+        Arrays.fill(board.getSquares(), NO_PIECE);
+        EvaluationManager.updateScores(board);
+
+        for (Piece piece : board.getPieces())
+        {
+            setPiece(board, getPieceIndex(piece.getType(), piece.getColor()), getSquare(piece.getPosition()));
+        }
+
+        ZobristManager.updateKey(board);
+    }
+
+    /**
+     * Creates a list of pieces from the bitboards of a board
+     * @param board The board we want to read the pieces from
+     * @return A new list containing one piece for every occupied square
+     */
+    public static Piece[] getPiecesFromBitboards(Board board)
+    {
+        long occupancy = getOccupancy(board);
+        Piece[] pieces = new Piece[Long.bitCount(occupancy)];
+        int i = 0;
+
+        while (occupancy != 0)
+        {
+            int square = Long.numberOfTrailingZeros(occupancy);
+            int pieceIndex = board.getSquares()[square];
+
+            pieces[i] = new Piece(getPosition(square), getPieceType(pieceIndex), getPieceColor(pieceIndex));
+
+            occupancy &= occupancy - 1;
+            i ++;
+        }
+
+        return pieces;
+    }
+}
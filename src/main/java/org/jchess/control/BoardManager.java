@@ -9,6 +9,7 @@ import org.jchess.model.Move;
 import org.jchess.model.Piece;
 import org.jchess.model.PieceType;
 import org.jchess.model.Position;
+import org.jchess.model.UndoStack;
 
 /**
  * This class manages all interactions with chess boards
@@ -21,49 +22,66 @@ public class BoardManager
      */
     public static Board generateBoard()
     {
-        return generateBoard("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        return generateBoard(FENManager.START_FEN);
     }
 
     /**
      * Generates a board and places pieces on it according to FEN notation
      * @param FEN The standard FEN notation for a chess position
      * @return A board with placed pieces
+     * @throws InvalidFENException If the FEN is invalid, see {@link FENManager#setBoard(Board, CharSequence)}
      */
     public static Board generateBoard(String FEN)
     {
         Board board = new Board();
-        String[] FENParts = FEN.split(" ");
 
-        BoardManager.addPiecesFromFEN(board, FENParts[0]);
-        BoardManager.setPlayingSideFromFEN(board, FENParts[1]);
-        BoardManager.setCastlingStatusesFromFEN(board, FENParts[2]);
-        BoardManager.setEnPassantPositionFromFEN(board, FENParts[3]);
-        BoardManager.setMovesPlayerFromFEN(board, FENParts[5]);
+        FENManager.setBoard(board, FEN);
 
         return board;
     }
 
     /**
      * Creates a copy of a given board that can be altered without changing the original
+     * The bitboards are copied as a whole. The list of pieces is only copied if it is up to date, otherwise the copy recreates it when it is requested,
+     * so copying never changes the original board and several threads can copy the same board at once
      * @param board The board we want to copy
      * @return An independent copy of the given board
      */
     public static Board copyBoard(Board board)
     {
-        Piece[] pieces = board.getPieces();
         Board copiedBoard = new Board();
 
         copiedBoard.setPlayingSideColor(board.getPlayingSideColor());
-        copiedBoard.setCastlingStatuses(board.getCastlingStatuses());
+        copiedBoard.setCastlingStatuses(board.getCastlingStatuses().clone());
         copiedBoard.setEnPassantPosition(board.getEnPassanPosition());
         copiedBoard.setMovesPlayed(board.getMovesPlayed());
+        copiedBoard.setHalfmoveClock(board.getHalfmoveClock());
 
-        for (Piece piece : pieces)
+        System.arraycopy(board.getBitboards(), 0, copiedBoard.getBitboards(), 0, board.getBitboards().length);
+        System.arraycopy(board.getColorBitboards(), 0, copiedBoard.getColorBitboards(), 0, board.getColorBitboards().length);
+        System.arraycopy(board.getSquares(), 0, copiedBoard.getSquares(), 0, board.getSquares().length);
+        copiedBoard.setZobristKey(board.getZobristKey());
+        copiedBoard.setMiddlegameScore(board.getMiddlegameScore());
+        copiedBoard.setEndgameScore(board.getEndgameScore());
+        copiedBoard.setPhase(board.getPhase());
+
+        if (board.getArePiecesOutdated())
         {
-            Piece copiedPiece = new Piece(piece.getPosition(), piece.getType(), piece.getColor());
-            BoardManager.addPiece(copiedBoard, copiedPiece);
-            copiedPiece.setHasMoved(piece.getHasMoved());
-            copiedPiece.setIsInCheck(piece.getIsInCheck());
+            copiedBoard.setArePiecesOutdated(true);
+        }
+        else
+        {
+            Piece[] pieces = board.getPieces();
+            Piece[] copiedPieces = new Piece[pieces.length];
+
+            for (int i = 0; i < pieces.length; i ++)
+            {
+                copiedPieces[i] = new Piece(pieces[i].getPosition(), pieces[i].getType(), pieces[i].getColor());
+                copiedPieces[i].setHasMoved(pieces[i].getHasMoved());
+                copiedPieces[i].setIsInCheck(pieces[i].getIsInCheck());
+            }
+
+            copiedBoard.setPieces(copiedPieces);
         }
 
         return copiedBoard;
@@ -90,86 +108,197 @@ public class BoardManager
     public static boolean movePiece(Board board, String moveString)
     {
         Move move = MoveManager.getMoveFromString(board, moveString);
-        return BoardManager.movePiece(board, move.getPiece(), move.getPosition());
+        return BoardManager.movePiece(board, move.getPiece(), move.getPosition(), move.getPromotionType());
     }
 
     /**
-     * Moves a given piece to <i>newPosition</i>
+     * Moves a given piece to <i>newPosition</i>. A pawn reaching the last rank is promoted to a queen
      * @param board The board that the piece is on
      * @param piece The piece that should be moved
      * @param newPosition The position where it should move to
      * @return <i>true</i> if the piece was moved, <i>false</i> if the piece could not be moved. This may be the case if the move is considered illegal according to chess rules
      */
     public static boolean movePiece(Board board, Piece piece, Position newPosition)
+    {
+        return BoardManager.movePiece(board, piece, newPosition, PieceType.NONE);
+    }
+
+    /**
+     * Moves a given piece to <i>newPosition</i>. The move can be taken back through {@link #unmakeMove(Board)}
+     * @param board The board that the piece is on
+     * @param piece The piece that should be moved
+     * @param newPosition The position where it should move to
+     * @param promotionType The type a pawn reaching the last rank is promoted to. <i>PieceType.NONE</i> promotes to a queen
+     * @return <i>true</i> if the piece was moved, <i>false</i> if the piece could not be moved. This may be the case if the move is considered illegal according to chess rules
+     */
+    public static boolean movePiece(Board board, Piece piece, Position newPosition, PieceType promotionType)
     {
         Piece pieceToMove = piece;
-        Piece pieceToAttack = BoardManager.getPieceAtPosition(board, newPosition);
+        Piece pieceToAttack;
+        Piece rook = null;
+        int move;
 
         if (piece == null)
         {
             throw new PieceNotFoundException();
         }
 
-        if (!MoveManager.isMoveLegal(board, piece, newPosition)
-            || pieceToMove.getColor() != board.getPlayingSideColor())
+        if (pieceToMove.getColor() != board.getPlayingSideColor()
+            || !BitboardManager.isOnBoard(newPosition.getFile(), newPosition.getRank()))
         {
             return false;
         }
 
-        if (pieceToAttack != null && pieceToAttack.getColor() == pieceToMove.getColor())
+        move = MoveManager.findLegalMove(board, BitboardManager.getSquare(pieceToMove.getPosition()), BitboardManager.getSquare(newPosition), promotionType);
+
+        if (move == Move.NONE)
         {
             return false;
         }
 
-        if (pieceToAttack != null)
+        // If an en passant position is attacked, the captured pawn is standing above or below it
+        if ((Move.getFlags(move) & Move.FLAG_EN_PASSANT) != 0)
         {
-            BoardManager.removePiece(board, pieceToAttack);
+            pieceToAttack = BoardManager.getPieceAtPosition(board, Position.of(newPosition, 0, pieceToMove.getColor() == Color.WHITE ? -1 : 1));
+        }
+        else
+        {
+            pieceToAttack = BoardManager.getPieceAtPosition(board, newPosition);
         }
 
-        // If the move is a castling move...
-        if (pieceToMove.getType() == PieceType.KING
-            && (newPosition.getFile() > pieceToMove.getPosition().getFile() + 1
-            || newPosition.getFile() < pieceToMove.getPosition().getFile() - 1))
+        // If the move is a castling move, also remember the rook
+        if ((Move.getFlags(move) & Move.FLAG_CASTLING) != 0)
         {
-            // ...also move the rook
-            BoardManager.getPieceAtPosition(board, new Position(pieceToMove.getPosition(), newPosition.getFile() > 5 ? 3 : -4, 0)).setPosition(new Position(pieceToMove.getPosition(), newPosition.getFile() > 5 ? 1 : -1, 0));
+            rook = BoardManager.getPieceAtPosition(board, Position.of(pieceToMove.getPosition(), newPosition.getFile() > 5 ? 3 : -4, 0));
         }
 
-        // Check if a pawn moved two spaces
-        if (pieceToMove.getType() == PieceType.PAWN
-            && (pieceToMove.getPosition().getRank() > newPosition.getRank() + 1
-                || pieceToMove.getPosition().getRank() < newPosition.getRank() - 1))
+        if (pieceToAttack != null)
         {
-            // Note that the pawn can now be attacked through en passant
-            board.setEnPassantPosition(board.getPlayingSideColor() == Color.WHITE ? new Position(newPosition, 0, -1) : new Position(newPosition, 0, 1));
+            BoardManager.removePieceFromList(board, pieceToAttack);
         }
 
-        // If a piece except a pawn moves or a pawn moved less than two spaces...
-        if (pieceToMove.getType() != PieceType.PAWN
-            || (pieceToMove.getType() == PieceType.PAWN
-                && pieceToMove.getPosition().getRank() != newPosition.getRank() + 2
-                && pieceToMove.getPosition().getRank() != newPosition.getRank() - 2))
+        BoardManager.makeMove(board, move);
+
+        // Keep the list of pieces in sync with the bitboards, so the pieces stay part of the board
+        if (rook != null)
         {
-            // ...remove the en passant position from the board
-            board.setEnPassantPosition(null);
+            int rookFrom = BitboardManager.getSquare(rook.getPosition());
+
+            rook.setPosition(Position.of(pieceToMove.getPosition(), newPosition.getFile() > 5 ? 1 : -1, 0));
+            rook.setHasMoved(true);
+            board.movePieceSquare(rookFrom, BitboardManager.getSquare(rook.getPosition()));
         }
 
-        // If an en passant position is attacked, remove the pawn that is standing above or below
-        if (Position.equals(newPosition, board.getEnPassanPosition()))
+        if (Move.isPromotion(move))
         {
-            BoardManager.removePiece(board, board.getPlayingSideColor() == Color.WHITE ? new Position(board.getEnPassanPosition(), 0, -1) : new Position(board.getEnPassanPosition(), 0, 1));
+            pieceToMove.setType(Move.getPromotionType(move));
         }
 
+        board.movePieceSquare(Move.getFrom(move), Move.getTo(move));
         pieceToMove.setPosition(newPosition);
         pieceToMove.setHasMoved(true);
+        board.setArePiecesOutdated(false);
 
-        BoardManager.switchPlayingSideColor(board);
         BoardManager.updateCheckedPiecesStatus(board);
-        board.setMovesPlayed(board.getMovesPlayed() + 1);
 
         return true;
     }
 
+    /**
+     * Plays an encoded move without checking whether it is legal and remembers everything needed to take it back through {@link #unmakeMove(Board)}
+     * Only the bitboards and the board state are updated, the list of pieces is recreated the next time it is requested
+     * @param board The board the move is played on
+     * @param move The encoded move, as generated by the <i>MoveManager</i>
+     */
+    public static void makeMove(Board board, int move)
+    {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int flags = Move.getFlags(move);
+        int pieceIndex = board.getSquares()[from];
+        Color color = BitboardManager.getPieceColor(pieceIndex);
+        // A pawn captured en passant stands behind the square the capturing pawn moves to
+        int capturedSquare = (flags & Move.FLAG_EN_PASSANT) != 0 ? (color == Color.WHITE ? to - 8 : to + 8) : to;
+        int capturedPiece = board.getSquares()[capturedSquare];
+
+        board.getUndoStack().push(move, capturedPiece, board);
+
+        // Take out the castling and en passant keys, they are added back once the new state is known
+        board.setZobristKey(board.getZobristKey() ^ ZobristManager.getCastlingKey(board) ^ ZobristManager.getEnPassantKey(board.getEnPassanPosition()));
+
+        if (capturedPiece != BitboardManager.NO_PIECE)
+        {
+            BitboardManager.clearSquare(board, capturedSquare);
+        }
+
+        BitboardManager.clearSquare(board, from);
+        BitboardManager.setPiece(board, Move.isPromotion(move) ? BitboardManager.getPieceIndex(Move.getPromotionType(move), color) : pieceIndex, to);
+
+        // If the king castles, also move the rook
+        if ((flags & Move.FLAG_CASTLING) != 0)
+        {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = to > from ? from + 1 : from - 1;
+
+            BitboardManager.setPiece(board, board.getSquares()[rookFrom], rookTo);
+            BitboardManager.clearSquare(board, rookFrom);
+        }
+
+        BoardManager.updateCastlingStatuses(board, from, to);
+        board.setEnPassantPosition((flags & Move.FLAG_DOUBLE_PAWN_PUSH) != 0 ? BitboardManager.getPosition((from + to) / 2) : null);
+        board.setZobristKey(board.getZobristKey() ^ ZobristManager.getCastlingKey(board) ^ ZobristManager.getEnPassantKey(board.getEnPassanPosition()));
+
+        BoardManager.switchPlayingSideColor(board);
+        board.setMovesPlayed(board.getMovesPlayed() + 1);
+        board.setHalfmoveClock(capturedPiece != BitboardManager.NO_PIECE || BitboardManager.getPieceType(pieceIndex) == PieceType.PAWN ? 0 : board.getHalfmoveClock() + 1);
+        board.setArePiecesOutdated(true);
+    }
+
+    /**
+     * Takes back the last move that was played through {@link #makeMove(Board, int)}
+     * @param board The board the move was played on
+     */
+    public static void unmakeMove(Board board)
+    {
+        UndoStack undoStack = board.getUndoStack();
+        int move = undoStack.getLastMove();
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int flags = Move.getFlags(move);
+        int capturedPiece = undoStack.getLastCapturedPiece();
+        Color color = BitboardManager.getPieceColor(board.getSquares()[to]);
+        int pieceIndex = Move.isPromotion(move) ? BitboardManager.getPieceIndex(PieceType.PAWN, color) : board.getSquares()[to];
+
+        BitboardManager.clearSquare(board, to);
+        BitboardManager.setPiece(board, pieceIndex, from);
+
+        if (capturedPiece != BitboardManager.NO_PIECE)
+        {
+            BitboardManager.setPiece(board, capturedPiece, (flags & Move.FLAG_EN_PASSANT) != 0 ? (color == Color.WHITE ? to - 8 : to + 8) : to);
+        }
+
+        // If the king castled, also move the rook back
+        if ((flags & Move.FLAG_CASTLING) != 0)
+        {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = to > from ? from + 1 : from - 1;
+
+            BitboardManager.setPiece(board, board.getSquares()[rookTo], rookFrom);
+            BitboardManager.clearSquare(board, rookTo);
+        }
+
+        board.setWhiteCastlingStatus(undoStack.getLastWhiteCastlingStatus());
+        board.setBlackCastlingStatus(undoStack.getLastBlackCastlingStatus());
+        board.setEnPassantPosition(undoStack.getLastEnPassantPosition());
+        board.setMovesPlayed(undoStack.getLastMovesPlayed());
+        board.setHalfmoveClock(undoStack.getLastHalfmoveClock());
+        BoardManager.switchPlayingSideColor(board);
+        board.setZobristKey(undoStack.getLastZobristKey());
+        board.setArePiecesOutdated(true);
+
+        undoStack.pop();
+    }
+
     /**
      * Moves a piece according to UCI notation
      * @param board The board that the piece is on
@@ -179,7 +308,7 @@ public class BoardManager
     public static boolean movePieceUCI(Board board, String moveString)
     {
         Move move = MoveManager.getUCIMoveFromString(board, moveString);
-        return BoardManager.movePiece(board, move.getPiece(), move.getPosition());
+        return BoardManager.movePiece(board, move.getPiece(), move.getPosition(), move.getPromotionType());
     }
 
     /**
@@ -190,19 +319,9 @@ public class BoardManager
     {
         for (Piece piece : board.getPieces())
         {
-            if (piece.getType() != PieceType.KING)
+            if (piece.getType() == PieceType.KING)
             {
-                continue;
-            }
-
-            piece.setIsInCheck(false);
-
-            for (Piece otherPiece : board.getPieces())
-            {
-                if (MoveManager.isMoveLegal(board, otherPiece, piece.getPosition()))
-                {
-                    piece.setIsInCheck(true);
-                }
+                piece.setIsInCheck(MoveManager.isKingInCheck(board, piece.getColor()));
             }
         }
     }
@@ -215,18 +334,58 @@ public class BoardManager
      */
     public static boolean isSideInCheck(Board board, Color color)
     {
-        BoardManager.updateCheckedPiecesStatus(board);
+        return MoveManager.isKingInCheck(board, color);
+    }
 
-        for (Piece piece : board.getPieces())
+    /**
+     * Removes the castling options that are lost by a move. A side can no longer castle once its king moved,
+     * and it loses one option once the rook on that side moved or was captured
+     * @param board The board the move is played on
+     * @param from The square the moving piece comes from
+     * @param to The square the moving piece moves to
+     */
+    public static void updateCastlingStatuses(Board board, int from, int to)
+    {
+        BoardManager.removeCastlingOptions(board, from);
+        BoardManager.removeCastlingOptions(board, to);
+    }
+
+    /**
+     * Removes the castling options that depend on a king or rook still standing on its starting square
+     * @param board The board the move is played on
+     * @param square The square that was moved from or to
+     */
+    private static void removeCastlingOptions(Board board, int square)
+    {
+        switch (square)
         {
-            if (piece.getType() == PieceType.KING
-                && piece.getColor() == color)
-            {
-                return piece.getIsInCheck();
-            }
-        }
+            case 4:
+                board.setWhiteCastlingStatus(CastlingStatus.NONE);
+                break;
+
+            case 0:
+                board.setWhiteCastlingStatus(board.getWhiteCastlingStatus().withoutQueenside());
+                break;
+
+            case 7:
+                board.setWhiteCastlingStatus(board.getWhiteCastlingStatus().withoutKingside());
+                break;
+
+            case 60:
+                board.setBlackCastlingStatus(CastlingStatus.NONE);
+                break;
+
+            case 56:
+                board.setBlackCastlingStatus(board.getBlackCastlingStatus().withoutQueenside());
+                break;
 
-        return false;
+            case 63:
+                board.setBlackCastlingStatus(board.getBlackCastlingStatus().withoutKingside());
+                break;
+
+            default:
+                break;
+        }
     }
 
     /**
@@ -236,6 +395,7 @@ public class BoardManager
     public static void switchPlayingSideColor(Board board)
     {
         board.setPlayingSideColor(board.getPlayingSideColor() == Color.WHITE ? Color.BLACK : Color.WHITE);
+        board.setZobristKey(board.getZobristKey() ^ ZobristManager.getSideKey());
     }
 
     /**
@@ -260,24 +420,22 @@ public class BoardManager
     public static boolean addPiece(Board board, Piece piece)
     {
         Piece[] oldPieces = board.getPieces();
-        Piece[] newPieces = new Piece[oldPieces.length + 1];
+        Piece[] newPieces;
         Piece newPiece = piece;
-        int i = 0;
+        int square = BitboardManager.getSquare(newPiece.getPosition());
 
-        for (i = 0; i < oldPieces.length; i ++)
+        // Check if a piece is already standing at the new position
+        if (BitboardManager.isSquareOccupied(board, square))
         {
-            // Check if a piece is already standing at the new position
-            if (Position.equals(oldPieces[i].getPosition(), newPiece.getPosition()))
-            {
-                return false;
-            }
-
-            newPieces[i] = oldPieces[i];
+            return false;
         }
 
+        newPieces = new Piece[oldPieces.length + 1];
+        System.arraycopy(oldPieces, 0, newPieces, 0, oldPieces.length);
         newPieces[newPieces.length - 1] = newPiece;
 
         board.setPieces(newPieces);
+        BitboardManager.setPiece(board, BitboardManager.getPieceIndex(newPiece.getType(), newPiece.getColor()), square);
 
         return true;
     }
@@ -300,6 +458,21 @@ public class BoardManager
      * @return <i>true</i> if the piece was removed, <i>false</i> if the piece could not be removed. This may be because there is no piece at the specified location
      */
     public static boolean removePiece(Board board, Piece piece)
+    {
+        boolean removedPiece = BoardManager.removePieceFromList(board, piece);
+
+        BitboardManager.clearSquare(board, BitboardManager.getSquare(piece.getPosition()));
+
+        return removedPiece;
+    }
+
+    /**
+     * Removes a piece from the list of pieces of a board without updating the bitboards
+     * @param board The piece from which the board should be removed
+     * @param piece The piece that should be removed
+     * @return <i>true</i> if the piece was removed, <i>false</i> if the piece could not be removed. This may be because there is no piece at the specified location
+     */
+    private static boolean removePieceFromList(Board board, Piece piece)
     {
         Piece[] oldPieces = board.getPieces();
         Piece[] newPieces = new Piece[oldPieces.length - 1];
@@ -317,7 +490,7 @@ public class BoardManager
         for (i = 0; i < oldPieces.length; i ++)
         {
             // If a piece is not standing at the position where it should be removed...
-            if (!Position.equals(oldPieces[i].getPosition(), pieceToRemove.getPosition()))
+            if (oldPieces[i].getPosition() != pieceToRemove.getPosition())
             {
                 // ...add it to the new array
                 newPieces[c] = oldPieces[i];
@@ -337,61 +510,6 @@ public class BoardManager
         return removedPiece;
     }
 
-    /**
-     * Generates a list of pieces from the standard FEN notation
-     * @param FENPart The part of the FEN string that shows the piece position
-     */
-    public static void addPiecesFromFEN(Board board, String FENPart)
-    {
-        int file = 0;
-        int rank = 7;
-
-        for (char pieceChar : FENPart.toCharArray())
-        {
-            //int pieceValue = pieceChar;
-            // 47: Slash
-            if (pieceChar == 47)
-            {
-                continue;
-            }
-
-            // Check if the char is a letter which represents a piece
-            if (StringHelper.isCharLetter(pieceChar))
-            {
-                Position position = new Position(file, rank);
-                PieceType type = StringHelper.getTypeFromAbbreviation(pieceChar);
-                Color color = pieceChar < 91 ? Color.WHITE : Color.BLACK;
-
-                // An invalid character abbriviation was used
-                if (type == null)
-                {
-                    throw new InvalidFENException();
-                }
-
-                BoardManager.addPiece(board, position, type, color);
-            }
-            // Check if the character is a number which represents empty spaces
-            else if (StringHelper.isCharNumber(pieceChar))
-            {
-                int freeSpaces = Integer.parseInt(pieceChar + "");
-                file += freeSpaces - 1;
-            }
-            else
-            {
-                // An invalid character was used (neither a piece nor a number)
-                throw new InvalidFENException();
-            }
-
-            file ++;
-
-            if (file == 8)
-            {
-                file = 0;
-                rank --;
-            }
-        }
-    }
-
     /**
      * Gets a piece at a given position
      * @param board The board on which the piece should be located
@@ -400,84 +518,11 @@ public class BoardManager
      */
     public static Piece getPieceAtPosition(Board board, Position position)
     {
-        Piece[] pieces = board.getPieces();
-
-        for (Piece piece : pieces)
-        {
-            if (piece != null
-                && piece.getPosition().getFile() == position.getFile()
-                && piece.getPosition().getRank() == position.getRank())
-            {
-                return piece;
-            }
-        }
-
-        return null;
-    }
-
-    /**
-     * Gets the currently playing side from a given part of the FEN string and writes the information to <i>board</i>
-     * @param board The board we want to write the information to
-     * @param FENPart The part of the FEN responsible for indicating the currently playing side
-     */
-    public static void setPlayingSideFromFEN(Board board, String FENPart)
-    {
-        board.setPlayingSideColor(FENPart.toCharArray()[0] == 'w' ? Color.WHITE : Color.BLACK);
-    }
-
-    /**
-     * Gets the current castling status from a given part of the FEN string and writes the information to <i>board</i>
-     * @param board The board we want to write the information to
-     * @param FENPart The part of the FEN responsible for indicating the castling status of both sides
-     */
-    public static void setCastlingStatusesFromFEN(Board board, String FENPart)
-    {
-        board.setWhiteCastlingStatus(CastlingStatus.NONE);
-        board.setBlackCastlingStatus(CastlingStatus.NONE);
-
-        if (FENPart.contains("K"))
-        {
-            board.setWhiteCastlingStatus(CastlingStatus.KINGSIDE);
-        }
-        if (FENPart.contains("Q"))
-        {
-            board.setWhiteCastlingStatus(FENPart.contains("K") ? CastlingStatus.KINGANDQUEENSIDE : CastlingStatus.QUEENSIDE);
-        }
-
-        if (FENPart.contains("k"))
-        {
-            board.setBlackCastlingStatus(CastlingStatus.KINGSIDE);
-        }
-        if (FENPart.contains("q"))
-        {
-            board.setWhiteCastlingStatus(FENPart.contains("K") ? CastlingStatus.KINGANDQUEENSIDE : CastlingStatus.QUEENSIDE);
-        }
-    }
-
-    /**
-     * Gets the en passant status from a given part of the FEN string and writes the information to <i>board</i>
-     * @param board The board we want to write the information to
-     * @param FENPart The part of the FEN responsible for indicating the en passant position
-     */
-    public static void setEnPassantPositionFromFEN(Board board, String FENPart)
-    {
-        if (!FENPart.equals("-"))
-        {
-            board.setEnPassantPosition(new Position(FENPart));
-        }
-        else
+        if (!BitboardManager.isOnBoard(position.getFile(), position.getRank()))
         {
-            board.setEnPassantPosition(null);
+            return null;
         }
-    }
 
-    /**
-     * Gets the current halfmove clock from a given part of the FEN string and writes the information to <i>board</i>
-     * @param board The board we want to write the information to
-     * @param FENPart The part of the FEN responsible for indicating the halfmove clock
-     */
-    public static void setMovesPlayerFromFEN(Board board, String FENPart)
-    {
-        board.setMovesPlayed(Integer.parseInt(FENPart));
+        return board.getPieceAtSquare(BitboardManager.getSquare(position));
     }
 }
@@ -0,0 +1,254 @@
+package org.jchess.control;
+
+import org.jchess.model.Board;
+import org.jchess.model.Color;
+import org.jchess.model.PieceType;
+
+/**
+ * This class estimates how good a position is for the side to move
+ * Scores are given in centipawns, so a score of 100 means the side to move is about one pawn ahead
+ * <p>
+ * Every piece is worth its material plus a bonus for the square it stands on (piece-square tables), once for the middlegame and once for the endgame.
+ * The board keeps the sum of both scores and the game phase up to date whenever a piece is placed or removed (see {@link BitboardManager#setPiece(Board, int, int)}),
+ * so evaluating a position only has to blend the two scores by how much material is left
+ */
+public class EvaluationManager
+{
+    public static final int MAX_PHASE = 24; // the phase of a board with all knights, bishops, rooks and queens
+
+    // The value of every piece type, indexed by PieceType.ordinal()
+    private static final int[] PIECE_VALUES = { 0, 0, 900, 330, 320, 500, 100 };
+
+    // The material of every piece type in the middlegame and the endgame, indexed by PieceType.ordinal()
+    private static final int[] MIDDLEGAME_VALUES = { 0, 0, 1025, 365, 337, 477, 82 };
+    private static final int[] ENDGAME_VALUES = { 0, 0, 936, 297, 281, 512, 94 };
+
+    // How much every piece type counts towards the game phase, indexed by PieceType.ordinal()
+    private static final int[] PHASE_VALUES = { 0, 0, 4, 1, 1, 2, 0 };
+
+    // The piece-square tables from the point of view of white, the first row is the eighth rank
+    private static final int[] KING_MIDDLEGAME_TABLE = {
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -20, -30, -30, -40, -40, -30, -30, -20,
+        -10, -20, -20, -20, -20, -20, -20, -10,
+         20,  20,   0,   0,   0,   0,  20,  20,
+         20,  30,  10,   0,   0,  10,  30,  20
+    };
+
+    private static final int[] KING_ENDGAME_TABLE = {
+        -50, -40, -30, -20, -20, -30, -40, -50,
+        -30, -20, -10,   0,   0, -10, -20, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -30,   0,   0,   0,   0, -30, -30,
+        -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    private static final int[] QUEEN_TABLE = {
+        -20, -10, -10,  -5,  -5, -10, -10, -20,
+        -10,   0,   0,   0,   0,   0,   0, -10,
+        -10,   0,   5,   5,   5,   5,   0, -10,
+         -5,   0,   5,   5,   5,   5,   0,  -5,
+          0,   0,   5,   5,   5,   5,   0,  -5,
+        -10,   5,   5,   5,   5,   5,   0, -10,
+        -10,   0,   5,   0,   0,   0,   0, -10,
+        -20, -10, -10,  -5,  -5, -10, -10, -20
+    };
+
+    private static final int[] BISHOP_TABLE = {
+        -20, -10, -10, -10, -10, -10, -10, -20,
+        -10,   0,   0,   0,   0,   0,   0, -10,
+        -10,   0,   5,  10,  10,   5,   0, -10,
+        -10,   5,   5,  10,  10,   5,   5, -10,
+        -10,   0,  10,  10,  10,  10,   0, -10,
+        -10,  10,  10,  10,  10,  10,  10, -10,
+        -10,   5,   0,   0,   0,   0,   5, -10,
+        -20, -10, -10, -10, -10, -10, -10, -20
+    };
+
+    private static final int[] KNIGHT_TABLE = {
+        -50, -40, -30, -30, -30, -30, -40, -50,
+        -40, -20,   0,   0,   0,   0, -20, -40,
+        -30,   0,  10,  15,  15,  10,   0, -30,
+        -30,   5,  15,  20,  20,  15,   5, -30,
+        -30,   0,  15,  20,  20,  15,   0, -30,
+        -30,   5,  10,  15,  15,  10,   5, -30,
+        -40, -20,   0,   5,   5,   0, -20, -40,
+        -50, -40, -30, -30, -30, -30, -40, -50
+    };
+
+    private static final int[] ROOK_TABLE = {
+          0,   0,   0,   0,   0,   0,   0,   0,
+          5,  10,  10,  10,  10,  10,  10,   5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+          0,   0,   0,   5,   5,   0,   0,   0
+    };
+
+    private static final int[] PAWN_MIDDLEGAME_TABLE = {
+          0,   0,   0,   0,   0,   0,   0,   0,
+         50,  50,  50,  50,  50,  50,  50,  50,
+         10,  10,  20,  30,  30,  20,  10,  10,
+          5,   5,  10,  25,  25,  10,   5,   5,
+          0,   0,   0,  20,  20,   0,   0,   0,
+          5,  -5, -10,   0,   0, -10,  -5,   5,
+          5,  10,  10, -20, -20,  10,  10,   5,
+          0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    private static final int[] PAWN_ENDGAME_TABLE = {
+          0,   0,   0,   0,   0,   0,   0,   0,
+         80,  80,  80,  80,  80,  80,  80,  80,
+         50,  50,  50,  50,  50,  50,  50,  50,
+         30,  30,  30,  30,  30,  30,  30,  30,
+         20,  20,  20,  20,  20,  20,  20,  20,
+         10,  10,  10,  10,  10,  10,  10,  10,
+         10,  10,  10,  10,  10,  10,  10,  10,
+          0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    // Material plus square bonus of every piece index on every square, positive for white and negative for black
+    private static final int[] MIDDLEGAME_SCORES = new int[12 * 64];
+    private static final int[] ENDGAME_SCORES = new int[12 * 64];
+    private static final int[] PHASES = new int[12];
+
+    static
+    {
+        int[][] middlegameTables = { null, KING_MIDDLEGAME_TABLE, QUEEN_TABLE, BISHOP_TABLE, KNIGHT_TABLE, ROOK_TABLE, PAWN_MIDDLEGAME_TABLE };
+        int[][] endgameTables = { null, KING_ENDGAME_TABLE, QUEEN_TABLE, BISHOP_TABLE, KNIGHT_TABLE, ROOK_TABLE, PAWN_ENDGAME_TABLE };
+
+        for (int pieceIndex = 0; pieceIndex < 12; pieceIndex ++)
+        {
+            int type = BitboardManager.getPieceType(pieceIndex).ordinal();
+            boolean isWhite = BitboardManager.getPieceColor(pieceIndex) == Color.WHITE;
+
+            PHASES[pieceIndex] = PHASE_VALUES[type];
+
+            for (int square = 0; square < 64; square ++)
+            {
+                // The tables start with the eighth rank, so white squares are mirrored vertically and black squares can be used as they are
+                int tableIndex = isWhite ? square ^ 56 : square;
+
+                MIDDLEGAME_SCORES[pieceIndex * 64 + square] = (isWhite ? 1 : -1) * (MIDDLEGAME_VALUES[type] + middlegameTables[type][tableIndex]);
+                ENDGAME_SCORES[pieceIndex * 64 + square] = (isWhite ? 1 : -1) * (ENDGAME_VALUES[type] + endgameTables[type][tableIndex]);
+            }
+        }
+    }
+
+    /**
+     * Evaluates a board from the point of view of the side to move
+     * This only reads the scores the board keeps up to date, it does not look at the pieces
+     * @param board The board to evaluate
+     * @return The score in centipawns, positive if the side to move is ahead
+     */
+    public static int evaluate(Board board)
+    {
+        int phase = Math.min(board.getPhase(), MAX_PHASE);
+        int score = (board.getMiddlegameScore() * phase + board.getEndgameScore() * (MAX_PHASE - phase)) / MAX_PHASE;
+
+        return board.getPlayingSideColor() == Color.WHITE ? score : -score;
+    }
+
+    /**
+     * Adds a piece to the evaluation scores of a board
+     * @param board The board the piece is placed on
+     * @param pieceIndex The piece index from 0 to 11
+     * @param square The square from 0 to 63
+     */
+    public static void addPiece(Board board, int pieceIndex, int square)
+    {
+        board.setMiddlegameScore(board.getMiddlegameScore() + MIDDLEGAME_SCORES[pieceIndex * 64 + square]);
+        board.setEndgameScore(board.getEndgameScore() + ENDGAME_SCORES[pieceIndex * 64 + square]);
+        board.setPhase(board.getPhase() + PHASES[pieceIndex]);
+    }
+
+    /**
+     * Removes a piece from the evaluation scores of a board
+     * @param board The board the piece is removed from
+     * @param pieceIndex The piece index from 0 to 11
+     * @param square The square from 0 to 63
+     */
+    public static void removePiece(Board board, int pieceIndex, int square)
+    {
+        board.setMiddlegameScore(board.getMiddlegameScore() - MIDDLEGAME_SCORES[pieceIndex * 64 + square]);
+        board.setEndgameScore(board.getEndgameScore() - ENDGAME_SCORES[pieceIndex * 64 + square]);
+        board.setPhase(board.getPhase() - PHASES[pieceIndex]);
+    }
+
+    /**
+     * Gets the middlegame score of a piece on a square, which is what {@link #addPiece(Board, int, int)} adds to the board
+     * @param pieceIndex The piece index from 0 to 11
+     * @param square The square from 0 to 63
+     * @return The material plus square bonus, positive for white and negative for black
+     */
+    public static int getMiddlegameScore(int pieceIndex, int square)
+    {
+        return MIDDLEGAME_SCORES[pieceIndex * 64 + square];
+    }
+
+    public static int getEndgameScore(int pieceIndex, int square)
+    {
+        return ENDGAME_SCORES[pieceIndex * 64 + square];
+    }
+
+    public static int getPhase(int pieceIndex)
+    {
+        return PHASES[pieceIndex];
+    }
+
+    /**
+     * Calculates the evaluation scores of a board from scratch and stores them on the board
+     * This is only needed after the bitboards were changed without using the {@link BitboardManager}
+     * @param board The board that should be updated
+     */
+    public static void updateScores(Board board)
+    {
+        board.setMiddlegameScore(0);
+        board.setEndgameScore(0);
+        board.setPhase(0);
+
+        for (int square = 0; square < 64; square ++)
+        {
+            if (board.getSquares()[square] != BitboardManager.NO_PIECE)
+            {
+                EvaluationManager.addPiece(board, board.getSquares()[square], square);
+            }
+        }
+    }
+
+    /**
+     * Adds up the value of all pieces of one side
+     * @param board The board the pieces are on
+     * @param color The side to count
+     * @return The material of the side in centipawns
+     */
+    public static int getMaterial(Board board, Color color)
+    {
+        int material = 0;
+
+        for (int i = PieceType.QUEEN.ordinal(); i <= PieceType.PAWN.ordinal(); i ++)
+        {
+            material += PIECE_VALUES[i] * Long.bitCount(board.getBitboards()[color.ordinal() * 6 + i - 1]);
+        }
+
+        return material;
+    }
+
+    /**
+     * Gets the value of a piece type
+     * @param type The type of the piece
+     * @return The value in centipawns, 0 for kings
+     */
+    public static int getPieceValue(PieceType type)
+    {
+        return PIECE_VALUES[type.ordinal()];
+    }
+}
@@ -0,0 +1,444 @@
+package org.jchess.control;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.jchess.exceptions.InvalidFENException;
+import org.jchess.model.Board;
+import org.jchess.model.CastlingStatus;
+import org.jchess.model.Color;
+import org.jchess.model.Position;
+
+/**
+ * This class reads and writes boards in the Forsyth-Edwards Notation (FEN)
+ * Reading goes through the text once and sets up an existing board in place, writing appends to a buffer the caller can reuse,
+ * so neither of them allocates any memory. Both work on text (<i>CharSequence</i>, <i>StringBuilder</i>) and on bytes (<i>ByteBuffer</i>)
+ */
+public class FENManager
+{
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"; // the standard starting position
+    public static final int MAX_FEN_LENGTH = 95; // the longest FEN that can be written, with counters of up to six digits
+
+    private static final String PIECE_CHARS = "KQBNRPkqbnrp"; // the character of every piece index, see BitboardManager.getPieceIndex
+    private static final int MAX_COUNTER_DIGITS = 6; // the halfmove clock and the move number cannot be longer
+    private static final int[] PIECE_INDICES = new int[128]; // the piece index of every ASCII character, -1 if it is no piece
+
+    static
+    {
+        Arrays.fill(PIECE_INDICES, BitboardManager.NO_PIECE);
+
+        for (int i = 0; i < PIECE_CHARS.length(); i ++)
+        {
+            PIECE_INDICES[PIECE_CHARS.charAt(i)] = i;
+        }
+    }
+
+    /**
+     * Sets up a board from a FEN. Everything that was on the board before is removed, including the moves that could be taken back
+     * The halfmove clock and the move number are optional and default to <i>0</i> and <i>1</i>
+     * @param board The board that should be set up
+     * @param FEN The FEN, i.e. "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"
+     * @throws InvalidFENException If the FEN is invalid, the offset points at the first character that could not be read. The board is empty afterwards
+     */
+    public static void setBoard(Board board, CharSequence FEN)
+    {
+        FENManager.parse(board, FEN, null, 0, FEN.length());
+    }
+
+    /**
+     * Sets up a board from a FEN in bytes (ASCII). Everything that was on the board before is removed, including the moves that could be taken back
+     * The halfmove clock and the move number are optional and default to <i>0</i> and <i>1</i>
+     * @param board The board that should be set up
+     * @param FEN The buffer, its remaining bytes are read without changing its position
+     * @throws InvalidFENException If the FEN is invalid, the offset is counted from the position of the buffer. The board is empty afterwards
+     */
+    public static void setBoard(Board board, ByteBuffer FEN)
+    {
+        FENManager.parse(board, null, FEN, FEN.position(), FEN.limit());
+    }
+
+    /**
+     * Gets the FEN of a board
+     * @param board The board
+     * @return The FEN, i.e. "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"
+     */
+    public static String getFEN(Board board)
+    {
+        StringBuilder builder = new StringBuilder(MAX_FEN_LENGTH);
+
+        FENManager.appendFEN(board, builder);
+
+        return builder.toString();
+    }
+
+    /**
+     * Appends the FEN of a board to a builder
+     * @param board The board
+     * @param builder The builder the FEN is appended to
+     */
+    public static void appendFEN(Board board, StringBuilder builder)
+    {
+        FENManager.write(board, builder, null);
+    }
+
+    /**
+     * Writes the FEN of a board as ASCII bytes to a buffer
+     * @param board The board
+     * @param buffer The buffer the FEN is written to, starting at its position. At most <i>MAX_FEN_LENGTH</i> bytes are written
+     */
+    public static void writeFEN(Board board, ByteBuffer buffer)
+    {
+        FENManager.write(board, null, buffer);
+    }
+
+    /**
+     * Reads a FEN from either text or bytes
+     * @param board The board that should be set up
+     * @param text The FEN as text, null if it is read from bytes
+     * @param bytes The FEN as bytes, null if it is read from text
+     * @param start The index of the first character
+     * @param end The index after the last character
+     */
+    private static void parse(Board board, CharSequence text, ByteBuffer bytes, int start, int end)
+    {
+        int i = start;
+        int file = 0;
+        int rank = 7;
+        int halfmoveClock = 0;
+        int moveNumber = 1;
+        CastlingStatus whiteCastlingStatus = CastlingStatus.NONE;
+        CastlingStatus blackCastlingStatus = CastlingStatus.NONE;
+        char c;
+
+        board.clear();
+
+        // The pieces, from a8 to h1
+        for (c = FENManager.charAt(text, bytes, i, end); c != ' '; c = FENManager.charAt(text, bytes, ++ i, end))
+        {
+            int pieceIndex = c < 128 ? PIECE_INDICES[c] : BitboardManager.NO_PIECE;
+
+            if (c == '/' && file == 8 && rank > 0)
+            {
+                file = 0;
+                rank --;
+            }
+            else if (c >= '1' && c <= '8' && file + c - '0' <= 8)
+            {
+                file += c - '0';
+            }
+            else if (pieceIndex != -1 && file < 8)
+            {
+                BitboardManager.setPiece(board, pieceIndex, rank * 8 + file);
+                file ++;
+            }
+            else
+            {
+                throw FENManager.fail(board, i - start);
+            }
+        }
+
+        if (file != 8 || rank != 0)
+        {
+            throw FENManager.fail(board, i - start);
+        }
+
+        // The side to move
+        i = FENManager.skipSpaces(board, text, bytes, i, start, end);
+        c = FENManager.charAt(text, bytes, i, end);
+
+        if (c != 'w' && c != 'b')
+        {
+            throw FENManager.fail(board, i - start);
+        }
+
+        board.setPlayingSideColor(c == 'w' ? Color.WHITE : Color.BLACK);
+        i = FENManager.skipSpaces(board, text, bytes, i + 1, start, end);
+
+        // The castling options, "-" if nobody can castle
+        if (FENManager.charAt(text, bytes, i, end) == '-')
+        {
+            i ++;
+        }
+        else
+        {
+            for (c = FENManager.charAt(text, bytes, i, end); c != ' ' && i < end; c = FENManager.charAt(text, bytes, ++ i, end))
+            {
+                switch (c)
+                {
+                    case 'K':
+                        whiteCastlingStatus = whiteCastlingStatus.allowsQueenside() ? CastlingStatus.KINGANDQUEENSIDE : CastlingStatus.KINGSIDE;
+                        break;
+
+                    case 'Q':
+                        whiteCastlingStatus = whiteCastlingStatus.allowsKingside() ? CastlingStatus.KINGANDQUEENSIDE : CastlingStatus.QUEENSIDE;
+                        break;
+
+                    case 'k':
+                        blackCastlingStatus = blackCastlingStatus.allowsQueenside() ? CastlingStatus.KINGANDQUEENSIDE : CastlingStatus.KINGSIDE;
+                        break;
+
+                    case 'q':
+                        blackCastlingStatus = blackCastlingStatus.allowsKingside() ? CastlingStatus.KINGANDQUEENSIDE : CastlingStatus.QUEENSIDE;
+                        break;
+
+                    default:
+                        throw FENManager.fail(board, i - start);
+                }
+            }
+
+            if (whiteCastlingStatus == CastlingStatus.NONE && blackCastlingStatus == CastlingStatus.NONE)
+            {
+                throw FENManager.fail(board, i - start);
+            }
+        }
+
+        board.setWhiteCastlingStatus(whiteCastlingStatus);
+        board.setBlackCastlingStatus(blackCastlingStatus);
+        i = FENManager.skipSpaces(board, text, bytes, i, start, end);
+
+        // The en passant position, "-" if the last move was no double pawn push
+        c = FENManager.charAt(text, bytes, i, end);
+
+        if (c == '-')
+        {
+            i ++;
+        }
+        else if (c >= 'a' && c <= 'h' && FENManager.charAt(text, bytes, i + 1, end) == (board.getPlayingSideColor() == Color.WHITE ? '6' : '3'))
+        {
+            board.setEnPassantPosition(Position.of(c - 'a', board.getPlayingSideColor() == Color.WHITE ? 5 : 2));
+            i += 2;
+        }
+        else
+        {
+            throw FENManager.fail(board, i - start);
+        }
+
+        // The halfmove clock and the move number
+        i = FENManager.skipOptionalSpaces(text, bytes, i, end);
+
+        if (i < end)
+        {
+            halfmoveClock = FENManager.readCounter(board, text, bytes, i, start, end);
+            i = FENManager.skipSpaces(board, text, bytes, FENManager.skipDigits(text, bytes, i, end), start, end);
+            moveNumber = Math.max(1, FENManager.readCounter(board, text, bytes, i, start, end));
+            i = FENManager.skipOptionalSpaces(text, bytes, FENManager.skipDigits(text, bytes, i, end), end);
+
+            if (i < end)
+            {
+                throw FENManager.fail(board, i - start);
+            }
+        }
+
+        board.setHalfmoveClock(halfmoveClock);
+        board.setMovesPlayed((moveNumber - 1) * 2 + (board.getPlayingSideColor() == Color.BLACK ? 1 : 0));
+        board.setArePiecesOutdated(true);
+
+        // The pieces were already hashed while they were placed
+        board.setZobristKey(board.getZobristKey()
+            ^ ZobristManager.getCastlingKey(board)
+            ^ ZobristManager.getEnPassantKey(board.getEnPassanPosition())
+            ^ (board.getPlayingSideColor() == Color.BLACK ? ZobristManager.getSideKey() : 0));
+    }
+
+    /**
+     * Reads the halfmove clock or the move number
+     * @return The number
+     */
+    private static int readCounter(Board board, CharSequence text, ByteBuffer bytes, int i, int start, int end)
+    {
+        int number = 0;
+        int digitEnd = FENManager.skipDigits(text, bytes, i, end);
+
+        if (digitEnd == i || digitEnd - i > MAX_COUNTER_DIGITS)
+        {
+            throw FENManager.fail(board, (digitEnd == i ? i : i + MAX_COUNTER_DIGITS) - start);
+        }
+
+        for (; i < digitEnd; i ++)
+        {
+            number = number * 10 + FENManager.charAt(text, bytes, i, end) - '0';
+        }
+
+        return number;
+    }
+
+    /**
+     * Skips the spaces between two fields, there has to be at least one
+     * @return The index of the next field
+     */
+    private static int skipSpaces(Board board, CharSequence text, ByteBuffer bytes, int i, int start, int end)
+    {
+        if (FENManager.charAt(text, bytes, i, end) != ' ')
+        {
+            throw FENManager.fail(board, i - start);
+        }
+
+        return FENManager.skipOptionalSpaces(text, bytes, i, end);
+    }
+
+    private static int skipOptionalSpaces(CharSequence text, ByteBuffer bytes, int i, int end)
+    {
+        while (i < end && FENManager.charAt(text, bytes, i, end) == ' ')
+        {
+            i ++;
+        }
+
+        return i;
+    }
+
+    private static int skipDigits(CharSequence text, ByteBuffer bytes, int i, int end)
+    {
+        char c = FENManager.charAt(text, bytes, i, end);
+
+        while (c >= '0' && c <= '9')
+        {
+            c = FENManager.charAt(text, bytes, ++ i, end);
+        }
+
+        return i;
+    }
+
+    /**
+     * Gets a character of the FEN
+     * @return The character, 0 if the index is outside of the FEN
+     */
+    private static char charAt(CharSequence text, ByteBuffer bytes, int i, int end)
+    {
+        if (i >= end)
+        {
+            return 0;
+        }
+
+        return text != null ? text.charAt(i) : (char) (bytes.get(i) & 0xFF);
+    }
+
+    /**
+     * Empties a board whose FEN could not be read
+     * @param board The board
+     * @param offset The offset of the first character that could not be read
+     * @return The exception that should be thrown
+     */
+    private static InvalidFENException fail(Board board, int offset)
+    {
+        board.clear();
+        return new InvalidFENException(offset);
+    }
+
+    /**
+     * Writes a FEN to either text or bytes
+     * @param board The board
+     * @param builder The builder the FEN is appended to, null if it is written to bytes
+     * @param buffer The buffer the FEN is written to, null if it is appended to text
+     */
+    private static void write(Board board, StringBuilder builder, ByteBuffer buffer)
+    {
+        int[] squares = board.getSquares();
+        Position enPassantPosition = board.getEnPassanPosition();
+
+        for (int rank = 7; rank >= 0; rank --)
+        {
+            int emptySquares = 0;
+
+            for (int file = 0; file < 8; file ++)
+            {
+                int pieceIndex = squares[rank * 8 + file];
+
+                if (pieceIndex == BitboardManager.NO_PIECE)
+                {
+                    emptySquares ++;
+                    continue;
+                }
+
+                if (emptySquares > 0)
+                {
+                    FENManager.put(builder, buffer, (char) ('0' + emptySquares));
+                    emptySquares = 0;
+                }
+
+                FENManager.put(builder, buffer, PIECE_CHARS.charAt(pieceIndex));
+            }
+
+            if (emptySquares > 0)
+            {
+                FENManager.put(builder, buffer, (char) ('0' + emptySquares));
+            }
+
+            FENManager.put(builder, buffer, rank > 0 ? '/' : ' ');
+        }
+
+        FENManager.put(builder, buffer, board.getPlayingSideColor() == Color.WHITE ? 'w' : 'b');
+        FENManager.put(builder, buffer, ' ');
+
+        if (board.getWhiteCastlingStatus() == CastlingStatus.NONE && board.getBlackCastlingStatus() == CastlingStatus.NONE)
+        {
+            FENManager.put(builder, buffer, '-');
+        }
+
+        if (board.getWhiteCastlingStatus().allowsKingside())
+        {
+            FENManager.put(builder, buffer, 'K');
+        }
+
+        if (board.getWhiteCastlingStatus().allowsQueenside())
+        {
+            FENManager.put(builder, buffer, 'Q');
+        }
+
+        if (board.getBlackCastlingStatus().allowsKingside())
+        {
+            FENManager.put(builder, buffer, 'k');
+        }
+
+        if (board.getBlackCastlingStatus().allowsQueenside())
+        {
+            FENManager.put(builder, buffer, 'q');
+        }
+
+        FENManager.put(builder, buffer, ' ');
+
+        if (enPassantPosition == null)
+        {
+            FENManager.put(builder, buffer, '-');
+        }
+        else
+        {
+            FENManager.put(builder, buffer, enPassantPosition.getFileAsChar());
+            FENManager.put(builder, buffer, enPassantPosition.getRankAsChar());
+        }
+
+        FENManager.put(builder, buffer, ' ');
+        FENManager.putNumber(builder, buffer, board.getHalfmoveClock());
+        FENManager.put(builder, buffer, ' ');
+        FENManager.putNumber(builder, buffer, board.getMovesPlayed() / 2 + 1);
+    }
+
+    /**
+     * Writes a number without creating a string for it
+     */
+    private static void putNumber(StringBuilder builder, ByteBuffer buffer, int number)
+    {
+        int divisor = 1;
+
+        while (divisor <= number / 10)
+        {
+            divisor *= 10;
+        }
+
+        for (; divisor > 0; divisor /= 10)
+        {
+            FENManager.put(builder, buffer, (char) ('0' + number / divisor % 10));
+        }
+    }
+
+    private static void put(StringBuilder builder, ByteBuffer buffer, char c)
+    {
+        if (builder != null)
+        {
+            builder.append(c);
+        }
+        else
+        {
+            buffer.put((byte) c);
+        }
+    }
+}
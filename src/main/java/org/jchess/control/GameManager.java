@@ -2,6 +2,8 @@ package org.jchess.control;
 
 import java.util.Scanner;
 
+import org.jchess.engine.Search;
+import org.jchess.engine.SearchLimits;
 import org.jchess.model.Board;
 import org.jchess.view.UI;
 
@@ -11,6 +13,9 @@ import org.jchess.view.UI;
 public class GameManager
 {
     private static Board board; // the board we are playing on
+    private static Search search = new Search(); // suggests moves when the user asks for a hint
+
+    private static final long HINT_TIME = 1000; // how many milliseconds a hint may take
 
     /**
      * Initializes our game
@@ -40,6 +45,13 @@ public class GameManager
                 UI.print("Your input: ");
                 input = scanner.nextLine();
 
+                // Let the engine suggest a move
+                if (input.equals("hint"))
+                {
+                    UI.printSearchResult(search.search(board, new SearchLimits(SearchLimits.NO_LIMIT, HINT_TIME, SearchLimits.NO_LIMIT)));
+                    continue;
+                }
+
                 // Try to move a piece according to the user input
                 try
                 {
@@ -1,6 +1,6 @@
 package org.jchess.control;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.jchess.exceptions.PieceNotFoundException;
 import org.jchess.model.Board;
@@ -8,6 +8,8 @@ import org.jchess.model.CastlingStatus;
 import org.jchess.model.Color;
 import org.jchess.model.FileRankHintType;
 import org.jchess.model.Move;
+import org.jchess.model.MoveGenerationType;
+import org.jchess.model.MoveList;
 import org.jchess.model.Piece;
 import org.jchess.model.PieceType;
 import org.jchess.model.Position;
@@ -26,17 +28,11 @@ public class MoveManager
      */
     public static boolean isMoveLegal(Board board, Piece piece, Position position)
     {
-        Position[] legalPositions = MoveManager.getLegalMoves(board, piece);
+        MoveList moveList = new MoveList();
 
-        for (Position legalPosition : legalPositions)
-        {
-            if (Position.equals(position, legalPosition))
-            {
-                return true;
-            }
-        }
+        MoveManager.generateLegalMoves(board, piece.getColor(), moveList);
 
-        return false;
+        return MoveManager.containsMove(moveList, MoveManager.getSquareOfPiece(board, piece), BitboardManager.getSquare(position));
     }
 
     /**
@@ -47,174 +43,437 @@ public class MoveManager
      */
     public static Position[] getLegalMoves(Board board, Piece piece)
     {
-        ArrayList<Position> legalMoves = new ArrayList<>();
-        Position[] result;
+        MoveList moveList = new MoveList();
+        Position[] legalMoves;
+        int count = 0;
+        int square = MoveManager.getSquareOfPiece(board, piece);
 
-        if (piece == null)
+        MoveManager.generateLegalMoves(board, piece.getColor(), moveList);
+        legalMoves = new Position[moveList.size()];
+
+        for (int i = 0; i < moveList.size(); i ++)
         {
-            throw new PieceNotFoundException();
+            int move = moveList.get(i);
+
+            // Every promotion type leads to the same position, so only one of them is listed
+            if (Move.getFrom(move) == square
+                && (Move.getPromotionType(move) == PieceType.NONE || Move.getPromotionType(move) == PieceType.QUEEN))
+            {
+                legalMoves[count] = BitboardManager.getPosition(Move.getTo(move));
+                count ++;
+            }
         }
 
-        switch (piece.getType()) {
-            case KING:
-                int fileOffset = 0;
-                int rankOffset = 0;
+        return Arrays.copyOf(legalMoves, count);
+    }
+
+    /**
+     * Generates all legal moves of the side that is currently playing and adds them to a move list in their encoded form
+     * This does not create any objects, as long as the move list has enough space left
+     * @param board The board we want to generate the moves for
+     * @param moveList The list the encoded moves are added to
+     */
+    public static void generateLegalMoves(Board board, MoveList moveList)
+    {
+        MoveManager.generateLegalMoves(board, board.getPlayingSideColor(), moveList, MoveGenerationType.ALL);
+    }
+
+    /**
+     * Generates the legal captures or quiet moves of the side that is currently playing and adds them to a move list in their encoded form
+     * Only the requested moves are generated, so i.e. the quiescence search does not pay for the quiet moves it skips anyway
+     * @param board The board we want to generate the moves for
+     * @param moveList The list the encoded moves are added to
+     * @param type Which moves should be generated
+     */
+    public static void generateLegalMoves(Board board, MoveList moveList, MoveGenerationType type)
+    {
+        MoveManager.generateLegalMoves(board, board.getPlayingSideColor(), moveList, type);
+    }
+
+    /**
+     * Generates all legal moves of one side and adds them to a move list in their encoded form
+     * @param board The board we want to generate the moves for
+     * @param color The color of the side that should move
+     * @param moveList The list the encoded moves are added to
+     */
+    public static void generateLegalMoves(Board board, Color color, MoveList moveList)
+    {
+        MoveManager.generateLegalMoves(board, color, moveList, MoveGenerationType.ALL);
+    }
+
+    /**
+     * Generates the legal moves of one side and adds them to a move list in their encoded form
+     * Checking pieces and pinned pieces are calculated once up front, so no move has to be played to find out if it leaves the king in check
+     * @param board The board we want to generate the moves for
+     * @param color The color of the side that should move
+     * @param moveList The list the encoded moves are added to
+     * @param type Which moves should be generated
+     */
+    public static void generateLegalMoves(Board board, Color color, MoveList moveList, MoveGenerationType type)
+    {
+        long[] bitboards = board.getBitboards();
+        Color enemyColor = color == Color.WHITE ? Color.BLACK : Color.WHITE;
+        long ownPieces = board.getColorBitboards()[color.ordinal()];
+        long enemyPieces = board.getColorBitboards()[enemyColor.ordinal()];
+        long occupancy = ownPieces | enemyPieces;
+        long king = bitboards[BitboardManager.getPieceIndex(PieceType.KING, color)];
+        // The squares the pieces other than pawns may move to
+        long targets = type == MoveGenerationType.CAPTURES ? enemyPieces : type == MoveGenerationType.QUIETS ? ~occupancy : ~ownPieces;
+
+        // Without a king there is nothing to protect, so every move is legal
+        if (king == 0)
+        {
+            MoveList allMoves = type == MoveGenerationType.ALL ? moveList : new MoveList();
+
+            for (long pieces = ownPieces; pieces != 0; pieces &= pieces - 1)
+            {
+                MoveManager.generateMoves(board, Long.numberOfTrailingZeros(pieces), allMoves);
+            }
 
-                for (fileOffset = -1; fileOffset < 2; fileOffset ++)
+            // This only happens on boards that were set up by hand, so the requested moves are simply picked out afterwards
+            if (allMoves != moveList)
+            {
+                for (int i = 0; i < allMoves.size(); i ++)
                 {
-                    for (rankOffset = -1; rankOffset < 2; rankOffset ++)
+                    int move = allMoves.get(i);
+
+                    if ((Move.isCapture(move) || Move.isPromotion(move)) == (type == MoveGenerationType.CAPTURES))
                     {
-                        if (fileOffset != 0 || rankOffset != 0)
-                        {
-                            Position position = new Position(piece.getPosition(), fileOffset, rankOffset);
-                            tryAddLegalMove(board, legalMoves, position, piece.getColor());
-                        }
+                        moveList.add(move);
                     }
                 }
+            }
 
-                if (piece.getHasMoved())
-                {
+            return;
+        }
+
+        int kingSquare = Long.numberOfTrailingZeros(king);
+        long checkers = MoveManager.getAttackers(board, kingSquare, enemyColor, occupancy);
+        long attackedSquares = MoveManager.getAttackMap(board, enemyColor);
+
+        addMovesFromBitboard(moveList, kingSquare, AttackManager.getKingAttacks(kingSquare) & targets & ~attackedSquares, enemyPieces);
+
+        // In double check only the king can move
+        if (Long.bitCount(checkers) > 1)
+        {
+            return;
+        }
+
+        // Every other move has to capture the checking piece or block its line
+        long checkMask = checkers == 0 ? -1L : checkers | AttackManager.getSquaresBetween(kingSquare, Long.numberOfTrailingZeros(checkers));
+        long pinnedPieces = MoveManager.getPinnedPieces(board, kingSquare, color, occupancy);
+
+        if (checkers == 0 && type != MoveGenerationType.CAPTURES)
+        {
+            addCastlingMoves(board, moveList, kingSquare, color, occupancy, attackedSquares);
+        }
+
+        for (long pieces = ownPieces & ~king; pieces != 0; pieces &= pieces - 1)
+        {
+            int square = Long.numberOfTrailingZeros(pieces);
+            // A pinned piece may only move along the line between the king and the pinning piece
+            long allowedSquares = (pinnedPieces & (1L << square)) != 0 ? checkMask & AttackManager.getLine(kingSquare, square) : checkMask;
+
+            switch (BitboardManager.getPieceType(board.getSquares()[square]))
+            {
+                case KNIGHT:
+                    addMovesFromBitboard(moveList, square, AttackManager.getKnightAttacks(square) & targets & allowedSquares, enemyPieces);
                     break;
-                }
 
-                // --- Castling ---
+                case ROOK:
+                    addMovesFromBitboard(moveList, square, AttackManager.getRookAttacks(square, occupancy) & targets & allowedSquares, enemyPieces);
+                    break;
 
-                // Get how many squares are empty left and right of the king
-                Position[] lineMovesLeft = castRayLine(board, piece.getPosition(), new Position(-1, 0), piece.getColor());
-                Position[] lineMovesRight = castRayLine(board, piece.getPosition(), new Position(1, 0), piece.getColor());
+                case BISHOP:
+                    addMovesFromBitboard(moveList, square, AttackManager.getBishopAttacks(square, occupancy) & targets & allowedSquares, enemyPieces);
+                    break;
 
-                if ((piece.getColor() == Color.WHITE && piece.getPosition().getRank() != 0)
-                    || (piece.getColor() == Color.BLACK && piece.getPosition().getRank() != 7))
-                {
+                case QUEEN:
+                    addMovesFromBitboard(moveList, square, AttackManager.getQueenAttacks(square, occupancy) & targets & allowedSquares, enemyPieces);
                     break;
-                }
 
-                Piece leftMostPiece = BoardManager.getPieceAtPosition(board, new Position(piece.getPosition(), -4, 0));
-                Piece rightMostPiece = BoardManager.getPieceAtPosition(board, new Position(piece.getPosition(), 3, 0));
+                case PAWN:
+                    addLegalPawnMoves(board, moveList, square, color, occupancy, enemyPieces, allowedSquares, kingSquare, type);
+                    break;
 
-                if (lineMovesLeft != null
-                    && lineMovesLeft.length == 3
-                    && leftMostPiece != null
-                    && leftMostPiece.getType() == PieceType.ROOK
-                    && !leftMostPiece.getHasMoved())
-                {
-                    // Check if the side can actually castle
-                    if ((board.getPlayingSideColor() == Color.WHITE
-                        && (board.getWhiteCastlingStatus() == CastlingStatus.QUEENSIDE
-                            || board.getWhiteCastlingStatus() == CastlingStatus.KINGANDQUEENSIDE))
-                        || (board.getPlayingSideColor() == Color.BLACK
-                            && (board.getBlackCastlingStatus() == CastlingStatus.QUEENSIDE
-                                || board.getBlackCastlingStatus() == CastlingStatus.KINGANDQUEENSIDE)))
-                    {
-                        legalMoves.add(new Position(piece.getPosition(), -2, 0));
-                    }
-                }
+                default:
+                    break;
+            }
+        }
+    }
 
-                if (lineMovesRight != null
-                    && lineMovesRight.length == 2
-                    && rightMostPiece != null
-                    && rightMostPiece.getType() == PieceType.ROOK
-                    && !rightMostPiece.getHasMoved())
-                {
-                    if ((board.getPlayingSideColor() == Color.WHITE
-                        && (board.getWhiteCastlingStatus() == CastlingStatus.KINGSIDE
-                            || board.getWhiteCastlingStatus() == CastlingStatus.KINGANDQUEENSIDE))
-                        || (board.getPlayingSideColor() == Color.BLACK
-                            && (board.getBlackCastlingStatus() == CastlingStatus.KINGSIDE
-                                || board.getBlackCastlingStatus() == CastlingStatus.KINGANDQUEENSIDE)))
-                    {
-                        legalMoves.add(new Position(piece.getPosition(), 2, 0));
-                    }
-                }
+    /**
+     * Searches the legal moves of the side that is currently playing for a move between two squares
+     * @param board The board the move should be played on
+     * @param from The origin square from 0 to 63
+     * @param to The destination square from 0 to 63
+     * @param promotionType The type a pawn should be promoted to if the move is a promotion. <i>PieceType.NONE</i> promotes to a queen
+     * @return The encoded move, or <i>Move.NONE</i> if there is no such legal move
+     */
+    public static int findLegalMove(Board board, int from, int to, PieceType promotionType)
+    {
+        MoveList moveList = new MoveList();
 
-                break;
+        MoveManager.generateLegalMoves(board, moveList);
 
-            case KNIGHT:
-                tryAddLegalMove(board, legalMoves, new Position(piece.getPosition(), 2, 1), piece.getColor());
-                tryAddLegalMove(board, legalMoves, new Position(piece.getPosition(), 2, -1), piece.getColor());
+        for (int i = 0; i < moveList.size(); i ++)
+        {
+            int move = moveList.get(i);
+
+            if (Move.getFrom(move) == from
+                && Move.getTo(move) == to
+                && (!Move.isPromotion(move) || Move.getPromotionType(move) == (promotionType == PieceType.NONE ? PieceType.QUEEN : promotionType)))
+            {
+                return move;
+            }
+        }
+
+        return Move.NONE;
+    }
+
+    /**
+     * Gets all pieces of one color that attack a square
+     * @param board The board to check
+     * @param square The square that is attacked
+     * @param attackerColor The color of the attacking pieces
+     * @param occupancy The occupied squares that block sliding pieces
+     * @return A bitboard of all attacking pieces
+     */
+    public static long getAttackers(Board board, int square, Color attackerColor, long occupancy)
+    {
+        long[] bitboards = board.getBitboards();
+        Color defenderColor = attackerColor == Color.WHITE ? Color.BLACK : Color.WHITE;
+        long queens = bitboards[BitboardManager.getPieceIndex(PieceType.QUEEN, attackerColor)];
+
+        // A pawn attacks a square if a pawn of the other color standing on that square would attack the pawn
+        return (AttackManager.getPawnAttacks(square, defenderColor) & bitboards[BitboardManager.getPieceIndex(PieceType.PAWN, attackerColor)])
+            | (AttackManager.getKnightAttacks(square) & bitboards[BitboardManager.getPieceIndex(PieceType.KNIGHT, attackerColor)])
+            | (AttackManager.getKingAttacks(square) & bitboards[BitboardManager.getPieceIndex(PieceType.KING, attackerColor)])
+            | (AttackManager.getRookAttacks(square, occupancy) & (bitboards[BitboardManager.getPieceIndex(PieceType.ROOK, attackerColor)] | queens))
+            | (AttackManager.getBishopAttacks(square, occupancy) & (bitboards[BitboardManager.getPieceIndex(PieceType.BISHOP, attackerColor)] | queens));
+    }
+
+    /**
+     * Checks if a square is attacked by any piece of a given color
+     * @param board The board to check
+     * @param square The square from 0 to 63
+     * @param attackerColor The color of the attacking side
+     * @return <i>true</i> if the square is attacked, <i>false</i> otherwise
+     */
+    public static boolean isSquareAttacked(Board board, int square, Color attackerColor)
+    {
+        return MoveManager.getAttackers(board, square, attackerColor, BitboardManager.getOccupancy(board)) != 0;
+    }
+
+    /**
+     * Gets every square that is attacked by at least one piece of a given color
+     * @param board The board to check
+     * @param attackerColor The color of the attacking side
+     * @param occupancy The occupied squares that block sliding pieces
+     * @return A bitboard of all attacked squares
+     */
+    public static long getAttackedSquares(Board board, Color attackerColor, long occupancy)
+    {
+        long[] bitboards = board.getBitboards();
+        long attackedSquares = 0L;
+        long pieces = board.getColorBitboards()[attackerColor.ordinal()];
+        long pawns = bitboards[BitboardManager.getPieceIndex(PieceType.PAWN, attackerColor)];
+
+        // Pawns attack diagonally forward, so all of them can be shifted at once
+        if (attackerColor == Color.WHITE)
+        {
+            attackedSquares |= ((pawns & ~BitboardManager.FILE_A) << 7) | ((pawns & ~BitboardManager.FILE_H) << 9);
+        }
+        else
+        {
+            attackedSquares |= ((pawns & ~BitboardManager.FILE_A) >>> 9) | ((pawns & ~BitboardManager.FILE_H) >>> 7);
+        }
 
-                tryAddLegalMove(board, legalMoves, new Position(piece.getPosition(), -2, 1), piece.getColor());
-                tryAddLegalMove(board, legalMoves, new Position(piece.getPosition(), -2, -1), piece.getColor());
+        for (pieces &= ~pawns; pieces != 0; pieces &= pieces - 1)
+        {
+            int square = Long.numberOfTrailingZeros(pieces);
+
+            switch (BitboardManager.getPieceType(board.getSquares()[square]))
+            {
+                case KING:
+                    attackedSquares |= AttackManager.getKingAttacks(square);
+                    break;
+
+                case KNIGHT:
+                    attackedSquares |= AttackManager.getKnightAttacks(square);
+                    break;
+
+                case ROOK:
+                    attackedSquares |= AttackManager.getRookAttacks(square, occupancy);
+                    break;
+
+                case BISHOP:
+                    attackedSquares |= AttackManager.getBishopAttacks(square, occupancy);
+                    break;
+
+                case QUEEN:
+                    attackedSquares |= AttackManager.getQueenAttacks(square, occupancy);
+                    break;
+
+                default:
+                    break;
+            }
+        }
+
+        return attackedSquares;
+    }
 
-                tryAddLegalMove(board, legalMoves, new Position(piece.getPosition(), 1, 2), piece.getColor());
-                tryAddLegalMove(board, legalMoves, new Position(piece.getPosition(), -1, 2), piece.getColor());
+    /**
+     * Gets every square that is attacked by a given color, with the king of the other color taken off the board
+     * so the king can not step back along the line of a checking slider. The map is computed once per position and kept on the board
+     * until a piece is placed or removed, so the check test, the king moves and castling of one position share it
+     * @param board The board to check
+     * @param attackerColor The color of the attacking side
+     * @return A bitboard of all attacked squares
+     */
+    public static long getAttackMap(Board board, Color attackerColor)
+    {
+        long[] attackMaps = board.getAttackMaps();
+        int index = attackerColor.ordinal();
+
+        if ((board.getValidAttackMaps() & (1 << index)) == 0)
+        {
+            long enemyKing = board.getBitboards()[BitboardManager.getPieceIndex(PieceType.KING, attackerColor == Color.WHITE ? Color.BLACK : Color.WHITE)];
+
+            attackMaps[index] = MoveManager.getAttackedSquares(board, attackerColor, BitboardManager.getOccupancy(board) & ~enemyKing);
+            board.setValidAttackMaps(board.getValidAttackMaps() | (1 << index));
+        }
+
+        return attackMaps[index];
+    }
 
-                tryAddLegalMove(board, legalMoves, new Position(piece.getPosition(), 1, -2), piece.getColor());
-                tryAddLegalMove(board, legalMoves, new Position(piece.getPosition(), -1, -2), piece.getColor());
+    /**
+     * Gets all pieces that are pinned to their king, meaning they are the only piece standing between the king and an attacking slider
+     * @param board The board to check
+     * @param kingSquare The square of the king
+     * @param color The color of the king
+     * @param occupancy All occupied squares of the board
+     * @return A bitboard of all pinned pieces of the given color
+     */
+    public static long getPinnedPieces(Board board, int kingSquare, Color color, long occupancy)
+    {
+        long[] bitboards = board.getBitboards();
+        Color enemyColor = color == Color.WHITE ? Color.BLACK : Color.WHITE;
+        long enemyPieces = board.getColorBitboards()[enemyColor.ordinal()];
+        long queens = bitboards[BitboardManager.getPieceIndex(PieceType.QUEEN, enemyColor)];
+        long pinnedPieces = 0L;
+        // Sliders that would attack the king if only the enemy pieces were on the board
+        long snipers = (AttackManager.getRookAttacks(kingSquare, enemyPieces) & (bitboards[BitboardManager.getPieceIndex(PieceType.ROOK, enemyColor)] | queens))
+            | (AttackManager.getBishopAttacks(kingSquare, enemyPieces) & (bitboards[BitboardManager.getPieceIndex(PieceType.BISHOP, enemyColor)] | queens));
+
+        for (; snipers != 0; snipers &= snipers - 1)
+        {
+            long blockers = AttackManager.getSquaresBetween(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupancy;
+
+            if (Long.bitCount(blockers) == 1)
+            {
+                pinnedPieces |= blockers & board.getColorBitboards()[color.ordinal()];
+            }
+        }
+
+        return pinnedPieces;
+    }
+
+    /**
+     * Checks if the king of a side is currently in check
+     * @param board The board to check
+     * @param color The color of the king
+     * @return <i>true</i> if the king is attacked, <i>false</i> otherwise or if the side has no king
+     */
+    public static boolean isKingInCheck(Board board, Color color)
+    {
+        long king = board.getBitboards()[BitboardManager.getPieceIndex(PieceType.KING, color)];
+        Color enemyColor = color == Color.WHITE ? Color.BLACK : Color.WHITE;
+
+        // Computing the whole attack map only pays off if the moves of the position are generated as well, so it is only used once it exists
+        if ((board.getValidAttackMaps() & (1 << enemyColor.ordinal())) != 0)
+        {
+            return (king & board.getAttackMaps()[enemyColor.ordinal()]) != 0;
+        }
+
+        return king != 0 && MoveManager.isSquareAttacked(board, Long.numberOfTrailingZeros(king), enemyColor);
+    }
+
+    /**
+     * Generates all moves of the piece standing on a square and adds them to a move list in their encoded form
+     * This does not create any objects, as long as the move list has enough space left
+     * NOTE: The moves may still leave the own king in check, use {@link #generateLegalMoves(Board, MoveList)} to only get legal moves
+     * @param board The board on which the piece is standing
+     * @param square The square of the piece from 0 to 63
+     * @param moveList The list the encoded moves are added to
+     */
+    public static void generateMoves(Board board, int square, MoveList moveList)
+    {
+        int pieceIndex = BitboardManager.getPieceIndexAtSquare(board, square);
+
+        if (pieceIndex == BitboardManager.NO_PIECE)
+        {
+            throw new PieceNotFoundException();
+        }
+
+        Color color = BitboardManager.getPieceColor(pieceIndex);
+        long ownPieces = board.getColorBitboards()[color.ordinal()];
+        long enemyPieces = board.getColorBitboards()[1 - color.ordinal()];
+        long occupancy = ownPieces | enemyPieces;
+
+        switch (BitboardManager.getPieceType(pieceIndex))
+        {
+            case KING:
+                addMovesFromBitboard(moveList, square, AttackManager.getKingAttacks(square) & ~ownPieces, enemyPieces);
+                addCastlingMoves(board, moveList, square, color, occupancy, 0L);
+                break;
+
+            case KNIGHT:
+                addMovesFromBitboard(moveList, square, AttackManager.getKnightAttacks(square) & ~ownPieces, enemyPieces);
                 break;
 
             case ROOK:
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(1, 0), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(-1, 0), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(0, 1), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(0, -1), piece.getColor());
+                addMovesFromBitboard(moveList, square, AttackManager.getRookAttacks(square, occupancy) & ~ownPieces, enemyPieces);
                 break;
 
             case BISHOP:
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(1, 1), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(-1, 1), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(1, -1), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(-1, -1), piece.getColor());
+                addMovesFromBitboard(moveList, square, AttackManager.getBishopAttacks(square, occupancy) & ~ownPieces, enemyPieces);
                 break;
 
             case QUEEN:
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(1, 0), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(-1, 0), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(0, 1), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(0, -1), piece.getColor());
-
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(1, 1), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(-1, 1), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(1, -1), piece.getColor());
-                tryAddLegalMoveLine(board, legalMoves, piece.getPosition(), new Position(-1, -1), piece.getColor());
+                addMovesFromBitboard(moveList, square, AttackManager.getQueenAttacks(square, occupancy) & ~ownPieces, enemyPieces);
                 break;
 
             case PAWN:
-                int movementDirection = piece.getColor() == Color.WHITE ? 1 : -1;
-
-                Position singleStepPosition = new Position(piece.getPosition(), 0, movementDirection);
-                Position doubleStepPosition = new Position(piece.getPosition(), 0, movementDirection * 2);
-
-                Position leftAttackPosition = new Position(piece.getPosition(), -1, movementDirection);
-                Position rightAttackPosition = new Position(piece.getPosition(), 1, movementDirection);
-
-                if (BoardManager.getPieceAtPosition(board, singleStepPosition) == null)
-                {
-                    tryAddLegalMove(board, legalMoves, singleStepPosition, piece.getColor());
-
-                    if ((piece.getPosition().getRank() == 1 || piece.getPosition().getRank() == 6)
-                        && BoardManager.getPieceAtPosition(board, doubleStepPosition) == null)
-                    {
-                        tryAddLegalMove(board, legalMoves, doubleStepPosition, piece.getColor());
-                    }
-                }
-
-                if (BoardManager.getPieceAtPosition(board, leftAttackPosition) != null
-                    || Position.equals(leftAttackPosition, board.getEnPassanPosition()))
-                {
-                    tryAddLegalMove(board, legalMoves, leftAttackPosition, piece.getColor());
-                }
-                if (BoardManager.getPieceAtPosition(board, rightAttackPosition) != null
-                    || Position.equals(rightAttackPosition, board.getEnPassanPosition()))
-                {
-                    tryAddLegalMove(board, legalMoves, rightAttackPosition, piece.getColor());
-                }
-
+                addPawnMoves(board, moveList, square, color, occupancy, enemyPieces);
                 break;
 
             default:
                 break;
         }
+    }
 
-        result = new Position[legalMoves.size()];
-        for (int i = 0; i < legalMoves.size(); i ++)
-        {
-            result[i] = legalMoves.get(i);
-        }
+    /**
+     * Creates a move object from an encoded move
+     * @param board The board the move is played on
+     * @param move The encoded move
+     * @return A <i>Move</i> object that contains the piece that should move, the position it should move to and the promotion type
+     */
+    public static Move getMoveFromEncodedMove(Board board, int move)
+    {
+        Move decodedMove = new Move(BoardManager.getPieceAtPosition(board, BitboardManager.getPosition(Move.getFrom(move))), BitboardManager.getPosition(Move.getTo(move)));
+
+        decodedMove.setPromotionType(Move.getPromotionType(move));
 
-        return result;
+        return decodedMove;
     }
 
+    /**
+     * Figures out what piece is supposed to move to what position from a given string in UCI notation
+     * @param board The board the piece is on
+     * @param moveString The input string (i.e. "e2e4" or "e7e8q")
+     * @return A <i>Move</i> object that contains the piece that should move, the position it should move to and the promotion type
+     */
     public static Move getUCIMoveFromString(Board board, String moveString)
     {
         Move move = new Move();
@@ -225,15 +484,21 @@ public class MoveManager
         String lastTwoChars = moveString.substring(2, 4);
 
         // Get the piece at the first two chars position
-        Piece piece = BoardManager.getPieceAtPosition(board, new Position(firstTwoChars));
+        Piece piece = BoardManager.getPieceAtPosition(board, Position.of(firstTwoChars));
 
         // Get where the piece should move
-        Position destination = new Position(lastTwoChars);
+        Position destination = Position.of(lastTwoChars);
 
         // Set the values
         move.setPiece(piece);
         move.setPosition(destination);
 
+        // A fifth character names the promotion type
+        if (moveString.length() > 4)
+        {
+            move.setPromotionType(StringHelper.getTypeFromAbbreviation(moveString.charAt(4)));
+        }
+
         return move;
     }
 
@@ -246,10 +511,12 @@ public class MoveManager
     public static Move getMoveFromString(Board board, String moveString)
     {
         Move move = new Move(); // The move to be returned
+        MoveList legalMoves = new MoveList(); // all legal moves of the position, the move string has to match one of them
         Piece movingPiece = null; // The piece that is moving
         PieceType movingPieceType = PieceType.PAWN; // the type of the piece we want to move
         Position positionToMoveTo; // the position we want to move to
-        Position movingPiecePosition = new Position(); // the position of the moving piece (if specified)
+        int movingPieceFile = -1; // the file of the moving piece (if specified)
+        int movingPieceRank = -1; // the rank of the moving piece (if specified)
         // If the position of the moving piece wasn't specified fully, we get a hint at either file or rank
         FileRankHintType fileRankHint = FileRankHintType.NONE;
 
@@ -268,16 +535,18 @@ public class MoveManager
             promotionType = StringHelper.getTypeFromAbbreviation(moveString.toCharArray()[moveString.toCharArray().length - 1]);
         }
 
+        MoveManager.generateLegalMoves(board, legalMoves);
+
         // Check if the move is a castling move
         if (moveString.equals("O-O") || moveString.equals("O-O-O"))
         {
-            movingPiece = BoardManager.getPieceAtPosition(board, board.getPlayingSideColor() == Color.WHITE ? new Position("e1") : new Position("e8"));
-            movingPiecePosition = moveString.equals("O-O") ? new Position(movingPiece.getPosition(), 2, 0) : new Position(movingPiece.getPosition(), -2, 0);
+            movingPiece = BoardManager.getPieceAtPosition(board, board.getPlayingSideColor() == Color.WHITE ? Position.of("e1") : Position.of("e8"));
+            positionToMoveTo = moveString.equals("O-O") ? Position.of(movingPiece.getPosition(), 2, 0) : Position.of(movingPiece.getPosition(), -2, 0);
 
-            if (isMoveLegal(board, movingPiece, movingPiecePosition))
+            if (MoveManager.containsMove(legalMoves, MoveManager.getSquareOfPiece(board, movingPiece), BitboardManager.getSquare(positionToMoveTo)))
             {
                 move.setPiece(movingPiece);
-                move.setPosition(movingPiecePosition);
+                move.setPosition(positionToMoveTo);
 
                 return move;
             }
@@ -312,7 +581,7 @@ public class MoveManager
         }
 
         // The position will always be the last to characters in the string
-        positionToMoveTo = new Position(moveStringChars[moveStringChars.length - 2] + "" + moveStringChars[moveStringChars.length - 1]);
+        positionToMoveTo = Position.of(Position.getFileFromChar(moveStringChars[moveStringChars.length - 2]), Position.getRankFromChar(moveStringChars[moveStringChars.length - 1]));
 
         // Remove the position information of our string because we already extruded that information
         moveString = moveString.substring(0, moveStringChars.length - 2);
@@ -329,49 +598,93 @@ public class MoveManager
             // Set the information of the position that we know
             if (fileRankHint == FileRankHintType.FILE)
             {
-                movingPiecePosition.setFile(Position.getFileFromChar(positionHintChar));
+                movingPieceFile = Position.getFileFromChar(positionHintChar);
             }
             else
             {
-                movingPiecePosition.setRank(Position.getRankFromChar(positionHintChar));
+                movingPieceRank = Position.getRankFromChar(positionHintChar);
             }
         }
         // If the position of our moving piece is given...
         else if (moveStringChars.length == 2)
         {
             // ...save the position
-            movingPiecePosition = new Position(moveStringChars[0] + "" + moveStringChars[1]);
+            movingPieceFile = Position.getFileFromChar(moveStringChars[0]);
+            movingPieceRank = Position.getRankFromChar(moveStringChars[1]);
         }
 
-        // Loop through all of the pieces...
-        for (Piece piece : board.getPieces())
+        int targetSquare = BitboardManager.getSquare(positionToMoveTo);
+
+        // Loop through the legal moves to the target...
+        for (int i = 0; i < legalMoves.size(); i ++)
         {
-            // Check if the piece meets all criteria set by the move string
-            if (piece.getColor() == board.getPlayingSideColor()
-                && piece.getType() == movingPieceType
-                && MoveManager.isMoveLegal(board, piece, positionToMoveTo)
-                && ((movingPiecePosition.getFile() == -1 && movingPiecePosition.getRank() == -1)
-                    || (movingPiecePosition.getFile() != -1 && movingPiecePosition.getRank() == -1 && piece.getPosition().getFile() == movingPiecePosition.getFile())
-                    || (movingPiecePosition.getFile() == -1 && movingPiecePosition.getRank() != -1 && piece.getPosition().getRank() == movingPiecePosition.getRank())
-                    || (movingPiecePosition.getFile() != -1 && movingPiecePosition.getRank() != -1 && piece.getPosition() == movingPiecePosition)))
+            int legalMove = legalMoves.get(i);
+            int from = Move.getFrom(legalMove);
+
+            // Check if the moving piece meets all criteria set by the move string
+            if (Move.getTo(legalMove) == targetSquare
+                && BitboardManager.getPieceType(board.getSquares()[from]) == movingPieceType
+                && (movingPieceFile == -1 || (from & 7) == movingPieceFile)
+                && (movingPieceRank == -1 || (from >>> 3) == movingPieceRank))
             {
-                movingPiece = piece;
+                movingPiece = BoardManager.getPieceAtPosition(board, BitboardManager.getPosition(from));
             }
         }
 
-        // Change the type of the piece if we are promoting
-        if (isPromotion)
-        {
-            movingPiece.setType(promotionType);
-        }
-
         // Save the values to the move
         move.setPiece(movingPiece);
         move.setPosition(positionToMoveTo);
+        move.setPromotionType(promotionType);
 
         return move;
     }
 
+    /**
+     * Checks if a list of encoded moves contains a move between two squares
+     * @param moveList The list
+     * @param from The origin square from 0 to 63
+     * @param to The destination square from 0 to 63
+     * @return <i>true</i> if there is such a move, <i>false</i> otherwise
+     */
+    private static boolean containsMove(MoveList moveList, int from, int to)
+    {
+        for (int i = 0; i < moveList.size(); i ++)
+        {
+            int move = moveList.get(i);
+
+            if (Move.getFrom(move) == from && Move.getTo(move) == to)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the square of a piece and makes sure the piece is on the board
+     * @param board The board the piece should stand on
+     * @param piece The piece
+     * @return The square from 0 to 63
+     * @throws PieceNotFoundException If the piece is <i>null</i> or its square is empty
+     */
+    private static int getSquareOfPiece(Board board, Piece piece)
+    {
+        if (piece == null)
+        {
+            throw new PieceNotFoundException();
+        }
+
+        int square = BitboardManager.getSquare(piece.getPosition());
+
+        if (BitboardManager.getPieceIndexAtSquare(board, square) == BitboardManager.NO_PIECE)
+        {
+            throw new PieceNotFoundException();
+        }
+
+        return square;
+    }
+
     /**
      * Checks if a given position is being attacked by the opposite side
      * @param board The board to check
@@ -380,95 +693,192 @@ public class MoveManager
      */
     public static boolean isPositionAttacked(Board board, Position position)
     {
-        for (Piece piece : board.getPieces())
+        return MoveManager.isSquareAttacked(board, BitboardManager.getSquare(position), board.getPlayingSideColor() == Color.WHITE ? Color.BLACK : Color.WHITE);
+    }
+
+    /**
+     * Adds a move to every square of a bitboard to a list of moves
+     * @param moveList The list the encoded moves are added to
+     * @param from The square of the moving piece
+     * @param targets A bitboard of all squares the piece can move to
+     * @param enemyPieces A bitboard of all pieces of the opposite color, moving to one of them is a capture
+     */
+    private static void addMovesFromBitboard(MoveList moveList, int from, long targets, long enemyPieces)
+    {
+        while (targets != 0)
         {
-            if (piece.getColor() != board.getPlayingSideColor()
-                && MoveManager.isMoveLegal(board, piece, position))
-            {
-                return true;
-            }
+            int to = Long.numberOfTrailingZeros(targets);
+
+            moveList.add(Move.encode(from, to, PieceType.NONE, (enemyPieces & (1L << to)) != 0 ? Move.FLAG_CAPTURE : 0));
+            targets &= targets - 1;
         }
+    }
 
-        return false;
+    /**
+     * Adds the castling moves of a king to a list of moves. Castling is possible if the side still has the right to castle,
+     * all squares between the king and the rook are empty and the king does not pass through an attacked square
+     * @param board The board the king is on
+     * @param moveList The list the encoded moves are added to
+     * @param square The square of the king
+     * @param color The color of the king
+     * @param occupancy All occupied squares of the board
+     * @param attackedSquares All squares attacked by the opposite side, the king must neither stand on nor pass through them
+     */
+    private static void addCastlingMoves(Board board, MoveList moveList, int square, Color color, long occupancy, long attackedSquares)
+    {
+        CastlingStatus castlingStatus = board.getCastlingStatuses()[color.ordinal()];
+        long rooks = board.getBitboards()[BitboardManager.getPieceIndex(PieceType.ROOK, color)];
+        // A rook standing on the king's square would reach the corners if all squares in between are empty
+        long lineMoves = AttackManager.getRookAttacks(square, occupancy) & rooks;
+
+        if (square != (color == Color.WHITE ? 4 : 60))
+        {
+            return;
+        }
+
+        if (castlingStatus.allowsKingside()
+            && (lineMoves & (1L << (square + 3))) != 0
+            && (attackedSquares & (7L << square)) == 0)
+        {
+            moveList.add(Move.encode(square, square + 2, PieceType.NONE, Move.FLAG_CASTLING));
+        }
+
+        if (castlingStatus.allowsQueenside()
+            && (lineMoves & (1L << (square - 4))) != 0
+            && (attackedSquares & (7L << (square - 2))) == 0)
+        {
+            moveList.add(Move.encode(square, square - 2, PieceType.NONE, Move.FLAG_CASTLING));
+        }
     }
 
     /**
-     * Works like {@link #tryAddLegalMove(Board, ArrayList, Position, Color)} but scans all position in a line from a given origin in a given direction. It will stop scanning once a piece obscure the given path
-     * @param board The board on which we want to move
-     * @param legalMoves A list of all legal moves so far, this is were the new move will be added to
-     * @param origin The position from which we want to cast a line trace
-     * @param direction The direction in which we want to cast a line trace
-     * @param originatingPieceColor The color of the moving piece
+     * Adds the pushes, captures and en passant captures of a pawn to a list of moves
+     * @param board The board the pawn is on
+     * @param moveList The list the encoded moves are added to
+     * @param square The square of the pawn
+     * @param color The color of the pawn
+     * @param occupancy All occupied squares of the board
+     * @param enemyPieces A bitboard of all pieces of the opposite color
      */
-    private static void tryAddLegalMoveLine(Board board, ArrayList<Position> legalMoves, Position origin, Position direction, Color originatingPieceColor)
+    private static void addPawnMoves(Board board, MoveList moveList, int square, Color color, long occupancy, long enemyPieces)
     {
-        int i = 0;
+        int direction = color == Color.WHITE ? 8 : -8;
+        int singleStep = square + direction;
+        long attacks = AttackManager.getPawnAttacks(square, color);
+        long captures = attacks & enemyPieces;
+        Position enPassantPosition = board.getEnPassanPosition();
+
+        if (singleStep >= 0 && singleStep < 64 && (occupancy & (1L << singleStep)) == 0)
+        {
+            addPawnMove(moveList, square, singleStep, 0);
+
+            if ((square >>> 3) == (color == Color.WHITE ? 1 : 6)
+                && (occupancy & (1L << (singleStep + direction))) == 0)
+            {
+                moveList.add(Move.encode(square, singleStep + direction, PieceType.NONE, Move.FLAG_DOUBLE_PAWN_PUSH));
+            }
+        }
 
-        for (i = 1; i < 8; i ++)
+        while (captures != 0)
         {
-            Position position = new Position(origin, direction.getFile() * i, direction.getRank() * i);
-            Piece pieceAtPosition = BoardManager.getPieceAtPosition(board, position);
-            boolean success = tryAddLegalMove(board, legalMoves, position, originatingPieceColor);
+            addPawnMove(moveList, square, Long.numberOfTrailingZeros(captures), Move.FLAG_CAPTURE);
+            captures &= captures - 1;
+        }
+
+        // En passant squares lie behind a pawn of the opposite color that just moved two squares
+        if (enPassantPosition != null
+            && enPassantPosition.getRank() == (color == Color.WHITE ? 5 : 2))
+        {
+            int enPassantSquare = BitboardManager.getSquare(enPassantPosition);
 
-            if (!success || (pieceAtPosition != null && pieceAtPosition.getColor() != originatingPieceColor))
+            if ((attacks & ~occupancy & (1L << enPassantSquare)) != 0)
             {
-                return;
+                moveList.add(Move.encode(square, enPassantSquare, PieceType.NONE, Move.FLAG_CAPTURE | Move.FLAG_EN_PASSANT));
             }
         }
     }
 
     /**
-     * Similar to {@link #tryAddLegalMoveLine(Board, ArrayList, Position, Position, Color)} but doesn't add the result to a list of moves but instead returns it as an array
+     * Adds the legal pushes, captures and en passant captures of a pawn to a list of moves
+     * @param board The board the pawn is on
+     * @param moveList The list the encoded moves are added to
+     * @param square The square of the pawn
+     * @param color The color of the pawn
+     * @param occupancy All occupied squares of the board
+     * @param enemyPieces A bitboard of all pieces of the opposite color
+     * @param allowedSquares The squares the pawn may move to without leaving its king in check
+     * @param kingSquare The square of the own king
+     * @param type Which moves should be added, promotions without a capture count as captures
      */
-    private static Position[] castRayLine(Board board, Position origin, Position direction, Color originatingPieceColor)
+    private static void addLegalPawnMoves(Board board, MoveList moveList, int square, Color color, long occupancy, long enemyPieces, long allowedSquares, int kingSquare, MoveGenerationType type)
     {
-        ArrayList<Position> legalMoves = new ArrayList<>();
-        Position[] result = null;
-        int i = 0;
-        int j = 0;
+        int direction = color == Color.WHITE ? 8 : -8;
+        int singleStep = square + direction;
+        long attacks = AttackManager.getPawnAttacks(square, color);
+        long captures = type == MoveGenerationType.QUIETS ? 0 : attacks & enemyPieces & allowedSquares;
+        Position enPassantPosition = board.getEnPassanPosition();
 
-        for (i = 1; i < 8; i ++)
+        if (singleStep >= 0 && singleStep < 64 && (occupancy & (1L << singleStep)) == 0)
         {
-            Position position = new Position(origin, direction.getFile() * i, direction.getRank() * i);
-            Piece pieceAtPosition = BoardManager.getPieceAtPosition(board, position);
-            boolean success = tryAddLegalMove(board, legalMoves, position, originatingPieceColor);
+            boolean isPromotion = singleStep < 8 || singleStep > 55;
 
-            if (!success || (pieceAtPosition != null && pieceAtPosition.getColor() != originatingPieceColor))
+            if ((allowedSquares & (1L << singleStep)) != 0
+                && type != (isPromotion ? MoveGenerationType.QUIETS : MoveGenerationType.CAPTURES))
             {
-                result = new Position[legalMoves.size()];
-
-                for (j = 0; j < legalMoves.size(); j ++)
-                {
-                    result[j] = legalMoves.get(j);
-                }
+                addPawnMove(moveList, square, singleStep, 0);
+            }
 
-                return result;
+            if (type != MoveGenerationType.CAPTURES
+                && (square >>> 3) == (color == Color.WHITE ? 1 : 6)
+                && (occupancy & (1L << (singleStep + direction))) == 0
+                && (allowedSquares & (1L << (singleStep + direction))) != 0)
+            {
+                moveList.add(Move.encode(square, singleStep + direction, PieceType.NONE, Move.FLAG_DOUBLE_PAWN_PUSH));
             }
         }
 
-        return result;
+        while (captures != 0)
+        {
+            addPawnMove(moveList, square, Long.numberOfTrailingZeros(captures), Move.FLAG_CAPTURE);
+            captures &= captures - 1;
+        }
+
+        if (enPassantPosition != null
+            && type != MoveGenerationType.QUIETS
+            && enPassantPosition.getRank() == (color == Color.WHITE ? 5 : 2))
+        {
+            int enPassantSquare = BitboardManager.getSquare(enPassantPosition);
+            long capturedPawn = 1L << (enPassantSquare - direction);
+            // En passant removes two pieces from the same rank, so the only reliable test is to look at the board after the capture
+            long occupancyAfterCapture = (occupancy ^ (1L << square) ^ capturedPawn) | (1L << enPassantSquare);
+
+            if ((attacks & ~occupancy & (1L << enPassantSquare)) != 0
+                && (MoveManager.getAttackers(board, kingSquare, color == Color.WHITE ? Color.BLACK : Color.WHITE, occupancyAfterCapture) & ~capturedPawn) == 0)
+            {
+                moveList.add(Move.encode(square, enPassantSquare, PieceType.NONE, Move.FLAG_CAPTURE | Move.FLAG_EN_PASSANT));
+            }
+        }
     }
 
     /**
-     * Tries to add a possible legal move to a list of moves. Used for dynamically adding canditates of legal moves while generating the list of legal moves for a piece
-     * @param board The board on which we want to move
-     * @param legalMoves A list of all legal moves so far, this is were the new move will be added to
-     * @param position The position we are trying to reach
-     * @param originatingPieceColor The color of the moving piece
-     * @return Whether the move was added as a legal move
+     * Adds a pawn move to a list of moves. A pawn reaching the last rank is promoted, so one move for every promotion type is added instead
+     * @param moveList The list the encoded moves are added to
+     * @param from The square of the pawn
+     * @param to The square the pawn moves to
+     * @param flags The flags of the move
      */
-    private static boolean tryAddLegalMove (Board board, ArrayList<Position> legalMoves, Position position, Color originatingPieceColor)
+    private static void addPawnMove(MoveList moveList, int from, int to, int flags)
     {
-        Piece pieceAtPosition = BoardManager.getPieceAtPosition(board, position);
-
-        if (position.getFile() > -1 && position.getFile() < 8
-            && position.getRank() > -1 && position.getRank() < 8
-            && (pieceAtPosition == null || pieceAtPosition.getColor() != originatingPieceColor))
+        if (to < 8 || to > 55)
         {
-            legalMoves.add(position);
-            return true;
+            moveList.add(Move.encode(from, to, PieceType.QUEEN, flags));
+            moveList.add(Move.encode(from, to, PieceType.ROOK, flags));
+            moveList.add(Move.encode(from, to, PieceType.BISHOP, flags));
+            moveList.add(Move.encode(from, to, PieceType.KNIGHT, flags));
+        }
+        else
+        {
+            moveList.add(Move.encode(from, to, PieceType.NONE, flags));
         }
-
-        return false;
     }
 }
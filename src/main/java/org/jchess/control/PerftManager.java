@@ -0,0 +1,170 @@
+package org.jchess.control;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.jchess.model.Board;
+import org.jchess.model.Move;
+import org.jchess.model.MoveList;
+import org.jchess.model.PerftResult;
+
+/**
+ * This class counts the leaf nodes of the move tree (perft), which is the standard way to verify and benchmark a move generator
+ */
+public class PerftManager
+{
+    /**
+     * Counts all positions that can be reached from a board in a given number of moves
+     * @param board The board to start from, it is left unchanged
+     * @param depth How many moves deep the tree should be walked, a depth of 0 or below only counts the board itself
+     * @return The number of positions at the given depth
+     */
+    public static long perft(Board board, int depth)
+    {
+        return PerftManager.perft(board, depth, PerftManager.createMoveLists(depth));
+    }
+
+    /**
+     * Counts the positions that can be reached from a board and lists how many of them follow each move of the first side
+     * @param board The board to start from, it is left unchanged
+     * @param depth How many moves deep the tree should be walked, a depth of 0 or below only counts the board itself and lists no moves
+     * @return The result containing the total node count, the count per move and the time it took
+     */
+    public static PerftResult divide(Board board, int depth)
+    {
+        return PerftManager.divide(board, depth, 1);
+    }
+
+    /**
+     * Counts the positions that can be reached from a board and lists how many of them follow each move of the first side
+     * The moves of the first side are split across a ForkJoinPool, every task works on its own copy of the board
+     * @param board The board to start from, it is left unchanged
+     * @param depth How many moves deep the tree should be walked, a depth of 0 or below only counts the board itself and lists no moves
+     * @param threads How many threads should be used
+     * @return The result containing the total node count, the count per move and the time it took
+     */
+    public static PerftResult divide(Board board, int depth, int threads)
+    {
+        PerftResult result = new PerftResult(depth);
+        MoveList rootMoves = new MoveList();
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+        ForkJoinPool pool;
+        long startTime = System.nanoTime();
+        long nodes = 0;
+
+        // Without a move to play there is nothing to divide, the tree is only the board itself
+        if (depth <= 0)
+        {
+            result.setNodes(1);
+            result.setTime(System.nanoTime() - startTime);
+
+            return result;
+        }
+
+        pool = new ForkJoinPool(Math.max(1, threads));
+        MoveManager.generateLegalMoves(board, rootMoves);
+
+        try
+        {
+            for (int i = 0; i < rootMoves.size(); i ++)
+            {
+                int move = rootMoves.get(i);
+                // The copies are made up front, since reading a board from several threads at once is not safe
+                Board copiedBoard = threads > 1 ? BoardManager.copyBoard(board) : board;
+
+                tasks.add(pool.submit(() -> PerftManager.perftAfterMove(copiedBoard, move, depth)));
+            }
+
+            for (int i = 0; i < rootMoves.size(); i ++)
+            {
+                long moveNodes = tasks.get(i).join();
+
+                result.getDivide().put(Move.toUCIString(rootMoves.get(i)), moveNodes);
+                nodes += moveNodes;
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        result.setNodes(nodes);
+        result.setTime(System.nanoTime() - startTime);
+
+        return result;
+    }
+
+    /**
+     * Plays a move, counts the positions below it and takes the move back
+     * @param board The board to play the move on
+     * @param move The encoded move
+     * @param depth The depth including the move itself
+     * @return The number of positions at the given depth
+     */
+    private static long perftAfterMove(Board board, int move, int depth)
+    {
+        long nodes;
+
+        BoardManager.makeMove(board, move);
+        nodes = PerftManager.perft(board, depth - 1, PerftManager.createMoveLists(depth - 1));
+        BoardManager.unmakeMove(board);
+
+        return nodes;
+    }
+
+    /**
+     * Counts all positions that can be reached from a board in a given number of moves
+     * @param board The board to start from
+     * @param depth How many moves deep the tree should be walked
+     * @param moveLists One move list per remaining depth, so nothing has to be allocated while walking the tree
+     * @return The number of positions at the given depth
+     */
+    private static long perft(Board board, int depth, MoveList[] moveLists)
+    {
+        MoveList moveList;
+        long nodes = 0;
+
+        if (depth <= 0)
+        {
+            return 1;
+        }
+
+        moveList = moveLists[depth];
+        moveList.clear();
+        MoveManager.generateLegalMoves(board, moveList);
+
+        // All generated moves are legal, so the last level does not have to be played
+        if (depth == 1)
+        {
+            return moveList.size();
+        }
+
+        for (int i = 0; i < moveList.size(); i ++)
+        {
+            BoardManager.makeMove(board, moveList.get(i));
+            nodes += PerftManager.perft(board, depth - 1, moveLists);
+            BoardManager.unmakeMove(board);
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Creates the move lists that are reused while walking the tree
+     * @param depth The depth of the tree
+     * @return One move list for every depth from 1 to <i>depth</i>
+     */
+    private static MoveList[] createMoveLists(int depth)
+    {
+        MoveList[] moveLists = new MoveList[Math.max(0, depth) + 1];
+
+        for (int i = 1; i <= depth; i ++)
+        {
+            moveLists[i] = new MoveList();
+        }
+
+        return moveLists;
+    }
+}
@@ -0,0 +1,120 @@
+package org.jchess.control;
+
+import java.util.SplittableRandom;
+
+import org.jchess.model.Board;
+import org.jchess.model.Color;
+import org.jchess.model.Position;
+
+/**
+ * This class calculates the Zobrist keys of boards
+ * A Zobrist key is a 64 bit hash of a position: every piece on every square, the side to move, the castling options and the en passant file have a random key,
+ * and the key of a position is all of its keys combined with XOR. Since XOR undoes itself, a move only has to XOR the keys that changed
+ * The <i>BoardManager</i> keeps the key of a board up to date, {@link #computeKey(Board)} is only needed after changing a board in a different way
+ */
+public class ZobristManager
+{
+    private static final long SEED = 0x4A43686573734CL; // fixed, so keys are the same in every run of the program
+
+    private static final long[] PIECE_KEYS = new long[12 * 64]; // one key per piece index and square
+    private static final long[] CASTLING_KEYS = new long[16]; // one key per combination of white and black castling statuses
+    private static final long[] EN_PASSANT_KEYS = new long[8]; // one key per file of the en passant position
+    private static final long SIDE_KEY; // added while black is to move
+
+    static
+    {
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        for (int i = 0; i < PIECE_KEYS.length; i ++)
+        {
+            PIECE_KEYS[i] = random.nextLong();
+        }
+
+        for (int i = 0; i < CASTLING_KEYS.length; i ++)
+        {
+            CASTLING_KEYS[i] = random.nextLong();
+        }
+
+        for (int i = 0; i < EN_PASSANT_KEYS.length; i ++)
+        {
+            EN_PASSANT_KEYS[i] = random.nextLong();
+        }
+
+        SIDE_KEY = random.nextLong();
+    }
+
+    /**
+     * Calculates the Zobrist key of a board from scratch
+     * @param board The board to calculate the key of
+     * @return The Zobrist key
+     */
+    public static long computeKey(Board board)
+    {
+        long key = 0;
+
+        for (int square = 0; square < 64; square ++)
+        {
+            int pieceIndex = board.getSquares()[square];
+
+            if (pieceIndex != BitboardManager.NO_PIECE)
+            {
+                key ^= ZobristManager.getPieceKey(pieceIndex, square);
+            }
+        }
+
+        key ^= ZobristManager.getCastlingKey(board);
+        key ^= ZobristManager.getEnPassantKey(board.getEnPassanPosition());
+
+        if (board.getPlayingSideColor() == Color.BLACK)
+        {
+            key ^= SIDE_KEY;
+        }
+
+        return key;
+    }
+
+    /**
+     * Calculates the Zobrist key of a board from scratch and stores it on the board
+     * @param board The board that should be updated
+     */
+    public static void updateKey(Board board)
+    {
+        board.setZobristKey(ZobristManager.computeKey(board));
+    }
+
+    /**
+     * Gets the key of a piece standing on a square
+     * @param pieceIndex The piece index from 0 to 11
+     * @param square The square from 0 to 63
+     * @return The key of the piece
+     */
+    public static long getPieceKey(int pieceIndex, int square)
+    {
+        return PIECE_KEYS[pieceIndex * 64 + square];
+    }
+
+    /**
+     * Gets the key of the castling options of both sides
+     * @param board The board to read the castling statuses from
+     * @return The key of the castling statuses
+     */
+    public static long getCastlingKey(Board board)
+    {
+        return CASTLING_KEYS[board.getWhiteCastlingStatus().ordinal() | (board.getBlackCastlingStatus().ordinal() << 2)];
+    }
+
+    /**
+     * Gets the key of an en passant position
+     * @param enPassantPosition The en passant position, can be <i>null</i>
+     * @return The key of the file of the position, 0 if there is no en passant position
+     */
+    public static long getEnPassantKey(Position enPassantPosition)
+    {
+        return enPassantPosition == null ? 0 : EN_PASSANT_KEYS[enPassantPosition.getFile()];
+    }
+
+    public static long getSideKey()
+    {
+        return SIDE_KEY;
+    }
+}
@@ -0,0 +1,176 @@
+package org.jchess.engine;
+
+import java.util.Arrays;
+
+import org.jchess.control.BitboardManager;
+import org.jchess.control.EvaluationManager;
+import org.jchess.model.Board;
+import org.jchess.model.Move;
+import org.jchess.model.MoveList;
+import org.jchess.model.PieceType;
+
+/**
+ * Decides in which order the moves of a position are searched, the earlier a good move is searched the more of the tree can be cut off
+ * <p>
+ * Captures are ordered by MVV-LVA (most valuable victim, least valuable attacker). Quiet moves are ordered by two heuristics that learn during the search:
+ * the killer moves, the last two quiet moves of every ply that caused a cutoff, and the history table, which counts for every piece and destination square
+ * how often its move caused a cutoff (and how often it did not) weighted by the remaining depth
+ * <p>
+ * Every search needs its own instance, since the tables change with every cutoff
+ */
+public class MoveOrdering
+{
+    public static final int HASH_MOVE_SCORE = 1000000; // the move stored in the transposition table is searched first
+    public static final int CAPTURE_SCORE = 100000; // captures and promotions come before quiet moves
+    public static final int KILLER_SCORE = 90000; // the first killer, the second one scores one less
+    public static final int MAX_HISTORY = 16384; // the history scores stay between -MAX_HISTORY and MAX_HISTORY
+
+    private static final int KILLERS_PER_PLY = 2;
+
+    private final int[][] killers = new int[Search.MAX_PLY + 1][KILLERS_PER_PLY]; // the quiet moves that caused the last cutoffs of every ply, the newest first
+    private final int[] history = new int[12 * 64]; // the history score by piece index * 64 + destination square
+
+    /**
+     * Gives a capture or promotion its score, higher scores are searched first
+     * A capture of a valuable piece by a cheap piece comes first, promotions add the value of the new piece
+     * @param board The board the move is played on
+     * @param move The encoded move
+     * @return The score, at least <i>CAPTURE_SCORE</i>
+     */
+    public static int getCaptureScore(Board board, int move)
+    {
+        int[] squares = board.getSquares();
+        int victim = squares[Move.getTo(move)];
+        int victimValue = 0; // a promotion that does not capture has no victim
+        int attackerValue;
+
+        if (victim != BitboardManager.NO_PIECE)
+        {
+            victimValue = EvaluationManager.getPieceValue(BitboardManager.getPieceType(victim));
+        }
+        else if ((Move.getFlags(move) & Move.FLAG_EN_PASSANT) != 0)
+        {
+            // A pawn captured en passant is not on the destination square
+            victimValue = EvaluationManager.getPieceValue(PieceType.PAWN);
+        }
+
+        attackerValue = EvaluationManager.getPieceValue(BitboardManager.getPieceType(squares[Move.getFrom(move)]));
+
+        return CAPTURE_SCORE + victimValue * 10 - attackerValue / 10 + EvaluationManager.getPieceValue(Move.getPromotionType(move));
+    }
+
+    /**
+     * Gives a quiet move its score, higher scores are searched first
+     * The killer moves of the ply come first, the other moves are ordered by their history
+     * @param board The board the move is played on
+     * @param move The encoded move
+     * @param ply The ply the move is played from
+     * @return The score, below <i>CAPTURE_SCORE</i>
+     */
+    public int getQuietScore(Board board, int move, int ply)
+    {
+        int[] plyKillers = this.killers[ply];
+
+        if (move == plyKillers[0])
+        {
+            return KILLER_SCORE;
+        }
+
+        if (move == plyKillers[1])
+        {
+            return KILLER_SCORE - 1;
+        }
+
+        return this.history[MoveOrdering.getHistoryIndex(board, move)];
+    }
+
+    /**
+     * Learns from a quiet move that caused a cutoff: it becomes the newest killer of the ply, its history score rises
+     * and the history scores of the quiet moves that were searched before it without a cutoff fall
+     * @param board The board the move was played on, after it was taken back
+     * @param moveList The moves of the position in the order they were searched
+     * @param count How many moves were searched, the last one caused the cutoff
+     * @param ply The ply the move was played from
+     * @param depth The remaining depth of the position, cutoffs close to the root count more
+     */
+    public void addCutoff(Board board, MoveList moveList, int count, int ply, int depth)
+    {
+        int move = moveList.get(count - 1);
+        int[] plyKillers = this.killers[ply];
+        int bonus = Math.min(depth * depth, MAX_HISTORY);
+
+        if (plyKillers[0] != move)
+        {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+
+        this.updateHistory(MoveOrdering.getHistoryIndex(board, move), bonus);
+
+        for (int i = 0; i < count - 1; i ++)
+        {
+            int otherMove = moveList.get(i);
+
+            if (!Move.isCapture(otherMove) && !Move.isPromotion(otherMove))
+            {
+                this.updateHistory(MoveOrdering.getHistoryIndex(board, otherMove), -bonus);
+            }
+        }
+    }
+
+    /**
+     * Forgets the killer moves and the history, i.e. before a new search
+     */
+    public void clear()
+    {
+        for (int[] plyKillers : this.killers)
+        {
+            Arrays.fill(plyKillers, Move.NONE);
+        }
+
+        Arrays.fill(this.history, 0);
+    }
+
+    /**
+     * Gets the killer moves of a ply
+     * @param ply The ply
+     * @return The killer moves, the newest first. <i>Move.NONE</i> if there is none yet
+     */
+    public int[] getKillers(int ply)
+    {
+        return this.killers[ply];
+    }
+
+    /**
+     * Gets the history score of a quiet move
+     * @param board The board the move is played on
+     * @param move The encoded move
+     * @return The score between <i>-MAX_HISTORY</i> and <i>MAX_HISTORY</i>
+     */
+    public int getHistory(Board board, int move)
+    {
+        return this.history[MoveOrdering.getHistoryIndex(board, move)];
+    }
+
+    /**
+     * Changes a history score. The closer the score already is to the limit in the direction of the change, the less it moves,
+     * so the scores never leave the range and moves that stop causing cutoffs lose their score again
+     * @param index The index in the history table
+     * @param bonus The change, negative to lower the score
+     */
+    private void updateHistory(int index, int bonus)
+    {
+        this.history[index] += bonus - this.history[index] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    /**
+     * Gets the index of a move in the history table
+     * @param board The board the move is played on
+     * @param move The encoded move
+     * @return The piece index of the moving piece * 64 + the destination square
+     */
+    private static int getHistoryIndex(Board board, int move)
+    {
+        return board.getSquares()[Move.getFrom(move)] * 64 + Move.getTo(move);
+    }
+}
@@ -0,0 +1,169 @@
+package org.jchess.engine;
+
+import org.jchess.control.MoveManager;
+import org.jchess.model.Board;
+import org.jchess.model.Move;
+import org.jchess.model.MoveGenerationType;
+import org.jchess.model.MoveList;
+
+/**
+ * Hands out the legal moves of a position one at a time, the best scored of the remaining moves first (see {@link MoveOrdering})
+ * <p>
+ * The moves are generated in stages: the captures and promotions first, the quiet moves only once all captures were handed out.
+ * Most positions are cut off by the move from the transposition table or a capture, so their quiet moves are never generated.
+ * If the move from the transposition table is a quiet move, both stages are generated right away so it can come first.
+ * The next move is picked by searching the remaining moves for the highest score, so the list is never sorted as a whole
+ * <p>
+ * A picker is reused for every position of its ply, so picking moves does not allocate memory
+ */
+public class MovePicker
+{
+    private final MoveOrdering moveOrdering; // scores the moves
+    private final MoveList moveList = new MoveList(); // the generated moves, the ones before index were handed out in that order
+    private int[] scores = new int[256]; // the score of every move of the list
+    private Board board;
+    private int ply;
+    private int index; // the index of the next move to hand out
+    private boolean areQuietsGenerated; // were the quiet moves added yet, or are they not wanted at all
+
+    /**
+     * Create a picker
+     * @param moveOrdering The ordering that scores the moves
+     */
+    public MovePicker(MoveOrdering moveOrdering)
+    {
+        this.moveOrdering = moveOrdering;
+    }
+
+    /**
+     * Starts handing out the moves of a position
+     * @param board The board, it has to stay at this position until the last move was picked. Moves may be played and taken back in between
+     * @param ply How many plies the position is away from the root, used for the killer moves
+     * @param hashMove The move stored in the transposition table that comes first, <i>Move.NONE</i> if there is none
+     * @param isCapturesOnly <i>true</i> if only captures and promotions should be handed out
+     */
+    public void reset(Board board, int ply, int hashMove, boolean isCapturesOnly)
+    {
+        this.board = board;
+        this.ply = ply;
+        this.index = 0;
+        this.moveList.clear();
+
+        MoveManager.generateLegalMoves(board, this.moveList, MoveGenerationType.CAPTURES);
+        this.scoreMoves(0, hashMove);
+        this.areQuietsGenerated = isCapturesOnly;
+
+        if (!isCapturesOnly && hashMove != Move.NONE && !Move.isCapture(hashMove) && !Move.isPromotion(hashMove))
+        {
+            this.generateQuiets(hashMove);
+        }
+    }
+
+    /**
+     * Hands out the best scored move of the ones that are left
+     * @return The encoded move, <i>Move.NONE</i> if all moves were handed out
+     */
+    public int next()
+    {
+        if (this.index == this.moveList.size() && !this.areQuietsGenerated)
+        {
+            this.generateQuiets(Move.NONE);
+        }
+
+        if (this.index == this.moveList.size())
+        {
+            return Move.NONE;
+        }
+
+        int bestIndex = this.index;
+
+        for (int i = this.index + 1; i < this.moveList.size(); i ++)
+        {
+            if (this.scores[i] > this.scores[bestIndex])
+            {
+                bestIndex = i;
+            }
+        }
+
+        int move = this.moveList.get(bestIndex);
+
+        if (bestIndex != this.index)
+        {
+            int score = this.scores[bestIndex];
+
+            this.moveList.set(bestIndex, this.moveList.get(this.index));
+            this.scores[bestIndex] = this.scores[this.index];
+            this.moveList.set(this.index, move);
+            this.scores[this.index] = score;
+        }
+
+        this.index ++;
+
+        return move;
+    }
+
+    /**
+     * Gets the moves that were handed out so far, in the order they were handed out
+     * @return The list, only the first <i>getPickedCount()</i> moves are the ones handed out
+     */
+    public MoveList getMoveList()
+    {
+        return this.moveList;
+    }
+
+    /**
+     * Gets how many moves were handed out so far
+     * @return The number of moves
+     */
+    public int getPickedCount()
+    {
+        return this.index;
+    }
+
+    /**
+     * Adds the quiet moves behind the moves that are already in the list
+     * @param hashMove The move stored in the transposition table, <i>Move.NONE</i> if there is none
+     */
+    private void generateQuiets(int hashMove)
+    {
+        int start = this.moveList.size();
+
+        MoveManager.generateLegalMoves(this.board, this.moveList, MoveGenerationType.QUIETS);
+        this.scoreMoves(start, hashMove);
+        this.areQuietsGenerated = true;
+    }
+
+    /**
+     * Gives the moves of the list from an index on their scores
+     * @param start The index of the first move that should be scored
+     * @param hashMove The move stored in the transposition table, <i>Move.NONE</i> if there is none
+     */
+    private void scoreMoves(int start, int hashMove)
+    {
+        if (this.scores.length < this.moveList.size())
+        {
+            int[] scores = new int[this.moveList.getMoves().length];
+
+            System.arraycopy(this.scores, 0, scores, 0, start);
+            this.scores = scores;
+        }
+
+        for (int i = start; i < this.moveList.size(); i ++)
+        {
+            int move = this.moveList.get(i);
+
+            if (move == hashMove)
+            {
+                this.scores[i] = MoveOrdering.HASH_MOVE_SCORE;
+            }
+            else if (Move.isCapture(move) || Move.isPromotion(move))
+            {
+                this.scores[i] = MoveOrdering.getCaptureScore(this.board, move);
+            }
+            else
+            {
+                this.scores[i] = this.moveOrdering.getQuietScore(this.board, move, this.ply);
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.jchess.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.jchess.model.Board;
+
+/**
+ * Searches a position with several threads at once (Lazy SMP)
+ * Every thread runs its own {@link Search} on its own copy of the board, and all of them share one {@link TranspositionTable}.
+ * The helper threads skip some depths, each in its own pattern, so they fill the table with positions the main thread needs a moment later
+ * instead of all searching the same depth
+ * <p>
+ * Only the main thread runs on the time and node limits, the helpers search until the main thread is done or they reach the depth limit. The result of the thread that completed the deepest iteration is returned.
+ * The helper threads are started once and reused by every search, {@link #shutdown()} ends them
+ */
+public class ParallelSearch
+{
+    private final TranspositionTable transpositionTable;
+    private final Search[] searches; // the search of the main thread followed by one search per helper thread
+    private final ExecutorService helperPool; // the helper threads, null if there are none
+
+    /**
+     * Create a parallel search that uses its own 64 MB transposition table
+     * @param threadCount How many threads should search, including the calling thread
+     */
+    public ParallelSearch(int threadCount)
+    {
+        this(threadCount, new TranspositionTable(64));
+    }
+
+    /**
+     * Create a parallel search
+     * @param threadCount How many threads should search, including the calling thread
+     * @param transpositionTable The table shared by all threads
+     */
+    public ParallelSearch(int threadCount, TranspositionTable transpositionTable)
+    {
+        this.transpositionTable = transpositionTable;
+        this.searches = new Search[Math.max(1, threadCount)];
+
+        for (int i = 0; i < this.searches.length; i ++)
+        {
+            this.searches[i] = new Search(transpositionTable);
+        }
+
+        if (this.searches.length > 1)
+        {
+            this.helperPool = Executors.newFixedThreadPool(this.searches.length - 1, runnable ->
+            {
+                Thread thread = new Thread(runnable, "jchess-search-helper");
+
+                // A helper that is not shut down must not keep the program running
+                thread.setDaemon(true);
+
+                return thread;
+            });
+        }
+        else
+        {
+            this.helperPool = null;
+        }
+    }
+
+    /**
+     * Searches a board for the best move of the side to move. The main search runs on the calling thread
+     * A helper that fails is left out of the result, only a failure of the main search is thrown
+     * @param board The board to search, it is left unchanged
+     * @param limits When the search has to stop
+     * @return The result of the thread that completed the deepest iteration, the node count is the total of all threads
+     */
+    public SearchResult search(Board board, SearchLimits limits)
+    {
+        List<Future<SearchResult>> helpers = new ArrayList<>(this.searches.length - 1);
+        // A helper must not report a deeper iteration than the main thread was allowed to search
+        SearchLimits helperLimits = new SearchLimits(limits.getDepth(), SearchLimits.NO_LIMIT, SearchLimits.NO_LIMIT);
+        SearchResult mainResult;
+        SearchResult bestResult;
+        long nodes;
+
+        this.transpositionTable.newSearch();
+
+        for (Search search : this.searches)
+        {
+            search.resume();
+        }
+
+        for (int i = 1; i < this.searches.length; i ++)
+        {
+            int index = i;
+
+            helpers.add(this.helperPool.submit(() -> this.searches[index].search(board, helperLimits, index)));
+        }
+
+        try
+        {
+            mainResult = this.searches[0].search(board, limits, 0);
+        }
+        finally
+        {
+            // Even if the main search failed, the helpers must not keep searching
+            for (int i = 1; i < this.searches.length; i ++)
+            {
+                this.searches[i].stop();
+            }
+        }
+
+        bestResult = mainResult;
+        nodes = mainResult.getNodes();
+
+        for (Future<SearchResult> helper : helpers)
+        {
+            SearchResult result = ParallelSearch.getResult(helper);
+
+            if (result == null)
+            {
+                continue;
+            }
+
+            nodes += result.getNodes();
+
+            if (result.getDepth() > bestResult.getDepth())
+            {
+                bestResult = result;
+            }
+        }
+
+        return new SearchResult(bestResult.getBestMove(), bestResult.getScore(), bestResult.getDepth(), nodes, mainResult.getTime(), bestResult.getPrincipalVariation());
+    }
+
+    /**
+     * Stops a running search as soon as possible
+     */
+    public void stop()
+    {
+        for (Search search : this.searches)
+        {
+            search.stop();
+        }
+    }
+
+    /**
+     * Ends the helper threads once a running search is done, the instance cannot be used to search afterwards
+     */
+    public void shutdown()
+    {
+        if (this.helperPool != null)
+        {
+            this.helperPool.shutdown();
+        }
+    }
+
+    /**
+     * Sets the listener that is called after every iteration of the main thread
+     * @param iterationListener The listener, can be null
+     */
+    public void setIterationListener(Consumer<SearchResult> iterationListener)
+    {
+        this.searches[0].setIterationListener(iterationListener);
+    }
+
+    public int getThreadCount()
+    {
+        return this.searches.length;
+    }
+
+    public TranspositionTable getTranspositionTable()
+    {
+        return transpositionTable;
+    }
+
+    /**
+     * Waits for a helper to finish, even if the waiting thread gets interrupted
+     * @param helper The search of the helper
+     * @return The result of the helper, null if it failed
+     */
+    private static SearchResult getResult(Future<SearchResult> helper)
+    {
+        SearchResult result = null;
+        boolean isInterrupted = false;
+        boolean isDone = false;
+
+        while (!isDone)
+        {
+            try
+            {
+                result = helper.get();
+                isDone = true;
+            }
+            catch (InterruptedException exception)
+            {
+                isInterrupted = true;
+            }
+            catch (ExecutionException exception)
+            {
+                isDone = true;
+            }
+        }
+
+        if (isInterrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        return result;
+    }
+}
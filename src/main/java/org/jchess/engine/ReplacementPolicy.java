@@ -0,0 +1,23 @@
+package org.jchess.engine;
+
+/**
+ * This enum decides which entry of a transposition table bucket is overwritten when a new position is stored
+ * Every bucket holds two entries, an entry of the same position is always updated in place
+ */
+public enum ReplacementPolicy
+{
+    /**
+     * The first entry only takes positions searched at least as deep as the one it holds, everything else goes into the second entry
+     */
+    DEPTH_PREFERRED_AND_ALWAYS_REPLACE,
+
+    /**
+     * The shallower entry is replaced, but only by a position searched at least as deep. Entries of older searches are always replaced
+     */
+    DEPTH_PREFERRED,
+
+    /**
+     * The shallower entry is always replaced
+     */
+    ALWAYS_REPLACE
+}
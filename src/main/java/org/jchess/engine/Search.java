@@ -0,0 +1,576 @@
+package org.jchess.engine;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.EvaluationManager;
+import org.jchess.control.MoveManager;
+import org.jchess.model.Board;
+import org.jchess.model.Move;
+import org.jchess.model.MoveList;
+import org.jchess.model.UndoStack;
+
+/**
+ * Finds the best move of a position with a negamax alpha-beta search
+ * The search deepens iteratively, one ply at a time, until a limit is reached (see {@link SearchLimits}). The result of the last completed iteration is returned,
+ * so a search that is stopped early still has a move to play. Positions that were already searched are remembered in a {@link TranspositionTable}
+ * <p>
+ * A search can be stopped from another thread through {@link #stop()}, but a single instance can only run one search at a time
+ */
+public class Search
+{
+    public static final int MATE_SCORE = 32000; // the score of mating right now, a mate in n plies scores MATE_SCORE - n
+    public static final int INFINITE_SCORE = 32500; // higher than any real score
+    public static final int MAX_PLY = 128; // the deepest ply the search can reach
+
+    private static final int CHECK_INTERVAL = 2047; // how many nodes are visited between two checks of the limits
+    // The helper threads of a parallel search skip iterations in different patterns, so they do not all search the same depth at the same time.
+    // Helper n skips depth d if (d + SKIP_PHASES[i]) / SKIP_SIZES[i] is odd, with i = (n - 1) % 20
+    private static final int[] SKIP_SIZES = { 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4 };
+    private static final int[] SKIP_PHASES = { 0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7 };
+
+    private final TranspositionTable transpositionTable;
+    private Consumer<SearchResult> iterationListener; // called after every completed iteration, can be null
+
+    private volatile boolean isStopped = false;
+    private boolean isFirstIterationDone; // a stop is only obeyed once there is a searched move to return
+
+    private Board board; // the copy of the board that is searched
+    private SearchLimits limits;
+    private long startTime; // when the search started in nanoseconds
+    private long nodes; // how many positions were visited so far
+
+    private final MoveOrdering moveOrdering = new MoveOrdering(); // the killer moves and the history of this search
+    private final MovePicker[] movePickers = new MovePicker[MAX_PLY + 1]; // one picker per ply, so searching does not allocate memory
+    private final int[][] principalVariations = new int[MAX_PLY + 1][MAX_PLY + 1]; // the best line found below every ply
+    private final int[] principalVariationLengths = new int[MAX_PLY + 1];
+
+    private long[] keyHistory = new long[0]; // the Zobrist keys of all positions of the game and the current line, used to find repetitions
+    private int gameLength; // how many keys of the history belong to the game before the search
+
+    /**
+     * Create a search that uses its own 16 MB transposition table
+     */
+    public Search()
+    {
+        this(new TranspositionTable(16));
+    }
+
+    /**
+     * Create a search
+     * @param transpositionTable The table used to remember searched positions, it can be shared with other searches
+     */
+    public Search(TranspositionTable transpositionTable)
+    {
+        this.transpositionTable = transpositionTable;
+
+        for (int i = 0; i <= MAX_PLY; i ++)
+        {
+            this.movePickers[i] = new MovePicker(this.moveOrdering);
+        }
+    }
+
+    /**
+     * Searches a board for the best move of the side to move
+     * @param board The board to search, it is left unchanged
+     * @param limits When the search has to stop
+     * @return The result of the last completed iteration
+     */
+    public SearchResult search(Board board, SearchLimits limits)
+    {
+        this.isStopped = false;
+        this.transpositionTable.newSearch();
+
+        return this.search(board, limits, 0);
+    }
+
+    /**
+     * Searches a board for the best move of the side to move, without starting a new search in the transposition table
+     * A call to {@link #stop()} made before is kept, so a helper of a {@link ParallelSearch} that is stopped before it started returns after its first iteration.
+     * The first iteration is always completed, so the returned move was searched and not just the first legal move
+     * @param board The board to search, it is only read
+     * @param limits When the search has to stop
+     * @param threadIndex 0 for the main thread, which searches every depth. The helpers, numbered from 1, skip some depths (see {@link #isDepthSkipped(int, int)})
+     * @return The result of the last completed iteration
+     */
+    SearchResult search(Board board, SearchLimits limits, int threadIndex)
+    {
+        MoveList rootMoves = new MoveList();
+        SearchResult result = null;
+        int maxDepth = limits.getDepth() == SearchLimits.NO_LIMIT ? MAX_PLY - 1 : Math.max(1, Math.min(limits.getDepth(), MAX_PLY - 1));
+
+        this.board = BoardManager.copyBoard(board);
+        this.limits = limits;
+        this.startTime = System.nanoTime();
+        this.nodes = 0;
+        this.isFirstIterationDone = false;
+        this.moveOrdering.clear();
+        this.initializeKeyHistory(board);
+
+        MoveManager.generateLegalMoves(this.board, rootMoves);
+
+        // Without legal moves the game is over, there is nothing to search
+        if (rootMoves.size() == 0)
+        {
+            return new SearchResult(Move.NONE, MoveManager.isKingInCheck(this.board, this.board.getPlayingSideColor()) ? -MATE_SCORE : 0, 0, 0, 0, new int[0]);
+        }
+
+        for (int depth = 1; depth <= maxDepth; depth ++)
+        {
+            int score;
+
+            // The deepest allowed iteration is never skipped, so there is always a result
+            if (depth < maxDepth && Search.isDepthSkipped(threadIndex, depth))
+            {
+                continue;
+            }
+
+            score = this.negamax(depth, 0, -INFINITE_SCORE, INFINITE_SCORE);
+
+            if (this.isStopping())
+            {
+                break;
+            }
+
+            result = new SearchResult(this.principalVariations[0][0], score, depth, this.nodes, System.nanoTime() - this.startTime,
+                this.completePrincipalVariation(Arrays.copyOf(this.principalVariations[0], this.principalVariationLengths[0])));
+            this.isFirstIterationDone = true;
+
+            if (this.iterationListener != null)
+            {
+                this.iterationListener.accept(result);
+            }
+
+            // A mate that was found will not get any shorter in a deeper iteration
+            if (result.isMateScore() && Math.abs(result.getMateInMoves()) * 2 <= depth)
+            {
+                break;
+            }
+
+            // The next iteration would take longer than all previous ones together, so it could not finish anyway
+            if (limits.getTime() != SearchLimits.NO_LIMIT && this.getElapsedMilliseconds() * 2 > limits.getTime())
+            {
+                break;
+            }
+        }
+
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), this.nodes, System.nanoTime() - this.startTime, result.getPrincipalVariation());
+    }
+
+    /**
+     * Stops a running search as soon as possible. The search still returns the result of its last completed iteration
+     */
+    public void stop()
+    {
+        this.isStopped = true;
+    }
+
+    /**
+     * Allows the search to run again after it was stopped
+     */
+    void resume()
+    {
+        this.isStopped = false;
+    }
+
+    public TranspositionTable getTranspositionTable()
+    {
+        return transpositionTable;
+    }
+
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    public void setIterationListener(Consumer<SearchResult> iterationListener)
+    {
+        this.iterationListener = iterationListener;
+    }
+
+    /**
+     * Checks if a thread of a parallel search skips an iteration
+     * @param threadIndex The index of the thread, 0 for the main thread
+     * @param depth The depth of the iteration
+     * @return <i>true</i> if the thread does not search the depth, <i>false</i> otherwise
+     */
+    static boolean isDepthSkipped(int threadIndex, int depth)
+    {
+        if (threadIndex == 0)
+        {
+            return false;
+        }
+
+        int i = (threadIndex - 1) % SKIP_SIZES.length;
+
+        return (depth + SKIP_PHASES[i]) / SKIP_SIZES[i] % 2 != 0;
+    }
+
+    /**
+     * Searches the current position of the board
+     * @param depth How many plies are left to search
+     * @param ply How many plies the position is away from the root
+     * @param alpha The score the side to move is already guaranteed
+     * @param beta The score the opponent is already guaranteed, from the point of view of the side to move
+     * @return The score of the position from the point of view of the side to move
+     */
+    private int negamax(int depth, int ply, int alpha, int beta)
+    {
+        long key = this.board.getZobristKey();
+        boolean isInCheck;
+        long entry;
+        int hashMove = Move.NONE;
+        int originalAlpha = alpha;
+        int bestScore = -INFINITE_SCORE;
+        int bestMove = Move.NONE;
+        MovePicker movePicker = this.movePickers[ply];
+        int move;
+
+        this.principalVariationLengths[ply] = ply;
+
+        if (ply > 0 && this.isRepetition(ply))
+        {
+            return 0;
+        }
+
+        isInCheck = MoveManager.isKingInCheck(this.board, this.board.getPlayingSideColor());
+
+        // Do not stop searching while in check, so the search does not miss mates
+        if (isInCheck && ply < MAX_PLY / 2)
+        {
+            depth ++;
+        }
+
+        if (depth <= 0 || ply >= MAX_PLY - 1)
+        {
+            return this.quiescence(ply, alpha, beta);
+        }
+
+        if (this.countNode())
+        {
+            return 0;
+        }
+
+        entry = this.transpositionTable.probe(key);
+
+        if (entry != 0)
+        {
+            hashMove = TranspositionTable.getMove(entry);
+
+            if (ply > 0 && TranspositionTable.getDepth(entry) >= depth)
+            {
+                int score = Search.getScoreFromTable(TranspositionTable.getScore(entry), ply);
+                int bound = TranspositionTable.getBound(entry);
+
+                if (bound == TranspositionTable.BOUND_EXACT
+                    || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                    || (bound == TranspositionTable.BOUND_UPPER && score <= alpha))
+                {
+                    return score;
+                }
+            }
+        }
+
+        movePicker.reset(this.board, ply, hashMove, false);
+
+        while ((move = movePicker.next()) != Move.NONE)
+        {
+            int score;
+
+            this.makeMove(move, ply);
+            score = -this.negamax(depth - 1, ply + 1, -beta, -alpha);
+            BoardManager.unmakeMove(this.board);
+
+            if (this.isStopping())
+            {
+                return 0;
+            }
+
+            if (score > bestScore)
+            {
+                bestScore = score;
+                bestMove = move;
+
+                if (score > alpha)
+                {
+                    alpha = score;
+                    this.updatePrincipalVariation(ply, move);
+
+                    if (alpha >= beta)
+                    {
+                        if (!Move.isCapture(move) && !Move.isPromotion(move))
+                        {
+                            this.moveOrdering.addCutoff(this.board, movePicker.getMoveList(), movePicker.getPickedCount(), ply, depth);
+                        }
+
+                        break;
+                    }
+                }
+            }
+        }
+
+        // Without legal moves the game is over
+        if (movePicker.getPickedCount() == 0)
+        {
+            return isInCheck ? -MATE_SCORE + ply : 0;
+        }
+
+        this.transpositionTable.store(key, bestMove, Search.getScoreForTable(bestScore, ply), depth,
+            bestScore >= beta ? TranspositionTable.BOUND_LOWER : (bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER));
+
+        return bestScore;
+    }
+
+    /**
+     * Searches only captures and promotions until the position is quiet, so the evaluation is not done in the middle of an exchange
+     * @param ply How many plies the position is away from the root
+     * @param alpha The score the side to move is already guaranteed
+     * @param beta The score the opponent is already guaranteed, from the point of view of the side to move
+     * @return The score of the position from the point of view of the side to move
+     */
+    private int quiescence(int ply, int alpha, int beta)
+    {
+        int standPat;
+        MovePicker movePicker = this.movePickers[ply];
+        int move;
+
+        this.principalVariationLengths[ply] = ply;
+
+        if (this.countNode())
+        {
+            return 0;
+        }
+
+        standPat = EvaluationManager.evaluate(this.board);
+
+        if (standPat >= beta || ply >= MAX_PLY - 1)
+        {
+            return standPat;
+        }
+
+        alpha = Math.max(alpha, standPat);
+
+        movePicker.reset(this.board, ply, Move.NONE, true);
+
+        while ((move = movePicker.next()) != Move.NONE)
+        {
+            int score;
+
+            this.makeMove(move, ply);
+            score = -this.quiescence(ply + 1, -beta, -alpha);
+            BoardManager.unmakeMove(this.board);
+
+            if (this.isStopping())
+            {
+                return 0;
+            }
+
+            if (score > alpha)
+            {
+                alpha = score;
+                this.updatePrincipalVariation(ply, move);
+
+                if (alpha >= beta)
+                {
+                    break;
+                }
+            }
+        }
+
+        return alpha;
+    }
+
+    /**
+     * Counts a visited position and checks the limits every few positions
+     * @return <i>true</i> if the search has to stop, <i>false</i> otherwise
+     */
+    private boolean countNode()
+    {
+        this.nodes ++;
+
+        if ((this.nodes & CHECK_INTERVAL) == 0)
+        {
+            if ((this.limits.getNodes() != SearchLimits.NO_LIMIT && this.nodes >= this.limits.getNodes())
+                || (this.limits.getTime() != SearchLimits.NO_LIMIT && this.getElapsedMilliseconds() >= this.limits.getTime()))
+            {
+                this.isStopped = true;
+            }
+        }
+
+        return this.isStopping();
+    }
+
+    /**
+     * Checks if the search has to return. A stop is ignored until the first iteration completed
+     * @return <i>true</i> if the search has to stop, <i>false</i> otherwise
+     */
+    private boolean isStopping()
+    {
+        return this.isStopped && this.isFirstIterationDone;
+    }
+
+    /**
+     * Plays a move on the searched board and remembers the key of the new position
+     * @param move The encoded move
+     * @param ply The ply the move is played from
+     */
+    private void makeMove(int move, int ply)
+    {
+        BoardManager.makeMove(this.board, move);
+        this.keyHistory[this.gameLength + ply + 1] = this.board.getZobristKey();
+    }
+
+    /**
+     * Checks if the current position already appeared in the game or the current line
+     * Only every second position has the same side to move, so only those are compared
+     * @param ply How many plies the position is away from the root
+     * @return <i>true</i> if the position is a repetition, <i>false</i> otherwise
+     */
+    private boolean isRepetition(int ply)
+    {
+        int current = this.gameLength + ply;
+
+        for (int i = current - 2; i >= 0; i -= 2)
+        {
+            if (this.keyHistory[i] == this.keyHistory[current])
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Fills the key history with the positions the game went through before the search
+     * @param board The board that is searched, its undo stack holds the keys of the earlier positions
+     */
+    private void initializeKeyHistory(Board board)
+    {
+        UndoStack undoStack = board.getUndoStack();
+
+        this.gameLength = undoStack.getSize();
+
+        if (this.keyHistory.length < this.gameLength + MAX_PLY + 1)
+        {
+            this.keyHistory = new long[this.gameLength + MAX_PLY + 1];
+        }
+
+        for (int i = 0; i < this.gameLength; i ++)
+        {
+            this.keyHistory[i] = undoStack.getZobristKey(i);
+        }
+
+        this.keyHistory[this.gameLength] = board.getZobristKey();
+    }
+
+    /**
+     * Puts a move in front of the best line found below the next ply
+     * @param ply The ply the move is played from
+     * @param move The encoded move
+     */
+    private void updatePrincipalVariation(int ply, int move)
+    {
+        int childLength = this.principalVariationLengths[ply + 1];
+
+        this.principalVariations[ply][ply] = move;
+        System.arraycopy(this.principalVariations[ply + 1], ply + 1, this.principalVariations[ply], ply + 1, childLength - ply - 1);
+        this.principalVariationLengths[ply] = Math.max(childLength, ply + 1);
+    }
+
+    /**
+     * Extends the best line of an iteration with the moves stored in the transposition table
+     * A position below the root can be cut off by the table, the line found for it is not known then and the best line ends there.
+     * The line is continued as long as the table holds an exact score with a legal move for the next position and no position repeats
+     * @param principalVariation The best line found by the iteration
+     * @return The same line if it could not be extended, a longer copy otherwise
+     */
+    private int[] completePrincipalVariation(int[] principalVariation)
+    {
+        int[] line = Arrays.copyOf(principalVariation, MAX_PLY);
+        int length = principalVariation.length;
+        MoveList moveList = new MoveList();
+
+        for (int i = 0; i < length; i ++)
+        {
+            this.makeMove(line[i], i);
+        }
+
+        while (length < MAX_PLY - 1 && !this.isRepetition(length))
+        {
+            long entry = this.transpositionTable.probe(this.board.getZobristKey());
+            int move = TranspositionTable.getMove(entry);
+
+            if (entry == 0 || TranspositionTable.getBound(entry) != TranspositionTable.BOUND_EXACT || move == Move.NONE)
+            {
+                break;
+            }
+
+            moveList.clear();
+            MoveManager.generateLegalMoves(this.board, moveList);
+
+            if (!moveList.contains(move))
+            {
+                break;
+            }
+
+            this.makeMove(move, length);
+            line[length ++] = move;
+        }
+
+        for (int i = 0; i < length; i ++)
+        {
+            BoardManager.unmakeMove(this.board);
+        }
+
+        return length == principalVariation.length ? principalVariation : Arrays.copyOf(line, length);
+    }
+
+    private long getElapsedMilliseconds()
+    {
+        return (System.nanoTime() - this.startTime) / 1000000;
+    }
+
+    /**
+     * Converts a mate score so it counts the plies from the stored position instead of from the root
+     * @param score The score relative to the root
+     * @param ply How many plies the position is away from the root
+     * @return The score relative to the position
+     */
+    private static int getScoreForTable(int score, int ply)
+    {
+        if (score >= MATE_SCORE - MAX_PLY)
+        {
+            return score + ply;
+        }
+
+        if (score <= -MATE_SCORE + MAX_PLY)
+        {
+            return score - ply;
+        }
+
+        return score;
+    }
+
+    /**
+     * Converts a stored mate score so it counts the plies from the root again
+     * @param score The score relative to the stored position
+     * @param ply How many plies the position is away from the root
+     * @return The score relative to the root
+     */
+    private static int getScoreFromTable(int score, int ply)
+    {
+        if (score >= MATE_SCORE - MAX_PLY)
+        {
+            return score - ply;
+        }
+
+        if (score <= -MATE_SCORE + MAX_PLY)
+        {
+            return score + ply;
+        }
+
+        return score;
+    }
+}
@@ -0,0 +1,65 @@
+package org.jchess.engine;
+
+/**
+ * Describes when a search has to stop. A search stops as soon as any of the limits is reached
+ * Limits that are not set do not restrict the search, but at least one of them should be set
+ */
+public class SearchLimits
+{
+    public static final int NO_LIMIT = 0;
+
+    private int depth = NO_LIMIT; // the deepest iteration that is searched
+    private long time = NO_LIMIT; // how many milliseconds the search may take
+    private long nodes = NO_LIMIT; // how many positions may be visited
+
+    /**
+     * Create limits that do not restrict the search
+     */
+    public SearchLimits()
+    {
+
+    }
+
+    /**
+     * Create limits for a search
+     * @param depth The deepest iteration that is searched, <i>NO_LIMIT</i> to not limit the depth
+     * @param time How many milliseconds the search may take, <i>NO_LIMIT</i> to not limit the time
+     * @param nodes How many positions may be visited, <i>NO_LIMIT</i> to not limit the nodes
+     */
+    public SearchLimits(int depth, long time, long nodes)
+    {
+        this.setDepth(depth);
+        this.setTime(time);
+        this.setNodes(nodes);
+    }
+
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    public long getTime()
+    {
+        return time;
+    }
+
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    public void setDepth(int depth)
+    {
+        this.depth = depth;
+    }
+
+    public void setTime(long time)
+    {
+        this.time = time;
+    }
+
+    public void setNodes(long nodes)
+    {
+        this.nodes = nodes;
+    }
+}
@@ -0,0 +1,114 @@
+package org.jchess.engine;
+
+import org.jchess.model.Move;
+
+/**
+ * This class contains the outcome of a search, or of one of its iterations
+ */
+public class SearchResult
+{
+    private int bestMove = Move.NONE; // the encoded move the search considers best, Move.NONE if there are no legal moves
+    private int score; // the score in centipawns from the point of view of the side to move
+    private int depth; // the depth of the last completed iteration
+    private long nodes; // how many positions were visited
+    private long time; // how many nanoseconds the search took
+    private int[] principalVariation = new int[0]; // the moves both sides are expected to play
+
+    /**
+     * Create a search result
+     * @param bestMove The encoded best move
+     * @param score The score from the point of view of the side to move
+     * @param depth The depth of the last completed iteration
+     * @param nodes How many positions were visited
+     * @param time How many nanoseconds the search took
+     * @param principalVariation The encoded moves both sides are expected to play
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long time, int[] principalVariation)
+    {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.time = time;
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     * Checks if the score announces a forced mate
+     * @return <i>true</i> if one side can force mate, <i>false</i> otherwise
+     */
+    public boolean isMateScore()
+    {
+        return Math.abs(this.score) >= Search.MATE_SCORE - Search.MAX_PLY;
+    }
+
+    /**
+     * Gets in how many moves the mate happens
+     * @return The number of moves until mate, negative if the side to move gets mated, 0 if the score is no mate score
+     */
+    public int getMateInMoves()
+    {
+        if (!this.isMateScore())
+        {
+            return 0;
+        }
+
+        return this.score > 0 ? (Search.MATE_SCORE - this.score + 1) / 2 : -(Search.MATE_SCORE + this.score) / 2;
+    }
+
+    /**
+     * Gets the principal variation in UCI notation
+     * @return The moves separated by spaces (i.e. "e2e4 e7e5 g1f3")
+     */
+    public String getPrincipalVariationString()
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < this.principalVariation.length; i ++)
+        {
+            if (i > 0)
+            {
+                builder.append(' ');
+            }
+
+            builder.append(Move.toUCIString(this.principalVariation[i]));
+        }
+
+        return builder.toString();
+    }
+
+    public long getNodesPerSecond()
+    {
+        return this.time == 0 ? 0 : this.nodes * 1000000000L / this.time;
+    }
+
+    public int getBestMove()
+    {
+        return bestMove;
+    }
+
+    public int getScore()
+    {
+        return score;
+    }
+
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    public long getTime()
+    {
+        return time;
+    }
+
+    public int[] getPrincipalVariation()
+    {
+        return principalVariation;
+    }
+}
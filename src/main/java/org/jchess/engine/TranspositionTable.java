@@ -0,0 +1,334 @@
+package org.jchess.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jchess.exceptions.InvalidTableSizeException;
+import org.jchess.model.Board;
+
+/**
+ * A fixed size hash table that remembers the results of positions that were already searched, so transpositions do not have to be searched again
+ * Positions are identified by their Zobrist key (see {@link Board#getZobristKey()}). The table consists of a power of two number of buckets with two entries each,
+ * which entry is overwritten is decided by the {@link ReplacementPolicy}
+ * <p>
+ * The table can be shared by several threads without locks. Every entry is stored as two <i>long</i> values, the data and the key combined with the data through XOR.
+ * If two threads write the same entry at once, the key no longer matches when it is read and the entry is treated as a miss
+ * <p>
+ * The data of an entry packs the move (bits 0-18), the score (bits 19-34), the depth (bits 35-42), the bound (bits 43-44) and the generation (bits 45-52) into one <i>long</i>
+ */
+public class TranspositionTable
+{
+    public static final int MAX_SIZE_IN_MB = 16384; // the arrays of a larger table could not be indexed by an int
+
+    public static final int BOUND_UPPER = 1; // the score is at most the stored value
+    public static final int BOUND_LOWER = 2; // the score is at least the stored value
+    public static final int BOUND_EXACT = 3; // the score is exactly the stored value
+
+    private static final int BYTES_PER_BUCKET = 32; // two entries of two longs
+
+    private final long[] checks; // the key XOR the data of every entry
+    private final long[] data; // the packed data of every entry, 0 if the entry is empty
+    private final long bucketMask; // the number of buckets - 1, used to get the bucket of a key
+    private final int sizeInMB;
+    private final ReplacementPolicy replacementPolicy;
+
+    private int generation = 0; // increased with every search, entries of older searches are replaced first
+
+    private final LongAdder hits = new LongAdder(); // probes that found the position
+    private final LongAdder misses = new LongAdder(); // probes that did not find the position
+    private final LongAdder collisions = new LongAdder(); // stores that overwrote a different position
+
+    /**
+     * Create a transposition table that replaces entries with {@link ReplacementPolicy#DEPTH_PREFERRED_AND_ALWAYS_REPLACE}
+     * @param sizeInMB How much memory the table may use, it is rounded down to a power of two
+     */
+    public TranspositionTable(int sizeInMB)
+    {
+        this(sizeInMB, ReplacementPolicy.DEPTH_PREFERRED_AND_ALWAYS_REPLACE);
+    }
+
+    /**
+     * Create a transposition table
+     * @param sizeInMB How much memory the table may use, it is rounded down to a power of two
+     * @param replacementPolicy Which entry of a bucket is overwritten when a new position is stored
+     */
+    public TranspositionTable(int sizeInMB, ReplacementPolicy replacementPolicy)
+    {
+        long buckets;
+
+        if (sizeInMB < 1 || sizeInMB > MAX_SIZE_IN_MB)
+        {
+            throw new InvalidTableSizeException();
+        }
+
+        buckets = Long.highestOneBit(((long) sizeInMB << 20) / BYTES_PER_BUCKET);
+
+        this.checks = new long[(int) (buckets * 2)];
+        this.data = new long[(int) (buckets * 2)];
+        this.bucketMask = buckets - 1;
+        this.sizeInMB = (int) (buckets * BYTES_PER_BUCKET >>> 20);
+        this.replacementPolicy = replacementPolicy;
+    }
+
+    /**
+     * Looks up a position
+     * @param key The Zobrist key of the position
+     * @return The packed data of the entry, 0 if the position is not in the table. It can be read through the static <i>get</i> methods
+     */
+    public long probe(long key)
+    {
+        int index = (int) (key & this.bucketMask) << 1;
+
+        for (int i = index; i < index + 2; i ++)
+        {
+            long entryData = this.data[i];
+
+            if (entryData != 0 && (this.checks[i] ^ entryData) == key)
+            {
+                this.hits.increment();
+                return entryData;
+            }
+        }
+
+        this.misses.increment();
+
+        return 0;
+    }
+
+    /**
+     * Looks up the current position of a board
+     * @param board The board to look up
+     * @return The packed data of the entry, 0 if the position is not in the table
+     */
+    public long probe(Board board)
+    {
+        return this.probe(board.getZobristKey());
+    }
+
+    /**
+     * Stores the result of a position
+     * @param key The Zobrist key of the position
+     * @param move The best encoded move, <i>Move.NONE</i> if there is none
+     * @param score The score of the position, between -32768 and 32767
+     * @param depth How deep the position was searched, between 0 and 255
+     * @param bound One of the <i>BOUND_</i> constants
+     */
+    public void store(long key, int move, int score, int depth, int bound)
+    {
+        int index = (int) (key & this.bucketMask) << 1;
+        long newData = TranspositionTable.pack(move, score, depth, bound, this.generation);
+        int replacedIndex;
+
+        // The same position is always updated in place, so it does not end up in the bucket twice
+        for (int i = index; i < index + 2; i ++)
+        {
+            if (this.data[i] != 0 && (this.checks[i] ^ this.data[i]) == key)
+            {
+                this.write(i, key, newData);
+                return;
+            }
+        }
+
+        replacedIndex = this.getReplacedIndex(index, depth);
+
+        if (replacedIndex == -1)
+        {
+            return;
+        }
+
+        if (this.data[replacedIndex] != 0)
+        {
+            this.collisions.increment();
+        }
+
+        this.write(replacedIndex, key, newData);
+    }
+
+    /**
+     * Stores the result of the current position of a board
+     * @param board The board whose position was searched
+     * @param move The best encoded move, <i>Move.NONE</i> if there is none
+     * @param score The score of the position
+     * @param depth How deep the position was searched
+     * @param bound One of the <i>BOUND_</i> constants
+     */
+    public void store(Board board, int move, int score, int depth, int bound)
+    {
+        this.store(board.getZobristKey(), move, score, depth, bound);
+    }
+
+    /**
+     * Marks the start of a new search. Entries stored by earlier searches are kept, but replaced before any new entry
+     */
+    public void newSearch()
+    {
+        this.generation = (this.generation + 1) & 255;
+    }
+
+    /**
+     * Removes all entries and resets the counters
+     */
+    public void clear()
+    {
+        Arrays.fill(this.checks, 0L);
+        Arrays.fill(this.data, 0L);
+        this.generation = 0;
+        this.hits.reset();
+        this.misses.reset();
+        this.collisions.reset();
+    }
+
+    /**
+     * Estimates how full the table is by looking at the first entries
+     * @return How many of 1000 entries are used by the current search
+     */
+    public int getUsage()
+    {
+        int sampleSize = Math.min(1000, this.data.length);
+        int used = 0;
+
+        for (int i = 0; i < sampleSize; i ++)
+        {
+            if (this.data[i] != 0 && TranspositionTable.getGeneration(this.data[i]) == this.generation)
+            {
+                used ++;
+            }
+        }
+
+        return used * 1000 / sampleSize;
+    }
+
+    public static int getMove(long entryData)
+    {
+        return (int) (entryData & 0x7FFFF);
+    }
+
+    public static int getScore(long entryData)
+    {
+        return (short) (entryData >>> 19);
+    }
+
+    public static int getDepth(long entryData)
+    {
+        return (int) (entryData >>> 35) & 255;
+    }
+
+    public static int getBound(long entryData)
+    {
+        return (int) (entryData >>> 43) & 3;
+    }
+
+    public int getSizeInMB()
+    {
+        return this.sizeInMB;
+    }
+
+    public int getEntryCount()
+    {
+        return this.data.length;
+    }
+
+    public ReplacementPolicy getReplacementPolicy()
+    {
+        return this.replacementPolicy;
+    }
+
+    public long getHits()
+    {
+        return this.hits.sum();
+    }
+
+    public long getMisses()
+    {
+        return this.misses.sum();
+    }
+
+    public long getCollisions()
+    {
+        return this.collisions.sum();
+    }
+
+    /**
+     * Decides which entry of a bucket a new position is written to
+     * @param index The index of the first entry of the bucket
+     * @param depth The depth of the new position
+     * @return The index of the entry to overwrite, -1 if the new position should not be stored
+     */
+    private int getReplacedIndex(int index, int depth)
+    {
+        int shallowerIndex;
+
+        if (this.replacementPolicy == ReplacementPolicy.DEPTH_PREFERRED_AND_ALWAYS_REPLACE)
+        {
+            return this.isReplaceable(index, depth) ? index : index + 1;
+        }
+
+        // Empty entries and entries of older searches count as the shallowest
+        shallowerIndex = this.getReplacementDepth(index) <= this.getReplacementDepth(index + 1) ? index : index + 1;
+
+        if (this.replacementPolicy == ReplacementPolicy.ALWAYS_REPLACE || this.isReplaceable(shallowerIndex, depth))
+        {
+            return shallowerIndex;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Checks if an entry may be overwritten by a position of a given depth
+     * @param index The index of the entry
+     * @param depth The depth of the new position
+     * @return <i>true</i> if the entry is empty, from an older search or not deeper than the new position
+     */
+    private boolean isReplaceable(int index, int depth)
+    {
+        long entryData = this.data[index];
+
+        return entryData == 0
+            || TranspositionTable.getGeneration(entryData) != this.generation
+            || TranspositionTable.getDepth(entryData) <= depth;
+    }
+
+    /**
+     * Gets the depth of an entry as it is compared when picking the entry to replace
+     * @param index The index of the entry
+     * @return The depth of the entry, -1 if it is empty or from an older search
+     */
+    private int getReplacementDepth(int index)
+    {
+        long entryData = this.data[index];
+
+        if (entryData == 0 || TranspositionTable.getGeneration(entryData) != this.generation)
+        {
+            return -1;
+        }
+
+        return TranspositionTable.getDepth(entryData);
+    }
+
+    /**
+     * Writes an entry, the data is written first so a concurrent reader sees a mismatching key instead of wrong data
+     * @param index The index of the entry
+     * @param key The Zobrist key of the position
+     * @param entryData The packed data
+     */
+    private void write(int index, long key, long entryData)
+    {
+        this.data[index] = entryData;
+        this.checks[index] = key ^ entryData;
+    }
+
+    private static long pack(int move, int score, int depth, int bound, int generation)
+    {
+        return (move & 0x7FFFFL)
+            | ((score & 0xFFFFL) << 19)
+            | ((long) Math.max(0, Math.min(depth, 255)) << 35)
+            | ((long) bound << 43)
+            | ((long) generation << 45);
+    }
+
+    private static int getGeneration(long entryData)
+    {
+        return (int) (entryData >>> 45) & 255;
+    }
+}
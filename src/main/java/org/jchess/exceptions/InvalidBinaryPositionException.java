@@ -0,0 +1,14 @@
+package org.jchess.exceptions;
+
+import org.jchess.model.Strings;
+
+/**
+ * This exception is called when a binary position cannot be decoded or a board cannot be encoded
+ */
+public class InvalidBinaryPositionException extends RuntimeException
+{
+    public InvalidBinaryPositionException ()
+    {
+        super(Strings.INVALID_BINARY_POSITION);
+    }
+}
@@ -0,0 +1,14 @@
+package org.jchess.exceptions;
+
+import org.jchess.model.Strings;
+
+/**
+ * This exception is called when an opening book or the numbers its keys are computed from cannot be read
+ */
+public class InvalidBookException extends RuntimeException
+{
+    public InvalidBookException ()
+    {
+        super(Strings.INVALID_BOOK);
+    }
+}
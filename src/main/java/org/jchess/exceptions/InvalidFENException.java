@@ -7,8 +7,22 @@ import org.jchess.model.Strings;
  */
 public class InvalidFENException extends RuntimeException
 {
+    private final int offset; // the index of the first character that could not be read, -1 if it is not known
+
     public InvalidFENException ()
     {
         super(Strings.INVALID_FEN);
+        this.offset = -1;
+    }
+
+    public InvalidFENException (int offset)
+    {
+        super(Strings.INVALID_FEN + " (offset " + offset + ")");
+        this.offset = offset;
+    }
+
+    public int getOffset()
+    {
+        return this.offset;
     }
 }
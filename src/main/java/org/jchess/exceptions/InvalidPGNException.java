@@ -0,0 +1,41 @@
+package org.jchess.exceptions;
+
+import org.jchess.model.Strings;
+
+/**
+ * This exception is called when a game inside of a PGN file cannot be read or contains an illegal move
+ */
+public class InvalidPGNException extends RuntimeException
+{
+    private final long line; // the line of the PGN file the error was found on
+    private final boolean isIllegalMove; // was the move well-formed but not legal in the position?
+
+    public InvalidPGNException (long line)
+    {
+        super(Strings.INVALID_PGN + " (line " + line + ")");
+        this.line = line;
+        this.isIllegalMove = false;
+    }
+
+    public InvalidPGNException (long line, Throwable cause)
+    {
+        this(line, false, cause);
+    }
+
+    public InvalidPGNException (long line, boolean isIllegalMove, Throwable cause)
+    {
+        super(Strings.INVALID_PGN + " (line " + line + ")", cause);
+        this.line = line;
+        this.isIllegalMove = isIllegalMove;
+    }
+
+    public long getLine()
+    {
+        return this.line;
+    }
+
+    public boolean isIllegalMove()
+    {
+        return this.isIllegalMove;
+    }
+}
@@ -0,0 +1,14 @@
+package org.jchess.exceptions;
+
+import org.jchess.model.Strings;
+
+/**
+ * This exception is called when a table is created with a size that is too small or too large
+ */
+public class InvalidTableSizeException extends RuntimeException
+{
+    public InvalidTableSizeException ()
+    {
+        super(Strings.INVALID_TABLE_SIZE);
+    }
+}
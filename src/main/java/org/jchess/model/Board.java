@@ -1,26 +1,109 @@
 package org.jchess.model;
 
+import java.util.Arrays;
+
 /**
  * This class represents a chess board
  */
 public class Board
 {
+    private static final Piece[] NO_PIECES = new Piece[0]; // the list of pieces of an empty board
+
     private Piece[] pieces = new Piece[0]; // a list of all pieces on the board
+    private Piece[] pieceSquares = new Piece[64]; // the piece of the list standing on each square, null if the square is empty
     private Color playingSideColor = Color.WHITE; // which color is currently moving
-    private int movesPlayed = 0; // how many moves have been played
+    private int movesPlayed = 0; // how many moves have been played, counting the moves of both sides
+    private int halfmoveClock = 0; // how many moves have been played since the last capture or pawn move
     private CastlingStatus[] castlingStatuses = { CastlingStatus.KINGANDQUEENSIDE, CastlingStatus.KINGANDQUEENSIDE }; // which side can castle in what way
     private Position enPassantPosition; // only set if a pawn moved two spaces, can be attacked by another pawn
 
+    private long[] bitboards = new long[12]; // one bitboard per piece type and color, indexed by BitboardManager.getPieceIndex
+    private long[] colorBitboards = new long[2]; // all squares occupied by white and by black pieces
+    private int[] squares = new int[64]; // the piece index standing on each square, -1 if the square is empty
+    private long zobristKey = 0; // the hash of the position, kept up to date by the BoardManager
+    private int middlegameScore = 0; // the material and square bonuses of all pieces in the middlegame, white minus black
+    private int endgameScore = 0; // the material and square bonuses of all pieces in the endgame, white minus black
+    private int phase = 0; // how much material is left to tell the middlegame from the endgame, see EvaluationManager
+    private long[] attackMaps = new long[2]; // the squares attacked by white and by black, see MoveManager.getAttackMap
+    private int validAttackMaps = 0; // one bit per color (1 << ordinal) that is set while its attack map belongs to the current position
+
+    private UndoStack undoStack = new UndoStack(); // the moves played through BoardManager.makeMove that can be taken back
+    private boolean arePiecesOutdated = false; // set once the bitboards were changed without updating the list of pieces
+
+    /**
+     * Create an empty board
+     */
+    public Board()
+    {
+        Arrays.fill(this.squares, -1);
+    }
+
+    /**
+     * Gets a list of all pieces on the board
+     * If moves were played through <i>BoardManager.makeMove</i> the list is recreated from the bitboards first,
+     * so pieces taken from an earlier list are no longer part of the board afterwards
+     * @return The pieces on the board
+     */
     public Piece[] getPieces()
     {
+        if (this.arePiecesOutdated)
+        {
+            this.pieces = this.createPiecesFromSquares();
+            this.arePiecesOutdated = false;
+        }
+
         return this.pieces;
     }
 
+    /**
+     * Gets the piece standing on a square without searching the list of pieces
+     * @param square The square from 0 (<i>a1</i>) to 63 (<i>h8</i>)
+     * @return The piece on the square, <i>null</i> if the square is empty
+     */
+    public Piece getPieceAtSquare(int square)
+    {
+        // Make sure the index belongs to the current list of pieces
+        this.getPieces();
+
+        return this.pieceSquares[square];
+    }
+
+    /**
+     * Removes all pieces and moves, afterwards the board is empty with white to move and nobody can castle
+     * The arrays of the board are reused, so this does not allocate any memory
+     */
+    public void clear()
+    {
+        Arrays.fill(this.bitboards, 0);
+        Arrays.fill(this.colorBitboards, 0);
+        Arrays.fill(this.squares, -1);
+        Arrays.fill(this.pieceSquares, null);
+        this.pieces = NO_PIECES;
+        this.arePiecesOutdated = false;
+        this.playingSideColor = Color.WHITE;
+        this.movesPlayed = 0;
+        this.halfmoveClock = 0;
+        this.castlingStatuses[0] = CastlingStatus.NONE;
+        this.castlingStatuses[1] = CastlingStatus.NONE;
+        this.enPassantPosition = null;
+        this.zobristKey = 0;
+        this.middlegameScore = 0;
+        this.endgameScore = 0;
+        this.phase = 0;
+        this.validAttackMaps = 0;
+        this.undoStack.clear();
+    }
+
     public int getMovesPlayed()
     {
         return movesPlayed;
     }
 
+    public int getHalfmoveClock()
+    {
+        return this.halfmoveClock;
+    }
+
     public Color getPlayingSideColor()
     {
         return playingSideColor;
@@ -46,14 +129,87 @@ public class Board
         return this.enPassantPosition;
     }
 
+    public long[] getBitboards()
+    {
+        return this.bitboards;
+    }
+
+    public long[] getColorBitboards()
+    {
+        return this.colorBitboards;
+    }
+
+    public int[] getSquares()
+    {
+        return this.squares;
+    }
+
+    public long getZobristKey()
+    {
+        return this.zobristKey;
+    }
+
+    public int getMiddlegameScore()
+    {
+        return this.middlegameScore;
+    }
+
+    public int getEndgameScore()
+    {
+        return this.endgameScore;
+    }
+
+    public int getPhase()
+    {
+        return this.phase;
+    }
+
+    public long[] getAttackMaps()
+    {
+        return this.attackMaps;
+    }
+
+    public int getValidAttackMaps()
+    {
+        return this.validAttackMaps;
+    }
+
+    public UndoStack getUndoStack()
+    {
+        return this.undoStack;
+    }
+
+    public boolean getArePiecesOutdated()
+    {
+        return this.arePiecesOutdated;
+    }
+
     public void setBlackCastlingStatus(CastlingStatus castlingStatus)
     {
         this.castlingStatuses[1] = castlingStatus;
     }
 
+    /**
+     * Replaces the list of pieces and updates which piece stands on which square
+     * @param pieces The new list of pieces
+     */
     public void setPieces(Piece[] pieces)
     {
         this.pieces = pieces;
+        this.updatePieceSquares();
+    }
+
+    /**
+     * Moves a piece inside the square index after its position was changed. The list of pieces itself is not changed
+     * @param from The square the piece stood on
+     * @param to The square the piece stands on now
+     */
+    public void movePieceSquare(int from, int to)
+    {
+        Piece piece = this.pieceSquares[from];
+
+        this.pieceSquares[from] = null;
+        this.pieceSquares[to] = piece;
     }
 
     public void setPlayingSideColor(Color playingSideColor)
@@ -80,4 +236,109 @@ public class Board
     {
         this.movesPlayed = movesPlayed;
     }
+
+    public void setHalfmoveClock(int halfmoveClock)
+    {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    public void setArePiecesOutdated(boolean arePiecesOutdated)
+    {
+        this.arePiecesOutdated = arePiecesOutdated;
+    }
+
+    public void setZobristKey(long zobristKey)
+    {
+        this.zobristKey = zobristKey;
+    }
+
+    public void setMiddlegameScore(int middlegameScore)
+    {
+        this.middlegameScore = middlegameScore;
+    }
+
+    public void setEndgameScore(int endgameScore)
+    {
+        this.endgameScore = endgameScore;
+    }
+
+    public void setPhase(int phase)
+    {
+        this.phase = phase;
+    }
+
+    public void setValidAttackMaps(int validAttackMaps)
+    {
+        this.validAttackMaps = validAttackMaps;
+    }
+
+    /**
+     * Fills the square index from the list of pieces
+     */
+    private void updatePieceSquares()
+    {
+        Arrays.fill(this.pieceSquares, null);
+
+        for (Piece piece : this.pieces)
+        {
+            if (piece != null && ((piece.getPosition().getFile() | piece.getPosition().getRank()) & ~7) == 0)
+            {
+                this.pieceSquares[piece.getPosition().getRank() * 8 + piece.getPosition().getFile()] = piece;
+            }
+        }
+    }
+
+    /**
+     * Creates a new list of pieces from the piece indices stored for each square and fills the square index with them
+     * Kings, rooks and pawns count as moved if they could not castle or double step anymore
+     * @return A list containing one piece for every occupied square
+     */
+    private Piece[] createPiecesFromSquares()
+    {
+        PieceType[] types = PieceType.values();
+        Color[] colors = Color.values();
+        Piece[] newPieces = new Piece[64];
+        int count = 0;
+
+        Arrays.fill(this.pieceSquares, null);
+
+        for (int square = 0; square < 64; square ++)
+        {
+            if (this.squares[square] == -1)
+            {
+                continue;
+            }
+
+            // See BitboardManager.getPieceIndex for how the index is built
+            Piece piece = new Piece(Position.of(square), types[this.squares[square] % 6 + 1], colors[this.squares[square] / 6]);
+            CastlingStatus castlingStatus = this.castlingStatuses[piece.getColor().ordinal()];
+            int homeRank = piece.getColor() == Color.WHITE ? 0 : 7;
+
+            switch (piece.getType())
+            {
+                case KING:
+                    piece.setHasMoved(castlingStatus == CastlingStatus.NONE);
+                    break;
+
+                case ROOK:
+                    piece.setHasMoved(piece.getPosition().getRank() != homeRank
+                        || !((piece.getPosition().getFile() == 0 && castlingStatus.allowsQueenside())
+                            || (piece.getPosition().getFile() == 7 && castlingStatus.allowsKingside())));
+                    break;
+
+                case PAWN:
+                    piece.setHasMoved(piece.getPosition().getRank() != (piece.getColor() == Color.WHITE ? 1 : 6));
+                    break;
+
+                default:
+                    break;
+            }
+
+            newPieces[count] = piece;
+            this.pieceSquares[square] = piece;
+            count ++;
+        }
+
+        return Arrays.copyOf(newPieces, count);
+    }
 }
@@ -0,0 +1,45 @@
+package org.jchess.model;
+
+/**
+ * Contains a move that an opening book suggests for a position and how often it should be played
+ */
+public class BookMove
+{
+    private int move; // the encoded move, see Move.encode
+    private int weight; // how often the move should be played compared to the other moves of the position, 0 means never
+    private int learn; // the learning data of the book, most books leave it at 0
+
+    /**
+     * Create a book move
+     * @param move The encoded move
+     * @param weight How often the move should be played compared to the other moves of the position
+     * @param learn The learning data of the book
+     */
+    public BookMove(int move, int weight, int learn)
+    {
+        this.move = move;
+        this.weight = weight;
+        this.learn = learn;
+    }
+
+    public int getMove()
+    {
+        return this.move;
+    }
+
+    public int getWeight()
+    {
+        return this.weight;
+    }
+
+    public int getLearn()
+    {
+        return this.learn;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Move.toUCIString(this.move) + " (" + this.weight + ")";
+    }
+}
@@ -8,5 +8,41 @@ public enum CastlingStatus
     NONE,
     KINGSIDE,
     QUEENSIDE,
-    KINGANDQUEENSIDE
+    KINGANDQUEENSIDE;
+
+    /**
+     * Checks if castling kingside is still available
+     * @return <i>true</i> for KINGSIDE and KINGANDQUEENSIDE, <i>false</i> otherwise
+     */
+    public boolean allowsKingside()
+    {
+        return this == KINGSIDE || this == KINGANDQUEENSIDE;
+    }
+
+    /**
+     * Checks if castling queenside is still available
+     * @return <i>true</i> for QUEENSIDE and KINGANDQUEENSIDE, <i>false</i> otherwise
+     */
+    public boolean allowsQueenside()
+    {
+        return this == QUEENSIDE || this == KINGANDQUEENSIDE;
+    }
+
+    /**
+     * Gets the castling status that remains after the kingside option was lost
+     * @return The castling status without kingside castling
+     */
+    public CastlingStatus withoutKingside()
+    {
+        return this.allowsQueenside() ? QUEENSIDE : NONE;
+    }
+
+    /**
+     * Gets the castling status that remains after the queenside option was lost
+     * @return The castling status without queenside castling
+     */
+    public CastlingStatus withoutQueenside()
+    {
+        return this.allowsKingside() ? KINGSIDE : NONE;
+    }
 }
@@ -0,0 +1,77 @@
+package org.jchess.model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contains a game that was read from a PGN file: its tag pairs, the encoded moves of the main line and the result
+ */
+public class Game
+{
+    public static final String UNKNOWN_RESULT = "*"; // the result of a game that is still going on or whose result is not known
+
+    private Map<String, String> tags = new LinkedHashMap<>(); // the tag pairs in the order they were read, i.e. "White" -> "Morphy, Paul"
+    private int[] moves = new int[128]; // the encoded moves of the main line, only the first <i>moveCount</i> entries are valid
+    private int moveCount = 0; // how many moves were played
+    private String result = UNKNOWN_RESULT; // "1-0", "0-1", "1/2-1/2" or "*"
+
+    /**
+     * Adds an encoded move to the end of the main line
+     * @param move The encoded move
+     */
+    public void addMove(int move)
+    {
+        if (this.moveCount == this.moves.length)
+        {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+        }
+
+        this.moves[this.moveCount] = move;
+        this.moveCount ++;
+    }
+
+    /**
+     * Gets the value of a tag pair
+     * @param name The name of the tag, i.e. "White" or "Event"
+     * @return The value of the tag, <i>null</i> if the game does not have the tag
+     */
+    public String getTag(String name)
+    {
+        return this.tags.get(name);
+    }
+
+    /**
+     * Gets the encoded moves of the main line
+     * @return A copy of the moves in the order they were played
+     */
+    public int[] getMoves()
+    {
+        return Arrays.copyOf(this.moves, this.moveCount);
+    }
+
+    public int getMove(int index)
+    {
+        return this.moves[index];
+    }
+
+    public int getMoveCount()
+    {
+        return this.moveCount;
+    }
+
+    public Map<String, String> getTags()
+    {
+        return this.tags;
+    }
+
+    public String getResult()
+    {
+        return this.result;
+    }
+
+    public void setResult(String result)
+    {
+        this.result = result;
+    }
+}
@@ -2,11 +2,23 @@ package org.jchess.model;
 
 /**
  * Represents a possible move that could be played
+ * Moves can also be encoded into a single <i>int</i>, which is what the move generators use to avoid creating objects:
+ * bits 0-5 hold the origin square, bits 6-11 the destination square, bits 12-14 the promotion type and bits 15-18 the flags of the move
  */
 public class Move
 {
+    public static final int NONE = 0; // an encoded move that is never generated, since origin and destination are the same
+
+    public static final int FLAG_CAPTURE = 1; // the move captures a piece
+    public static final int FLAG_DOUBLE_PAWN_PUSH = 2; // a pawn moves two squares forward
+    public static final int FLAG_EN_PASSANT = 4; // a pawn captures en passant, this is always combined with FLAG_CAPTURE
+    public static final int FLAG_CASTLING = 8; // the king castles, the destination is the square the king ends up on
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
     private Piece piece;
     private Position position;
+    private PieceType promotionType = PieceType.NONE;
 
     /**
      * Create an empty theoretical move
@@ -30,6 +42,88 @@ public class Move
         this.setPosition(position);
     }
 
+    /**
+     * Encodes a move into a single <i>int</i>
+     * @param from The origin square from 0 (<i>a1</i>) to 63 (<i>h8</i>)
+     * @param to The destination square from 0 to 63
+     * @param promotionType The type a pawn is promoted to, <i>PieceType.NONE</i> if the move is not a promotion
+     * @param flags A combination of the <i>FLAG_</i> constants
+     * @return The encoded move
+     */
+    public static int encode(int from, int to, PieceType promotionType, int flags)
+    {
+        return from | (to << 6) | (promotionType.ordinal() << 12) | (flags << 15);
+    }
+
+    public static int getFrom(int move)
+    {
+        return move & 63;
+    }
+
+    public static int getTo(int move)
+    {
+        return (move >>> 6) & 63;
+    }
+
+    public static PieceType getPromotionType(int move)
+    {
+        return PIECE_TYPES[(move >>> 12) & 7];
+    }
+
+    public static int getFlags(int move)
+    {
+        return move >>> 15;
+    }
+
+    public static boolean isCapture(int move)
+    {
+        return (getFlags(move) & FLAG_CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move)
+    {
+        return ((move >>> 12) & 7) != 0;
+    }
+
+    /**
+     * Gets the UCI notation of an encoded move
+     * @param move The encoded move
+     * @return The move string (i.e. "e2e4" or "e7e8q")
+     */
+    public static String toUCIString(int move)
+    {
+        StringBuilder builder = new StringBuilder(5);
+
+        builder.append((char) ('a' + (getFrom(move) & 7)));
+        builder.append((char) ('1' + (getFrom(move) >>> 3)));
+        builder.append((char) ('a' + (getTo(move) & 7)));
+        builder.append((char) ('1' + (getTo(move) >>> 3)));
+
+        switch (getPromotionType(move))
+        {
+            case QUEEN:
+                builder.append('q');
+                break;
+
+            case ROOK:
+                builder.append('r');
+                break;
+
+            case BISHOP:
+                builder.append('b');
+                break;
+
+            case KNIGHT:
+                builder.append('n');
+                break;
+
+            default:
+                break;
+        }
+
+        return builder.toString();
+    }
+
     public Position getPosition()
     {
         return position;
@@ -40,6 +134,11 @@ public class Move
         return piece;
     }
 
+    public PieceType getPromotionType()
+    {
+        return promotionType;
+    }
+
     public void setPosition(Position position)
     {
         this.position = position;
@@ -49,4 +148,9 @@ public class Move
     {
         this.piece = piece;
     }
+
+    public void setPromotionType(PieceType promotionType)
+    {
+        this.promotionType = promotionType;
+    }
 }
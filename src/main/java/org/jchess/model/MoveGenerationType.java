@@ -0,0 +1,12 @@
+package org.jchess.model;
+
+/**
+ * Tells the move generator which moves to add, so callers that only need some of the moves do not generate the rest
+ * Captures include en passant and every promotion, quiet moves are all other moves including castling. Both together are all legal moves
+ */
+public enum MoveGenerationType
+{
+    ALL,
+    CAPTURES,
+    QUIETS
+}
@@ -0,0 +1,91 @@
+package org.jchess.model;
+
+/**
+ * A reusable buffer of encoded moves (see {@link Move#encode(int, int, PieceType, int)})
+ * The buffer only grows when it runs out of space, so clearing and refilling it does not allocate any memory
+ */
+public class MoveList
+{
+    private int[] moves; // the encoded moves, only the first <i>size</i> entries are valid
+    private int size = 0; // how many moves are currently stored
+
+    /**
+     * Create an empty move list that has enough space for the moves of any legal chess position
+     */
+    public MoveList()
+    {
+        this(256);
+    }
+
+    /**
+     * Create an empty move list
+     * @param capacity How many moves fit into the list before it has to grow
+     */
+    public MoveList(int capacity)
+    {
+        this.moves = new int[capacity];
+    }
+
+    /**
+     * Adds an encoded move to the end of the list
+     * @param move The encoded move
+     */
+    public void add(int move)
+    {
+        if (this.size == this.moves.length)
+        {
+            int[] newMoves = new int[this.moves.length * 2];
+            System.arraycopy(this.moves, 0, newMoves, 0, this.size);
+            this.moves = newMoves;
+        }
+
+        this.moves[this.size] = move;
+        this.size ++;
+    }
+
+    /**
+     * Removes all moves from the list without releasing its memory
+     */
+    public void clear()
+    {
+        this.size = 0;
+    }
+
+    /**
+     * Checks if the list contains a given move
+     * @param move The encoded move
+     * @return <i>true</i> if the move is in the list, <i>false</i> otherwise
+     */
+    public boolean contains(int move)
+    {
+        for (int i = 0; i < this.size; i ++)
+        {
+            if (this.moves[i] == move)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public int get(int index)
+    {
+        return this.moves[index];
+    }
+
+    public int size()
+    {
+        return this.size;
+    }
+
+    public int[] getMoves()
+    {
+        return this.moves;
+    }
+
+    public void set(int index, int move)
+    {
+        this.moves[index] = move;
+    }
+}
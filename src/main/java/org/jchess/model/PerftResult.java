@@ -0,0 +1,63 @@
+package org.jchess.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contains the result of a perft run, which counts all positions that can be reached from a board in a given number of moves
+ */
+public class PerftResult
+{
+    private int depth; // how many moves deep the tree was walked
+    private long nodes = 0; // how many positions were reached at the given depth
+    private long time = 0; // how many nanoseconds the run took
+    private Map<String, Long> divide = new LinkedHashMap<>(); // how many of the positions were reached through each move of the first side, in UCI notation
+
+    /**
+     * Create an empty perft result
+     * @param depth How many moves deep the tree is walked
+     */
+    public PerftResult(int depth)
+    {
+        this.depth = depth;
+    }
+
+    /**
+     * Gets how many positions were reached per second
+     * @return The nodes per second, 0 if no time was measured
+     */
+    public long getNodesPerSecond()
+    {
+        return this.time == 0 ? 0 : this.nodes * 1000000000L / this.time;
+    }
+
+    public int getDepth()
+    {
+        return this.depth;
+    }
+
+    public long getNodes()
+    {
+        return this.nodes;
+    }
+
+    public long getTime()
+    {
+        return this.time;
+    }
+
+    public Map<String, Long> getDivide()
+    {
+        return this.divide;
+    }
+
+    public void setNodes(long nodes)
+    {
+        this.nodes = nodes;
+    }
+
+    public void setTime(long time)
+    {
+        this.time = time;
+    }
+}
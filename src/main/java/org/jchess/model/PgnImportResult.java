@@ -0,0 +1,162 @@
+package org.jchess.model;
+
+/**
+ * Contains the statistics of importing the games of a PGN file
+ * Every worker of an import keeps its own result, they are added up once all games were read
+ */
+public class PgnImportResult
+{
+    private long games = 0; // how many games were read, including invalid ones
+    private long invalidGames = 0; // how many games could not be read or contained an illegal move
+    private long illegalMoveGames = 0; // how many of the invalid games were well-formed but contained an illegal move
+    private long firstInvalidLine = 0; // the line of the first error of the first invalid game, 0 if all games were valid
+    private long whiteWins = 0; // how many valid games ended with "1-0"
+    private long blackWins = 0; // how many valid games ended with "0-1"
+    private long draws = 0; // how many valid games ended with "1/2-1/2"
+    private long unknownResults = 0; // how many valid games ended with "*"
+    private long positions = 0; // how many positions were reached by replaying the moves of the valid games
+    private long time = 0; // how many nanoseconds the import took
+
+    /**
+     * Counts a valid game
+     * @param game The game that was read
+     */
+    public void addGame(Game game)
+    {
+        this.games ++;
+        this.positions += game.getMoveCount();
+
+        switch (game.getResult())
+        {
+            case "1-0":
+                this.whiteWins ++;
+                break;
+
+            case "0-1":
+                this.blackWins ++;
+                break;
+
+            case "1/2-1/2":
+                this.draws ++;
+                break;
+
+            default:
+                this.unknownResults ++;
+                break;
+        }
+    }
+
+    /**
+     * Counts a game that could not be read or contained an illegal move
+     * @param isIllegalMove <i>true</i> if the game was stopped by a well-formed move that is not legal, <i>false</i> if it could not be read
+     * @param line The line of the input the first error of the game was found on
+     */
+    public void addInvalidGame(boolean isIllegalMove, long line)
+    {
+        this.games ++;
+        this.invalidGames ++;
+        this.firstInvalidLine = PgnImportResult.getFirstLine(this.firstInvalidLine, line);
+
+        if (isIllegalMove)
+        {
+            this.illegalMoveGames ++;
+        }
+    }
+
+    /**
+     * Adds the statistics of another result to this one
+     * @param result The result of another worker
+     */
+    public void add(PgnImportResult result)
+    {
+        this.games += result.games;
+        this.invalidGames += result.invalidGames;
+        this.illegalMoveGames += result.illegalMoveGames;
+        this.firstInvalidLine = PgnImportResult.getFirstLine(this.firstInvalidLine, result.firstInvalidLine);
+        this.whiteWins += result.whiteWins;
+        this.blackWins += result.blackWins;
+        this.draws += result.draws;
+        this.unknownResults += result.unknownResults;
+        this.positions += result.positions;
+    }
+
+    /**
+     * Gets the earlier of two lines, the workers do not read the input in order
+     * @param line A line, 0 if there is none
+     * @param otherLine Another line, 0 if there is none
+     * @return The smaller line that is not 0, 0 if both are 0
+     */
+    private static long getFirstLine(long line, long otherLine)
+    {
+        if (line == 0 || (otherLine != 0 && otherLine < line))
+        {
+            return otherLine;
+        }
+
+        return line;
+    }
+
+    /**
+     * Gets how many games were read per second
+     * @return The games per second, 0 if no time was measured
+     */
+    public long getGamesPerSecond()
+    {
+        return this.time == 0 ? 0 : this.games * 1000000000L / this.time;
+    }
+
+    public long getGames()
+    {
+        return this.games;
+    }
+
+    public long getInvalidGames()
+    {
+        return this.invalidGames;
+    }
+
+    public long getIllegalMoveGames()
+    {
+        return this.illegalMoveGames;
+    }
+
+    public long getFirstInvalidLine()
+    {
+        return this.firstInvalidLine;
+    }
+
+    public long getWhiteWins()
+    {
+        return this.whiteWins;
+    }
+
+    public long getBlackWins()
+    {
+        return this.blackWins;
+    }
+
+    public long getDraws()
+    {
+        return this.draws;
+    }
+
+    public long getUnknownResults()
+    {
+        return this.unknownResults;
+    }
+
+    public long getPositions()
+    {
+        return this.positions;
+    }
+
+    public long getTime()
+    {
+        return this.time;
+    }
+
+    public void setTime(long time)
+    {
+        this.time = time;
+    }
+}
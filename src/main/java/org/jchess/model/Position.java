@@ -2,47 +2,88 @@ package org.jchess.model;
 
 /**
  * This class represents a position of a single piece on a chess board inside a coordinate system, were <i>a1</i> is <i>(0; 0)</i> and <i>h8</i> is <i>(7; 7)</i>
+ * Positions cannot be changed and there is exactly one object per square, so they are never created but looked up through {@link #of(int, int)}.
+ * All positions outside of the board are represented by {@link #OFF_BOARD}. Since every square has a single object, positions can also be compared with <i>==</i>
  */
-public class Position
+public final class Position
 {
-    private int file;
-    private int rank;
+    public static final Position OFF_BOARD = new Position(-1, -1); // stands for every position outside of the board
 
-    /**
-     * Create an empty position
-     */
-    public Position()
-    {
-        this.file = -1;
-        this.rank = -1;
-    }
+    private static final Position[] POSITIONS = new Position[64]; // the position of every square, indexed by rank * 8 + file
 
-    public Position(Position origin, int fileOffset, int rankOffset)
+    static
     {
-        this.file = origin.getFile() + fileOffset;
-        this.rank = origin.getRank() + rankOffset;
+        for (int square = 0; square < 64; square ++)
+        {
+            POSITIONS[square] = new Position(square & 7, square >>> 3);
+        }
     }
 
+    private final int file;
+    private final int rank;
+
     /**
-     * Create a new position by specifying coordinates
+     * Create a position, this is only done once for every square
      * @param file The x coordinate starting at 0
      * @param rank The y coordinate starting at 0
      */
-    public Position(int file, int rank)
+    private Position(int file, int rank)
     {
         this.file = file;
         this.rank = rank;
     }
 
     /**
-     * Create an ew position by specifying its position in standard chess notation
+     * Gets a position by its coordinates
+     * @param file The x coordinate starting at 0
+     * @param rank The y coordinate starting at 0
+     * @return The position of the square, {@link #OFF_BOARD} if the coordinates are outside of the board
+     */
+    public static Position of(int file, int rank)
+    {
+        return ((file | rank) & ~7) == 0 ? POSITIONS[rank * 8 + file] : OFF_BOARD;
+    }
+
+    /**
+     * Gets a position by its square number
+     * @param square The square from 0 (<i>a1</i>) to 63 (<i>h8</i>)
+     * @return The position of the square, {@link #OFF_BOARD} if the square is outside of the board
+     */
+    public static Position of(int square)
+    {
+        return (square & ~63) == 0 ? POSITIONS[square] : OFF_BOARD;
+    }
+
+    /**
+     * Gets a position by its standard chess notation
      * @param position The position string, i.e. "e4", "g8", ...
+     * @return The position of the square, {@link #OFF_BOARD} if the string does not name a square
      */
-    public Position(String position)
+    public static Position of(String position)
     {
-        char[] positionChars = position.toCharArray();
-        this.file = Position.getFileFromChar(positionChars[0]);
-        this.rank = Position.getRankFromChar(positionChars[1]);
+        if (position.length() < 2)
+        {
+            return OFF_BOARD;
+        }
+
+        return Position.of(Position.getFileFromChar(position.charAt(0)), Position.getRankFromChar(position.charAt(1)));
+    }
+
+    /**
+     * Gets the position that is a given number of files and ranks away from another position
+     * @param origin The position to start from
+     * @param fileOffset How many files to move to the right
+     * @param rankOffset How many ranks to move up
+     * @return The position that was reached, {@link #OFF_BOARD} if it is outside of the board or the origin already was
+     */
+    public static Position of(Position origin, int fileOffset, int rankOffset)
+    {
+        if (origin == OFF_BOARD)
+        {
+            return OFF_BOARD;
+        }
+
+        return Position.of(origin.getFile() + fileOffset, origin.getRank() + rankOffset);
     }
 
     /**
@@ -54,12 +95,39 @@ public class Position
     public static boolean equals (Position a, Position b)
     {
         if (a == null || b == null) { return false; }
-        return a.getFile() == b.getFile() && a.getRank() == b.getRank();
+        return a.equals(b);
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object)
+        {
+            return true;
+        }
+
+        if (!(object instanceof Position))
+        {
+            return false;
+        }
+
+        return this.file == ((Position) object).file && this.rank == ((Position) object).rank;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.getSquare();
     }
 
     @Override
     public String toString()
     {
+        if (this == OFF_BOARD)
+        {
+            return "-";
+        }
+
         return this.getFileAsChar() + "" + this.getRankAsChar();
     }
 
@@ -68,6 +136,24 @@ public class Position
         return "(" + this.getFile() + ", " + this.getRank() + ")";
     }
 
+    /**
+     * Checks whether the position lies on the board
+     * @return <i>true</i> for the 64 squares, <i>false</i> for {@link #OFF_BOARD}
+     */
+    public boolean isOnBoard()
+    {
+        return this != OFF_BOARD;
+    }
+
+    /**
+     * Gets the square number of the position
+     * @return The square from 0 (<i>a1</i>) to 63 (<i>h8</i>), -9 for {@link #OFF_BOARD}
+     */
+    public int getSquare()
+    {
+        return this.rank * 8 + this.file;
+    }
+
     public char getFileAsChar()
     {
         return (char) (97 + this.getFile());
@@ -88,21 +174,11 @@ public class Position
         return rankChar - 49;
     }
 
-    public void setFile(int file)
-    {
-        this.file = file;
-    }
-
     public int getFile()
     {
         return this.file;
     }
 
-    public void setRank(int rank)
-    {
-        this.rank = rank;
-    }
-
     public int getRank()
     {
         return this.rank;
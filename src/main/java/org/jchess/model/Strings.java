@@ -12,4 +12,8 @@ public class Strings
     public static String INVALID_FEN = "Invalid FEN. No board could be created from the input FEN, which means that either an incorrect format or an illegal character were used.";
     public static String PIECE_OUT_OF_BOUNDS = "A piece was placed outside of the play area";
     public static String PIECE_NOT_FOUND = "There is no piece at the specified position";
+    public static String INVALID_TABLE_SIZE = "The table size has to be at least 1 MB and small enough to fit into memory";
+    public static String INVALID_PGN = "Invalid PGN. The game could not be read, which means that either an incorrect format or an illegal move were used.";
+    public static String INVALID_BINARY_POSITION = "Invalid binary position. Either the data is corrupted or the board has more than 32 pieces, which cannot be encoded.";
+    public static String INVALID_BOOK = "Invalid opening book. Either the file is not a Polyglot book or the Random64 table does not contain 781 numbers.";
 }
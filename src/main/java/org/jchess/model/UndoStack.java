@@ -0,0 +1,178 @@
+package org.jchess.model;
+
+/**
+ * Remembers everything that is needed to take back moves played through <i>BoardManager.makeMove</i>
+ * Every entry stores the encoded move, the captured piece and the parts of the board state that cannot be recalculated from the move itself
+ * The stack only grows when it runs out of space, so pushing and popping entries does not allocate any memory
+ */
+public class UndoStack
+{
+    private int size = 0; // how many moves are currently stored
+
+    private int[] moves; // the encoded moves
+    private int[] capturedPieces; // the index of the piece each move captured, -1 if nothing was captured
+    private CastlingStatus[] whiteCastlingStatuses; // the castling statuses before each move
+    private CastlingStatus[] blackCastlingStatuses;
+    private Position[] enPassantPositions; // the en passant position before each move
+    private int[] movesPlayed; // the move counter before each move
+    private int[] halfmoveClocks; // the halfmove clock before each move
+    private long[] zobristKeys; // the Zobrist key before each move
+
+    /**
+     * Create an empty undo stack
+     */
+    public UndoStack()
+    {
+        this(128);
+    }
+
+    /**
+     * Create an empty undo stack
+     * @param capacity How many moves fit onto the stack before it has to grow
+     */
+    public UndoStack(int capacity)
+    {
+        this.moves = new int[capacity];
+        this.capturedPieces = new int[capacity];
+        this.whiteCastlingStatuses = new CastlingStatus[capacity];
+        this.blackCastlingStatuses = new CastlingStatus[capacity];
+        this.enPassantPositions = new Position[capacity];
+        this.movesPlayed = new int[capacity];
+        this.halfmoveClocks = new int[capacity];
+        this.zobristKeys = new long[capacity];
+    }
+
+    /**
+     * Remembers the state of a board before a move is played
+     * @param move The encoded move that is about to be played
+     * @param capturedPiece The index of the piece the move captures, -1 if it does not capture anything
+     * @param board The board before the move is played
+     */
+    public void push(int move, int capturedPiece, Board board)
+    {
+        if (this.size == this.moves.length)
+        {
+            this.grow();
+        }
+
+        this.moves[this.size] = move;
+        this.capturedPieces[this.size] = capturedPiece;
+        this.whiteCastlingStatuses[this.size] = board.getWhiteCastlingStatus();
+        this.blackCastlingStatuses[this.size] = board.getBlackCastlingStatus();
+        this.enPassantPositions[this.size] = board.getEnPassanPosition();
+        this.movesPlayed[this.size] = board.getMovesPlayed();
+        this.halfmoveClocks[this.size] = board.getHalfmoveClock();
+        this.zobristKeys[this.size] = board.getZobristKey();
+
+        this.size ++;
+    }
+
+    /**
+     * Removes the most recent entry. Its values have to be read before calling this
+     */
+    public void pop()
+    {
+        this.size --;
+        this.enPassantPositions[this.size] = null;
+    }
+
+    /**
+     * Removes all entries
+     */
+    public void clear()
+    {
+        while (this.size > 0)
+        {
+            this.pop();
+        }
+    }
+
+    public int getSize()
+    {
+        return this.size;
+    }
+
+    public int getLastMove()
+    {
+        return this.moves[this.size - 1];
+    }
+
+    public int getLastCapturedPiece()
+    {
+        return this.capturedPieces[this.size - 1];
+    }
+
+    public CastlingStatus getLastWhiteCastlingStatus()
+    {
+        return this.whiteCastlingStatuses[this.size - 1];
+    }
+
+    public CastlingStatus getLastBlackCastlingStatus()
+    {
+        return this.blackCastlingStatuses[this.size - 1];
+    }
+
+    public Position getLastEnPassantPosition()
+    {
+        return this.enPassantPositions[this.size - 1];
+    }
+
+    public int getLastMovesPlayed()
+    {
+        return this.movesPlayed[this.size - 1];
+    }
+
+    public int getLastHalfmoveClock()
+    {
+        return this.halfmoveClocks[this.size - 1];
+    }
+
+    public long getLastZobristKey()
+    {
+        return this.zobristKeys[this.size - 1];
+    }
+
+    /**
+     * Gets the Zobrist key a board had before one of the stored moves was played
+     * @param index The index of the entry, 0 is the oldest move
+     * @return The Zobrist key before the move
+     */
+    public long getZobristKey(int index)
+    {
+        return this.zobristKeys[index];
+    }
+
+    /**
+     * Doubles the capacity of the stack
+     */
+    private void grow()
+    {
+        int capacity = this.moves.length * 2;
+        int[] newMoves = new int[capacity];
+        int[] newCapturedPieces = new int[capacity];
+        CastlingStatus[] newWhiteCastlingStatuses = new CastlingStatus[capacity];
+        CastlingStatus[] newBlackCastlingStatuses = new CastlingStatus[capacity];
+        Position[] newEnPassantPositions = new Position[capacity];
+        int[] newMovesPlayed = new int[capacity];
+        int[] newHalfmoveClocks = new int[capacity];
+        long[] newZobristKeys = new long[capacity];
+
+        System.arraycopy(this.moves, 0, newMoves, 0, this.size);
+        System.arraycopy(this.capturedPieces, 0, newCapturedPieces, 0, this.size);
+        System.arraycopy(this.whiteCastlingStatuses, 0, newWhiteCastlingStatuses, 0, this.size);
+        System.arraycopy(this.blackCastlingStatuses, 0, newBlackCastlingStatuses, 0, this.size);
+        System.arraycopy(this.enPassantPositions, 0, newEnPassantPositions, 0, this.size);
+        System.arraycopy(this.movesPlayed, 0, newMovesPlayed, 0, this.size);
+        System.arraycopy(this.halfmoveClocks, 0, newHalfmoveClocks, 0, this.size);
+        System.arraycopy(this.zobristKeys, 0, newZobristKeys, 0, this.size);
+
+        this.moves = newMoves;
+        this.capturedPieces = newCapturedPieces;
+        this.whiteCastlingStatuses = newWhiteCastlingStatuses;
+        this.blackCastlingStatuses = newBlackCastlingStatuses;
+        this.enPassantPositions = newEnPassantPositions;
+        this.movesPlayed = newMovesPlayed;
+        this.halfmoveClocks = newHalfmoveClocks;
+        this.zobristKeys = newZobristKeys;
+    }
+}
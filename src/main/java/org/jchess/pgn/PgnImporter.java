@@ -0,0 +1,437 @@
+package org.jchess.pgn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.jchess.exceptions.InvalidPGNException;
+import org.jchess.model.Game;
+import org.jchess.model.PgnImportResult;
+
+/**
+ * Imports large PGN files with several threads at once
+ * The calling thread splits the input into chunks of whole games, and every worker thread replays the games of one chunk at a time through its own {@link PgnReader} and board.
+ * There is a fixed number of chunks that are handed back and forth, so splitting waits whenever the workers fall behind and the memory used does not depend on the size of the input
+ * <p>
+ * Every chunk knows the line of the input it starts on, so the line of an invalid game is the one of the whole input.
+ * Every worker counts its own statistics, they are added up once the input was read completely
+ */
+public class PgnImporter
+{
+    private static final int CHUNK_SIZE = 1 << 20; // how many bytes of games a chunk collects before it is handed to a worker
+    private static final int READ_BUFFER_SIZE = 1 << 16; // how many bytes are read from the input at once
+    private static final int CHUNKS_PER_THREAD = 2; // how many chunks every worker can have waiting
+
+    private static final Chunk END_OF_INPUT = new Chunk(0); // tells a worker that there are no more chunks
+
+    private final int threadCount;
+
+    /**
+     * Create an importer
+     * @param threadCount How many worker threads replay the games, the calling thread only splits the input
+     */
+    public PgnImporter(int threadCount)
+    {
+        this.threadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * Imports all games of a PGN file
+     * @param path The path of the file
+     * @param consumer Receives every valid game, it is called by several threads at once. Can be null if only the statistics are needed.
+     * An exception or error of the consumer or a worker stops the import and is thrown again by this method
+     * @return The statistics of all games
+     * @throws IOException If the file could not be read
+     */
+    public PgnImportResult importGames(Path path, Consumer<Game> consumer) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            return this.importGames(channel, consumer);
+        }
+    }
+
+    /**
+     * Imports all games of a stream of PGN text
+     * @param stream The stream, it is not closed
+     * @param consumer Receives every valid game, it is called by several threads at once. Can be null if only the statistics are needed
+     * @return The statistics of all games
+     * @throws IOException If the stream could not be read
+     */
+    public PgnImportResult importGames(InputStream stream, Consumer<Game> consumer) throws IOException
+    {
+        return this.importGames(Channels.newChannel(stream), consumer);
+    }
+
+    public int getThreadCount()
+    {
+        return this.threadCount;
+    }
+
+    /**
+     * Splits the input on the calling thread while the workers replay the games
+     * @param channel The input
+     * @param consumer Receives every valid game, can be null
+     * @return The statistics of all games
+     */
+    private PgnImportResult importGames(ReadableByteChannel channel, Consumer<Game> consumer) throws IOException
+    {
+        long startTime = System.nanoTime();
+        int chunkCount = this.threadCount * CHUNKS_PER_THREAD;
+        // There is room for every chunk plus the end markers in both queues, so handing back chunks and stopping the workers never waits
+        BlockingQueue<Chunk> freeChunks = new ArrayBlockingQueue<>(chunkCount);
+        BlockingQueue<Chunk> fullChunks = new ArrayBlockingQueue<>(chunkCount + this.threadCount);
+        AtomicReference<Throwable> failure = new AtomicReference<>(); // the first exception or error of a worker
+        PgnImportResult[] results = new PgnImportResult[this.threadCount];
+        Thread[] workers = new Thread[this.threadCount];
+        PgnImportResult result = new PgnImportResult();
+
+        for (int i = 0; i < chunkCount; i ++)
+        {
+            freeChunks.add(new Chunk(CHUNK_SIZE + READ_BUFFER_SIZE));
+        }
+
+        for (int i = 0; i < workers.length; i ++)
+        {
+            PgnImportResult workerResult = new PgnImportResult();
+
+            results[i] = workerResult;
+            workers[i] = new Thread(() -> PgnImporter.work(freeChunks, fullChunks, workerResult, consumer, failure), "jchess-pgn-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+
+        try
+        {
+            PgnImporter.split(channel, freeChunks, fullChunks, failure);
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        finally
+        {
+            for (int i = 0; i < workers.length; i ++)
+            {
+                fullChunks.add(END_OF_INPUT);
+            }
+
+            for (int i = 0; i < workers.length; i ++)
+            {
+                PgnImporter.join(workers[i]);
+            }
+        }
+
+        PgnImporter.rethrow(failure.get());
+
+        for (int i = 0; i < results.length; i ++)
+        {
+            result.add(results[i]);
+        }
+
+        result.setTime(System.nanoTime() - startTime);
+
+        return result;
+    }
+
+    /**
+     * Reads the input and hands it to the workers in chunks that only contain whole games
+     * A chunk is cut in front of a tag that starts a line following the movetext of a game, once it holds at least <i>CHUNK_SIZE</i> bytes
+     * @param channel The input
+     * @param freeChunks The chunks that can be filled, taking one waits until a worker is done with it
+     * @param fullChunks The chunks that are waiting for a worker
+     * @param failure Stops the splitting once a worker failed
+     */
+    private static void split(ReadableByteChannel channel, BlockingQueue<Chunk> freeChunks, BlockingQueue<Chunk> fullChunks, AtomicReference<Throwable> failure) throws IOException, InterruptedException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        Chunk chunk = freeChunks.take();
+        boolean isLineStart = true; // is the next byte the first one of its line?
+        boolean isInComment = false; // are we inside of a comment in braces?
+        boolean isInLineComment = false; // are we inside of a comment that lasts until the end of the line?
+        int lineStart = '['; // the first byte of the last line that was not empty
+        long line = 1; // the line of the input the current byte is on
+
+        chunk.firstLine = line;
+
+        while (channel.read(buffer) != -1)
+        {
+            int length = buffer.position();
+            int copyStart = 0; // the first byte of the buffer that was not added to the chunk yet
+
+            for (int i = 0; i < length; i ++)
+            {
+                byte b = bytes[i];
+
+                if (isLineStart && b != '\n' && b != '\r')
+                {
+                    // A tag at the start of a line after the movetext of a game starts the next game
+                    if (b == '[' && lineStart != '[' && !isInComment && chunk.length + i - copyStart >= CHUNK_SIZE)
+                    {
+                        chunk.append(bytes, copyStart, i - copyStart);
+                        copyStart = i;
+                        fullChunks.put(chunk);
+
+                        if (failure.get() != null)
+                        {
+                            return;
+                        }
+
+                        chunk = freeChunks.take();
+                        chunk.length = 0;
+                        chunk.firstLine = line;
+                    }
+
+                    // A percent sign at the start of a line escapes the whole line, so braces on it do not start comments
+                    if (b == '%' && !isInComment)
+                    {
+                        isInLineComment = true;
+                    }
+
+                    lineStart = b;
+                }
+
+                // Braces inside of tag values do not start comments
+                if (lineStart != '[' || isInComment)
+                {
+                    if (b == '{' && !isInLineComment)
+                    {
+                        isInComment = true;
+                    }
+                    else if (b == '}')
+                    {
+                        isInComment = false;
+                    }
+                    else if (b == ';' && !isInComment)
+                    {
+                        isInLineComment = true;
+                    }
+                }
+
+                if (b == '\n')
+                {
+                    isInLineComment = false;
+                    line ++;
+                }
+
+                isLineStart = b == '\n';
+            }
+
+            chunk.append(bytes, copyStart, length - copyStart);
+            buffer.clear();
+        }
+
+        fullChunks.put(chunk);
+    }
+
+    /**
+     * Replays the games of one chunk after another until the end of the input
+     * @param freeChunks Where chunks are handed back once they were replayed
+     * @param fullChunks The chunks that are waiting to be replayed
+     * @param result The statistics of this worker
+     * @param consumer Receives every valid game, can be null
+     * @param failure Remembers the first exception or error of a worker, the remaining chunks are only handed back afterwards.
+     * Every chunk goes back to <i>freeChunks</i> no matter how its replay ended, otherwise the splitting would wait for it forever
+     */
+    private static void work(BlockingQueue<Chunk> freeChunks, BlockingQueue<Chunk> fullChunks, PgnImportResult result, Consumer<Game> consumer, AtomicReference<Throwable> failure)
+    {
+        PgnReader reader = new PgnReader(ByteBuffer.allocate(0)); // the reader and its board are reused for every chunk
+        Chunk chunk;
+
+        while ((chunk = PgnImporter.take(fullChunks)) != END_OF_INPUT)
+        {
+            try
+            {
+                if (failure.get() == null)
+                {
+                    PgnImporter.replay(reader, chunk, result, consumer);
+                }
+            }
+            catch (Throwable throwable)
+            {
+                // Errors like an OutOfMemoryError on a huge game end the import as well, instead of leaving the other threads waiting
+                failure.compareAndSet(null, throwable);
+            }
+            finally
+            {
+                chunk.length = 0;
+                freeChunks.add(chunk);
+            }
+        }
+    }
+
+    /**
+     * Throws the failure of a worker on the calling thread
+     * @param failure The first exception or error of a worker, nothing happens if it is null
+     */
+    private static void rethrow(Throwable failure)
+    {
+        if (failure instanceof Error)
+        {
+            throw (Error) failure;
+        }
+
+        if (failure instanceof RuntimeException)
+        {
+            throw (RuntimeException) failure;
+        }
+
+        if (failure != null)
+        {
+            // The consumer cannot throw checked exceptions, unless it hides them from the compiler
+            throw new RuntimeException(failure);
+        }
+    }
+
+    /**
+     * Replays all games of a chunk
+     * @param reader The reader of the worker
+     * @param chunk The chunk
+     * @param result The statistics of the worker
+     * @param consumer Receives every valid game, can be null
+     */
+    private static void replay(PgnReader reader, Chunk chunk, PgnImportResult result, Consumer<Game> consumer)
+    {
+        Game game;
+
+        reader.setInput(ByteBuffer.wrap(chunk.bytes, 0, chunk.length), chunk.firstLine);
+
+        while (true)
+        {
+            try
+            {
+                game = reader.readGame();
+            }
+            catch (InvalidPGNException exception)
+            {
+                result.addInvalidGame(exception.isIllegalMove(), exception.getLine());
+                continue;
+            }
+            catch (IOException exception)
+            {
+                // Reading a buffer in memory does not fail
+                throw new UncheckedIOException(exception);
+            }
+
+            if (game == null)
+            {
+                return;
+            }
+
+            result.addGame(game);
+
+            if (consumer != null)
+            {
+                consumer.accept(game);
+            }
+        }
+    }
+
+    /**
+     * Takes the next chunk from a queue, even if the waiting thread gets interrupted
+     * @param queue The queue
+     * @return The chunk
+     */
+    private static Chunk take(BlockingQueue<Chunk> queue)
+    {
+        boolean isInterrupted = false;
+
+        try
+        {
+            while (true)
+            {
+                try
+                {
+                    return queue.take();
+                }
+                catch (InterruptedException exception)
+                {
+                    isInterrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            if (isInterrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits for a worker thread to finish, even if the waiting thread gets interrupted
+     * @param worker The worker thread
+     */
+    private static void join(Thread worker)
+    {
+        boolean isInterrupted = false;
+
+        while (worker.isAlive())
+        {
+            try
+            {
+                worker.join();
+            }
+            catch (InterruptedException exception)
+            {
+                isInterrupted = true;
+            }
+        }
+
+        if (isInterrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A piece of the input that only contains whole games
+     */
+    private static class Chunk
+    {
+        private byte[] bytes; // the games, only the first <i>length</i> bytes are valid
+        private int length = 0;
+        private long firstLine = 1; // the line of the input the chunk starts on
+
+        /**
+         * Create an empty chunk
+         * @param capacity How many bytes fit into the chunk before it has to grow
+         */
+        private Chunk(int capacity)
+        {
+            this.bytes = new byte[capacity];
+        }
+
+        /**
+         * Adds bytes to the end of the chunk, a chunk only grows if a single game is larger than it
+         * @param source The array the bytes are copied from
+         * @param offset The first byte to copy
+         * @param count How many bytes to copy
+         */
+        private void append(byte[] source, int offset, int count)
+        {
+            if (this.length + count > this.bytes.length)
+            {
+                this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.length + count));
+            }
+
+            System.arraycopy(source, offset, this.bytes, this.length, count);
+            this.length += count;
+        }
+    }
+}
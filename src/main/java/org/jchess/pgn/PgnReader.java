@@ -0,0 +1,861 @@
+package org.jchess.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.FENManager;
+import org.jchess.control.MoveManager;
+import org.jchess.exceptions.InvalidFENException;
+import org.jchess.exceptions.InvalidPGNException;
+import org.jchess.model.Board;
+import org.jchess.model.Game;
+import org.jchess.model.Move;
+
+/**
+ * Reads the games of a PGN file one after another and replays their moves
+ * The input is read through a fixed size buffer (or a memory mapped window of a file), so the memory used does not depend on the size of the file.
+ * Comments, NAGs and variations are parsed but not kept, only the tag pairs, the moves of the main line and the result end up in the {@link Game}
+ * <p>
+ * Every move is replayed through {@link MoveManager#getMoveFromString(Board, String)}, so a game with an illegal move is reported as invalid.
+ * The reader always continues with the game after an invalid one
+ */
+public class PgnReader implements Closeable
+{
+    private static final int BUFFER_SIZE = 1 << 16; // how many bytes are read from a stream at once
+    private static final long WINDOW_SIZE = 1L << 28; // how many bytes of a file are mapped at once
+    private static final int MAX_TOKEN_LENGTH = 32; // the longest move, move number or result that is accepted
+    private static final int MAX_TAG_LENGTH = 1 << 16; // the longest tag name or value that is accepted
+
+    private static final int END_OF_INPUT = -1;
+    private static final int NO_BYTE = -2; // there is no byte waiting to be read again
+
+    private final ReadableByteChannel channel; // the stream that is read, null if a file is mapped
+    private final FileChannel file; // the file that is mapped, null if a stream is read
+    private ByteBuffer buffer; // the bytes that were read but not parsed yet
+    private long windowStart = 0; // where the mapped window starts inside the file
+
+    private Board startBoard = null; // the board games from the standard position are played on, it is reused by taking back the moves of the previous game
+    private Board setUpBoard = null; // the board games with a FEN tag are played on, it is set up again for every game
+
+    private int pushback = NO_BYTE; // a byte that ended a token and has to be read again
+    private int previousByte = '\n'; // the byte that was read last
+    private boolean isLineStart = true; // is the byte that was read last the first one of its line?
+    private long line = 0; // the line of the byte that was read last
+
+    private final char[] token = new char[MAX_TOKEN_LENGTH]; // the move, move number or result that is currently read
+    private int tokenLength = 0;
+    private byte[] tag = new byte[64]; // the tag name or value that is currently read
+    private int tagLength = 0;
+
+    private long errorLine = 0; // the line of the first error inside the current game, 0 if there was none
+    private long FENTagLine = 0; // the line of the FEN tag of the current game
+    private Throwable errorCause = null;
+    private boolean isErrorIllegalMove = false; // was the first error of the current game a well-formed move that is not legal?
+
+    private long gameCount = 0; // how many games were read, including invalid ones
+    private long invalidGameCount = 0; // how many games could not be read or contained an illegal move
+
+    /**
+     * Create a reader for a stream of PGN text
+     * @param stream The stream to read, it is closed together with the reader
+     */
+    public PgnReader(InputStream stream)
+    {
+        this.channel = Channels.newChannel(stream);
+        this.file = null;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    /**
+     * Create a reader for PGN text that is already in memory
+     * @param buffer The buffer, its remaining bytes are read
+     */
+    public PgnReader(ByteBuffer buffer)
+    {
+        this.channel = null;
+        this.file = null;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Create a reader for a PGN file that is mapped into memory
+     * @param path The path of the file
+     * @throws IOException If the file cannot be opened
+     */
+    public PgnReader(Path path) throws IOException
+    {
+        this.channel = null;
+        this.file = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Reads the next game
+     * @return The game, <i>null</i> if there are no more games
+     * @throws InvalidPGNException If the game could not be read or contains an illegal move. The reader continues with the next game afterwards
+     * @throws IOException If the input could not be read
+     */
+    public Game readGame() throws IOException
+    {
+        Game game;
+        Board board;
+        int c = this.readNonSpace();
+
+        // Comments and escaped lines can also stand between games, they are skipped
+        while ((c == '%' && this.isLineStart) || c == ';' || c == '{')
+        {
+            if (c == '{')
+            {
+                this.skipComment();
+            }
+            else
+            {
+                this.skipLine(c);
+            }
+
+            c = this.readNonSpace();
+        }
+
+        if (c == END_OF_INPUT)
+        {
+            return null;
+        }
+
+        game = new Game();
+        this.errorLine = 0;
+        this.errorCause = null;
+        this.isErrorIllegalMove = false;
+
+        c = this.readTags(game, c);
+        board = this.createBoard(game);
+        this.readMovetext(game, board, c);
+
+        this.gameCount ++;
+
+        if (this.errorLine != 0)
+        {
+            this.invalidGameCount ++;
+            throw new InvalidPGNException(this.errorLine, this.isErrorIllegalMove, this.errorCause);
+        }
+
+        return game;
+    }
+
+    /**
+     * Reads all remaining games and passes every valid one on. Invalid games are skipped and counted (see {@link #getInvalidGameCount()})
+     * @param consumer Receives the games in the order they appear in the input
+     * @throws IOException If the input could not be read
+     */
+    public void forEachGame(Consumer<Game> consumer) throws IOException
+    {
+        Game game;
+
+        while ((game = this.readValidGame()) != null)
+        {
+            consumer.accept(game);
+        }
+    }
+
+    /**
+     * Gets a stream of all remaining valid games. Invalid games are skipped and counted (see {@link #getInvalidGameCount()})
+     * The games are read lazily while the stream is consumed, errors of the input are thrown as <i>UncheckedIOException</i>
+     * @return A sequential stream of the games in the order they appear in the input
+     */
+    public Stream<Game> games()
+    {
+        Iterator<Game> iterator = new Iterator<Game>()
+        {
+            private Game nextGame = null; // the game that was read ahead by hasNext()
+
+            @Override
+            public boolean hasNext()
+            {
+                if (this.nextGame == null)
+                {
+                    try
+                    {
+                        this.nextGame = PgnReader.this.readValidGame();
+                    }
+                    catch (IOException exception)
+                    {
+                        throw new UncheckedIOException(exception);
+                    }
+                }
+
+                return this.nextGame != null;
+            }
+
+            @Override
+            public Game next()
+            {
+                Game game;
+
+                if (!this.hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                game = this.nextGame;
+                this.nextGame = null;
+
+                return game;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (this.channel != null)
+        {
+            this.channel.close();
+        }
+
+        if (this.file != null)
+        {
+            this.file.close();
+        }
+    }
+
+    /**
+     * Gets how many games were read so far
+     * @return The number of games, including invalid ones
+     */
+    public long getGameCount()
+    {
+        return this.gameCount;
+    }
+
+    public long getInvalidGameCount()
+    {
+        return this.invalidGameCount;
+    }
+
+    public long getLine()
+    {
+        return this.line;
+    }
+
+    /**
+     * Lets a reader that was created for a buffer continue with another buffer, the board of the reader is kept
+     * @param buffer The buffer, its remaining bytes are read
+     * @param firstLine The line of the whole input the buffer starts on, so errors report the line of the input and not of the buffer
+     */
+    void setInput(ByteBuffer buffer, long firstLine)
+    {
+        this.buffer = buffer;
+        this.pushback = NO_BYTE;
+        this.previousByte = '\n';
+        this.isLineStart = true;
+        this.line = firstLine - 1;
+    }
+
+    /**
+     * Reads games until a valid one is found
+     * @return The game, <i>null</i> if there are no more games
+     */
+    private Game readValidGame() throws IOException
+    {
+        while (true)
+        {
+            try
+            {
+                return this.readGame();
+            }
+            catch (InvalidPGNException exception)
+            {
+                // The game was counted as invalid and the reader already stands at the next game
+            }
+        }
+    }
+
+    /**
+     * Reads the tag pairs at the start of a game
+     * @param game The game the tags are added to
+     * @param c The first character of the game
+     * @return The first character after the tag pairs
+     */
+    private int readTags(Game game, int c) throws IOException
+    {
+        while (c == '[')
+        {
+            this.readTag(game);
+            c = this.readNonSpace();
+        }
+
+        return c;
+    }
+
+    /**
+     * Reads a single tag pair like <i>[White "Morphy, Paul"]</i>, the opening bracket was already read
+     * @param game The game the tag is added to
+     */
+    private void readTag(Game game) throws IOException
+    {
+        String name;
+        int c = this.readNonSpace();
+
+        this.tagLength = 0;
+
+        while (Character.isLetterOrDigit(c) || c == '_')
+        {
+            this.appendTagByte(c);
+            c = this.read();
+        }
+
+        name = new String(this.tag, 0, this.tagLength, StandardCharsets.US_ASCII);
+
+        if (c == ' ' || c == '\t')
+        {
+            c = this.readNonSpace();
+        }
+
+        if (this.tagLength == 0 || c != '"')
+        {
+            this.fail(null);
+            this.skipLine(c);
+            return;
+        }
+
+        this.tagLength = 0;
+
+        // Read the value, a backslash escapes quotes and backslashes inside of it
+        for (c = this.read(); c != '"'; c = this.read())
+        {
+            if (c == '\\')
+            {
+                c = this.read();
+            }
+
+            if (c == END_OF_INPUT || c == '\n')
+            {
+                this.fail(null);
+                return;
+            }
+
+            this.appendTagByte(c);
+        }
+
+        game.getTags().put(name, new String(this.tag, 0, this.tagLength, StandardCharsets.UTF_8));
+
+        if (name.equals("FEN"))
+        {
+            this.FENTagLine = this.line;
+        }
+
+        c = this.readNonSpace();
+
+        if (c != ']')
+        {
+            this.fail(null);
+            this.skipLine(c);
+        }
+    }
+
+    /**
+     * Gets the board the moves of a game are played on, which is the standard position unless the game has a <i>FEN</i> tag
+     * @param game The game with its tags
+     * @return The board, <i>null</i> if the FEN could not be read
+     */
+    private Board createBoard(Game game)
+    {
+        String FEN = game.getTag("FEN");
+
+        if (FEN == null)
+        {
+            if (this.startBoard == null)
+            {
+                this.startBoard = BoardManager.generateBoard();
+            }
+
+            // Take back the moves of the previous game instead of creating a new board
+            while (this.startBoard.getUndoStack().getSize() > 0)
+            {
+                BoardManager.unmakeMove(this.startBoard);
+            }
+
+            return this.startBoard;
+        }
+
+        if (this.setUpBoard == null)
+        {
+            this.setUpBoard = new Board();
+        }
+
+        try
+        {
+            FENManager.setBoard(this.setUpBoard, FEN);
+            return this.setUpBoard;
+        }
+        catch (InvalidFENException exception)
+        {
+            // The error is reported on the line of the tag, not on the first line of the moves
+            this.fail(exception, this.FENTagLine);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the moves of a game until its result, the end of the input or the tags of the next game
+     * @param game The game the moves and the result are added to
+     * @param board The board the moves are played on, <i>null</i> if the moves should only be skipped
+     * @param c The first character of the movetext
+     */
+    private void readMovetext(Game game, Board board, int c) throws IOException
+    {
+        int variationDepth = 0; // how many variations are currently open
+
+        while (true)
+        {
+            switch (c)
+            {
+                case END_OF_INPUT:
+                    if (variationDepth != 0)
+                    {
+                        this.fail(null);
+                    }
+
+                    this.setResultFromTag(game);
+                    return;
+
+                case '[':
+                    // The next game started without this one having a result
+                    if (variationDepth != 0)
+                    {
+                        this.fail(null);
+                    }
+
+                    this.pushback = c;
+                    this.setResultFromTag(game);
+                    return;
+
+                case '{':
+                    this.skipComment();
+                    break;
+
+                case ';':
+                    this.skipLine(c);
+                    break;
+
+                case '%':
+                    // A percent sign at the start of a line escapes the whole line
+                    if (!this.isLineStart)
+                    {
+                        this.fail(null);
+                    }
+
+                    this.skipLine(c);
+                    break;
+
+                case '(':
+                    variationDepth ++;
+                    break;
+
+                case ')':
+                    if (variationDepth == 0)
+                    {
+                        this.fail(null);
+                    }
+                    else
+                    {
+                        variationDepth --;
+                    }
+                    break;
+
+                case '$':
+                    // Numeric annotation glyph
+                    for (c = this.read(); c >= '0' && c <= '9'; c = this.read());
+                    continue;
+
+                case '!':
+                case '?':
+                    // Move annotations like "!?" are written right after the move
+                    break;
+
+                case '}':
+                case ']':
+                    this.fail(null);
+                    break;
+
+                default:
+                    c = this.readToken(c);
+
+                    if (this.isResultToken())
+                    {
+                        if (variationDepth == 0)
+                        {
+                            game.setResult(new String(this.token, 0, this.tokenLength));
+                            return;
+                        }
+                    }
+                    else
+                    {
+                        this.readMoveToken(game, variationDepth == 0 ? board : null);
+                    }
+
+                    if (c != ' ' && c != '\n' && c != '\r' && c != '\t')
+                    {
+                        continue;
+                    }
+            }
+
+            c = this.readNonSpace();
+        }
+    }
+
+    /**
+     * Handles a token of the movetext that is not a result, which is a move number, a move or both (i.e. "12.", "Nf3" or "1.e4")
+     * @param game The game the move is added to
+     * @param board The board the move is played on, <i>null</i> if it should be skipped
+     */
+    private void readMoveToken(Game game, Board board)
+    {
+        int start = 0;
+
+        // Skip the move number and its dots
+        while (start < this.tokenLength && this.token[start] >= '0' && this.token[start] <= '9' && this.token[0] != '0')
+        {
+            start ++;
+        }
+
+        while (start < this.tokenLength && this.token[start] == '.')
+        {
+            start ++;
+        }
+
+        if (start == this.tokenLength)
+        {
+            return;
+        }
+
+        if (board != null && this.errorLine == 0)
+        {
+            this.playMove(game, board, start);
+        }
+    }
+
+    /**
+     * Plays the move of the current token
+     * @param game The game the move is added to
+     * @param board The board the move is played on
+     * @param start Where the move starts inside of the token
+     */
+    private void playMove(Game game, Board board, int start)
+    {
+        Move move;
+
+        // Castling is sometimes written with zeros
+        if (this.token[start] == '0')
+        {
+            for (int i = start; i < this.tokenLength; i ++)
+            {
+                this.token[i] = this.token[i] == '0' ? 'O' : this.token[i];
+            }
+        }
+
+        if (this.tokenLength - start < 2 || "KQRBNOabcdefgh".indexOf(this.token[start]) == -1)
+        {
+            this.fail(null);
+            return;
+        }
+
+        // The notation parser does not validate its input, so a malformed move can make it fail in several ways
+        try
+        {
+            move = MoveManager.getMoveFromString(board, new String(this.token, start, this.tokenLength - start));
+
+            if (move.getPiece() == null || !BoardManager.movePiece(board, move.getPiece(), move.getPosition(), move.getPromotionType()))
+            {
+                this.failIllegalMove();
+                return;
+            }
+        }
+        catch (RuntimeException exception)
+        {
+            this.fail(exception);
+            return;
+        }
+
+        game.addMove(board.getUndoStack().getLastMove());
+    }
+
+    /**
+     * Checks if the current token is a game result
+     * @return <i>true</i> for "1-0", "0-1", "1/2-1/2" and "*"
+     */
+    private boolean isResultToken()
+    {
+        switch (this.tokenLength)
+        {
+            case 1:
+                return this.token[0] == '*';
+
+            case 3:
+                return (this.token[0] == '1' && this.token[1] == '-' && this.token[2] == '0')
+                    || (this.token[0] == '0' && this.token[1] == '-' && this.token[2] == '1');
+
+            case 7:
+                return new String(this.token, 0, 7).equals("1/2-1/2");
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Uses the <i>Result</i> tag for a game whose movetext does not end with a result
+     * @param game The game
+     */
+    private void setResultFromTag(Game game)
+    {
+        String result = game.getTag("Result");
+
+        game.setResult(result != null ? result : Game.UNKNOWN_RESULT);
+    }
+
+    /**
+     * Reads a token of the movetext into the token buffer
+     * @param c The first character of the token
+     * @return The character that ended the token
+     */
+    private int readToken(int c) throws IOException
+    {
+        this.tokenLength = 0;
+
+        while (!this.isTokenEnd(c))
+        {
+            if (this.tokenLength == MAX_TOKEN_LENGTH)
+            {
+                this.fail(null);
+            }
+            else
+            {
+                this.token[this.tokenLength] = (char) c;
+                this.tokenLength ++;
+            }
+
+            c = this.read();
+        }
+
+        return c;
+    }
+
+    /**
+     * Checks if a character ends a token of the movetext
+     * @param c The character
+     * @return <i>true</i> for whitespace, the end of the input and every character that starts something else
+     */
+    private boolean isTokenEnd(int c)
+    {
+        switch (c)
+        {
+            case END_OF_INPUT:
+            case ' ':
+            case '\n':
+            case '\r':
+            case '\t':
+            case '{':
+            case '}':
+            case '(':
+            case ')':
+            case ';':
+            case '[':
+            case ']':
+            case '$':
+            case '!':
+            case '?':
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Skips a comment in braces, the opening brace was already read
+     */
+    private void skipComment() throws IOException
+    {
+        int c;
+
+        for (c = this.read(); c != '}' && c != END_OF_INPUT; c = this.read());
+
+        if (c == END_OF_INPUT)
+        {
+            this.fail(null);
+        }
+    }
+
+    /**
+     * Skips the rest of the current line
+     * @param c The character that was read last
+     */
+    private void skipLine(int c) throws IOException
+    {
+        while (c != '\n' && c != END_OF_INPUT)
+        {
+            c = this.read();
+        }
+    }
+
+    /**
+     * Remembers the first error of the current game, the game is reported as invalid once it was read completely
+     * @param cause The exception that caused the error, can be null
+     */
+    private void fail(Throwable cause)
+    {
+        this.fail(cause, this.line);
+    }
+
+    /**
+     * Remembers the first error of the current game on a given line
+     * @param cause The exception that caused the error, can be null
+     * @param line The line the error was found on
+     */
+    private void fail(Throwable cause, long line)
+    {
+        if (this.errorLine == 0)
+        {
+            this.errorLine = line;
+            this.errorCause = cause;
+        }
+    }
+
+    /**
+     * Remembers a well-formed move that is not legal as the first error of the current game, unless there already was an error
+     */
+    private void failIllegalMove()
+    {
+        if (this.errorLine == 0)
+        {
+            this.fail(null);
+            this.isErrorIllegalMove = true;
+        }
+    }
+
+    private void appendTagByte(int c)
+    {
+        if (this.tagLength == this.tag.length && this.tag.length < MAX_TAG_LENGTH)
+        {
+            this.tag = Arrays.copyOf(this.tag, this.tag.length * 2);
+        }
+
+        if (this.tagLength < this.tag.length)
+        {
+            this.tag[this.tagLength] = (byte) c;
+            this.tagLength ++;
+        }
+    }
+
+    /**
+     * Reads the next character that is not whitespace
+     * @return The character, <i>END_OF_INPUT</i> at the end of the input
+     */
+    private int readNonSpace() throws IOException
+    {
+        int c = this.read();
+
+        // The byte order mark some programs write in front of UTF-8 files is skipped like whitespace
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == 0xEF || c == 0xBB || c == 0xBF)
+        {
+            c = this.read();
+        }
+
+        return c;
+    }
+
+    /**
+     * Reads the next byte of the input
+     * @return The byte from 0 to 255, <i>END_OF_INPUT</i> at the end of the input
+     */
+    private int read() throws IOException
+    {
+        int c;
+
+        if (this.pushback != NO_BYTE)
+        {
+            c = this.pushback;
+            this.pushback = NO_BYTE;
+            return c;
+        }
+
+        if (!this.buffer.hasRemaining() && !this.fill())
+        {
+            return END_OF_INPUT;
+        }
+
+        c = this.buffer.get() & 0xFF;
+
+        this.isLineStart = this.previousByte == '\n';
+        this.previousByte = c;
+
+        if (this.isLineStart)
+        {
+            this.line ++;
+        }
+
+        return c;
+    }
+
+    /**
+     * Refills the buffer with the next bytes of the input
+     * @return <i>true</i> if there are more bytes, <i>false</i> at the end of the input
+     */
+    private boolean fill() throws IOException
+    {
+        int bytesRead;
+
+        if (this.file == null && this.channel == null)
+        {
+            return false;
+        }
+
+        if (this.file != null)
+        {
+            long size = this.file.size();
+
+            this.windowStart += this.buffer.limit();
+
+            if (this.windowStart >= size)
+            {
+                return false;
+            }
+
+            this.buffer = this.file.map(FileChannel.MapMode.READ_ONLY, this.windowStart, Math.min(WINDOW_SIZE, size - this.windowStart));
+            return true;
+        }
+
+        this.buffer.clear();
+
+        do
+        {
+            bytesRead = this.channel.read(this.buffer);
+        }
+        while (bytesRead == 0);
+
+        this.buffer.flip();
+
+        return bytesRead > 0;
+    }
+}
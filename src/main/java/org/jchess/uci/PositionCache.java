@@ -0,0 +1,130 @@
+package org.jchess.uci;
+
+import java.util.Arrays;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.FENManager;
+import org.jchess.model.Board;
+
+/**
+ * Keeps the board of a UCI session from one <i>position</i> command to the next
+ * GUIs send the whole game again after every move. As long as the start position stays the same, only the moves that differ from the last command
+ * are taken back or played, so a command that adds one move to a long game costs one move instead of the whole game
+ */
+public class PositionCache
+{
+    private final Board board = new Board();
+    private String FEN; // the FEN the moves were played from, null if the board was not set up yet
+    private String[] moves = new String[256]; // the moves that were played on the board, only the first <i>moveCount</i> entries are valid
+    private int moveCount = 0;
+    private long playedMoves = 0; // how many moves were played over all commands, including the ones of rebuilds
+    private long rebuilds = 0; // how often the board had to be set up from the FEN again
+
+    /**
+     * Sets up the board for a position command
+     * The moves both commands have in common stay on the board, the rest of the old moves is taken back and the new ones are played
+     * @param FEN The start position of the game
+     * @param moves The moves of the game in UCI notation
+     * @param start The index of the first move in <i>moves</i>
+     * @return <i>true</i> if all moves were played, <i>false</i> if a move was illegal. The board stays at the position before that move
+     * @throws org.jchess.exceptions.InvalidFENException If the FEN is invalid, the board is empty afterwards
+     */
+    public boolean setPosition(String FEN, String[] moves, int start)
+    {
+        int commonMoves = 0; // how many of the moves on the board are the same as the first new moves
+
+        if (FEN.equals(this.FEN))
+        {
+            while (commonMoves < this.moveCount && start + commonMoves < moves.length && this.moves[commonMoves].equals(moves[start + commonMoves]))
+            {
+                commonMoves ++;
+            }
+
+            // Moves that were taken back in the GUI are taken back here as well
+            while (this.moveCount > commonMoves)
+            {
+                BoardManager.unmakeMove(this.board);
+                this.moveCount --;
+            }
+        }
+        else
+        {
+            this.FEN = null;
+            this.moveCount = 0;
+            FENManager.setBoard(this.board, FEN);
+            this.FEN = FEN;
+            this.rebuilds ++;
+        }
+
+        for (int i = start + this.moveCount; i < moves.length; i ++)
+        {
+            if (!this.playMove(moves[i]))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Forgets the game, the next position command sets up the board from its FEN again
+     */
+    public void clear()
+    {
+        this.FEN = null;
+        this.moveCount = 0;
+    }
+
+    public Board getBoard()
+    {
+        return this.board;
+    }
+
+    public int getMoveCount()
+    {
+        return this.moveCount;
+    }
+
+    public long getPlayedMoves()
+    {
+        return this.playedMoves;
+    }
+
+    public long getRebuilds()
+    {
+        return this.rebuilds;
+    }
+
+    /**
+     * Plays a move and remembers it
+     * @param move The move in UCI notation, i.e. "e2e4" or "e7e8q"
+     * @return <i>true</i> if the move was played, <i>false</i> if it is illegal
+     */
+    private boolean playMove(String move)
+    {
+        try
+        {
+            if (move.length() < 4 || !BoardManager.movePieceUCI(this.board, move))
+            {
+                return false;
+            }
+        }
+        catch (RuntimeException exception)
+        {
+            // There is no piece on the origin or the squares are not on the board
+            return false;
+        }
+
+        if (this.moveCount == this.moves.length)
+        {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+        }
+
+        this.moves[this.moveCount] = move;
+        this.moveCount ++;
+        this.playedMoves ++;
+
+        return true;
+    }
+}
@@ -0,0 +1,441 @@
+package org.jchess.uci;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.jchess.control.FENManager;
+import org.jchess.engine.ParallelSearch;
+import org.jchess.engine.SearchLimits;
+import org.jchess.engine.SearchResult;
+import org.jchess.engine.TranspositionTable;
+import org.jchess.exceptions.InvalidFENException;
+import org.jchess.model.Board;
+import org.jchess.model.Color;
+import org.jchess.model.Move;
+
+/**
+ * Talks to a chess GUI through the Universal Chess Interface (UCI), so the library can run as an engine process
+ * <p>
+ * The commands are read and answered on the thread that calls {@link #run()}, while every search runs on a thread of its own.
+ * That way <i>stop</i> and <i>isready</i> are answered right away even during a long analysis
+ * <p>
+ * Supported are <i>uci</i>, <i>isready</i>, <i>ucinewgame</i>, <i>setoption</i> (Hash, Threads, Clear Hash), <i>position [startpos | fen ...] [moves ...]</i>,
+ * <i>go</i> with depth, nodes, movetime, infinite and the clock (wtime, btime, winc, binc, movestogo), <i>stop</i> and <i>quit</i>. Unknown commands are ignored
+ */
+public class UCIEngine
+{
+    public static final String NAME = "JChess";
+    public static final String AUTHOR = "Arian Dannemann";
+
+    private static final int DEFAULT_HASH_SIZE = 64; // the size of the transposition table in MB until the GUI sets another one
+    private static final int MAX_THREADS = 256;
+    private static final int DEFAULT_MOVES_TO_GO = 30; // how many moves the remaining time is split into if the GUI does not say
+    private static final long STOP_INTERVAL = 10; // how many milliseconds to wait between two attempts to stop a search
+
+    private final BufferedReader input;
+    private final PrintStream output;
+    private final PositionCache positionCache = new PositionCache(); // the position of the last "position" command
+    private final Board board = this.positionCache.getBoard();
+    private TranspositionTable transpositionTable = new TranspositionTable(DEFAULT_HASH_SIZE);
+    private ParallelSearch search = new ParallelSearch(1, this.transpositionTable);
+    private Thread searchThread; // the thread of the running search, null if no search was started since the last stop
+    private boolean isInfinite = false; // does the running search have to wait for "stop" before it answers, guarded by this
+
+    /**
+     * Create an engine
+     * @param input Where the commands of the GUI come from
+     * @param output Where the answers are written to
+     */
+    public UCIEngine(InputStream input, PrintStream output)
+    {
+        this.input = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.output = output;
+        this.positionCache.setPosition(FENManager.START_FEN, new String[0], 0);
+    }
+
+    /**
+     * Reads and handles commands until <i>quit</i> is received or the input ends
+     * @throws IOException If the input could not be read
+     */
+    public void run() throws IOException
+    {
+        String line;
+
+        try
+        {
+            while ((line = this.input.readLine()) != null)
+            {
+                if (!this.handleCommand(line.trim()))
+                {
+                    break;
+                }
+            }
+        }
+        finally
+        {
+            this.stopSearch();
+            this.search.shutdown();
+        }
+    }
+
+    /**
+     * Handles a single command
+     * @param command The command without surrounding spaces
+     * @return <i>false</i> if the engine should quit, <i>true</i> otherwise
+     */
+    public boolean handleCommand(String command)
+    {
+        String[] tokens = command.split("\\s+");
+
+        switch (tokens[0])
+        {
+            case "uci":
+                this.output.println("id name " + NAME);
+                this.output.println("id author " + AUTHOR);
+                this.output.println("option name Hash type spin default " + DEFAULT_HASH_SIZE + " min 1 max " + TranspositionTable.MAX_SIZE_IN_MB);
+                this.output.println("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                this.output.println("option name Clear Hash type button");
+                this.output.println("uciok");
+                break;
+
+            case "isready":
+                this.output.println("readyok");
+                break;
+
+            case "ucinewgame":
+                this.stopSearch();
+                this.transpositionTable.clear();
+                this.positionCache.clear();
+                this.positionCache.setPosition(FENManager.START_FEN, new String[0], 0);
+                break;
+
+            case "setoption":
+                this.stopSearch();
+                this.setOption(tokens);
+                break;
+
+            case "position":
+                this.stopSearch();
+                this.setPosition(tokens);
+                break;
+
+            case "go":
+                this.stopSearch();
+                this.startSearch(tokens);
+                break;
+
+            case "stop":
+                this.stopSearch();
+                break;
+
+            case "quit":
+                return false;
+
+            default:
+                break;
+        }
+
+        return true;
+    }
+
+    public Board getBoard()
+    {
+        return this.board;
+    }
+
+    /**
+     * Handles <i>setoption name &lt;name&gt; [value &lt;value&gt;]</i>, names can contain spaces
+     * @param tokens The words of the command
+     */
+    private void setOption(String[] tokens)
+    {
+        StringBuilder name = new StringBuilder();
+        String value = null;
+        int i = 2; // the first word of the name follows "setoption name"
+
+        while (i < tokens.length && !tokens[i].equals("value"))
+        {
+            name.append(name.length() > 0 ? " " : "").append(tokens[i]);
+            i ++;
+        }
+
+        if (i + 1 < tokens.length)
+        {
+            value = tokens[i + 1];
+        }
+
+        try
+        {
+            switch (name.toString().toLowerCase())
+            {
+                case "hash":
+                    this.transpositionTable = new TranspositionTable(Integer.parseInt(value));
+                    this.replaceSearch(new ParallelSearch(this.search.getThreadCount(), this.transpositionTable));
+                    break;
+
+                case "threads":
+                    this.replaceSearch(new ParallelSearch(Math.min(Integer.parseInt(value), MAX_THREADS), this.transpositionTable));
+                    break;
+
+                case "clear hash":
+                    this.transpositionTable.clear();
+                    break;
+
+                default:
+                    this.output.println("info string Unknown option " + name);
+                    break;
+            }
+        }
+        catch (RuntimeException exception)
+        {
+            this.output.println("info string Invalid value for option " + name);
+        }
+    }
+
+    /**
+     * Uses another search from now on and ends the helper threads of the old one. No search may be running
+     * @param search The new search
+     */
+    private void replaceSearch(ParallelSearch search)
+    {
+        this.search.shutdown();
+        this.search = search;
+    }
+
+    /**
+     * Handles <i>position [startpos | fen &lt;FEN&gt;] [moves &lt;move&gt; ...]</i>
+     * The board is kept from the last command, so only the moves that changed are taken back or played (see {@link PositionCache}).
+     * If a move is illegal the moves after it are left out
+     * @param tokens The words of the command
+     */
+    private void setPosition(String[] tokens)
+    {
+        int movesIndex = tokens.length; // the index of the word "moves"
+        String FEN = FENManager.START_FEN;
+
+        for (int i = 1; i < tokens.length; i ++)
+        {
+            if (tokens[i].equals("moves"))
+            {
+                movesIndex = i;
+                break;
+            }
+        }
+
+        if (tokens.length > 1 && tokens[1].equals("fen"))
+        {
+            FEN = String.join(" ", Arrays.copyOfRange(tokens, 2, Math.max(2, movesIndex)));
+        }
+
+        try
+        {
+            if (!this.positionCache.setPosition(FEN, tokens, movesIndex + 1))
+            {
+                this.output.println("info string Illegal move " + tokens[movesIndex + 1 + this.positionCache.getMoveCount()]);
+            }
+        }
+        catch (InvalidFENException exception)
+        {
+            this.output.println("info string " + exception.getMessage());
+            this.positionCache.setPosition(FENManager.START_FEN, tokens, tokens.length);
+        }
+    }
+
+    /**
+     * Handles <i>go</i> and starts a search on its own thread, which prints the best move once it is done
+     * @param tokens The words of the command
+     */
+    private void startSearch(String[] tokens)
+    {
+        SearchLimits limits = new SearchLimits();
+        boolean isWhite = this.board.getPlayingSideColor() == Color.WHITE;
+        long remainingTime = SearchLimits.NO_LIMIT; // the time left on our clock
+        long increment = 0;
+        long movesToGo = DEFAULT_MOVES_TO_GO;
+        boolean isInfinite = false;
+
+        for (int i = 1; i < tokens.length; i ++)
+        {
+            String value = i + 1 < tokens.length ? tokens[i + 1] : "0";
+
+            try
+            {
+                switch (tokens[i])
+                {
+                    case "depth":
+                        limits.setDepth(Integer.parseInt(value));
+                        break;
+
+                    case "nodes":
+                        limits.setNodes(Long.parseLong(value));
+                        break;
+
+                    case "movetime":
+                        limits.setTime(Long.parseLong(value));
+                        break;
+
+                    case "wtime":
+                    case "btime":
+                        if (tokens[i].equals("wtime") == isWhite)
+                        {
+                            remainingTime = Long.parseLong(value);
+                        }
+                        break;
+
+                    case "winc":
+                    case "binc":
+                        if (tokens[i].equals("winc") == isWhite)
+                        {
+                            increment = Long.parseLong(value);
+                        }
+                        break;
+
+                    case "movestogo":
+                        movesToGo = Math.max(1, Long.parseLong(value));
+                        break;
+
+                    case "infinite":
+                        isInfinite = true;
+                        break;
+
+                    default:
+                        break;
+                }
+            }
+            catch (NumberFormatException exception)
+            {
+                this.output.println("info string Invalid value for " + tokens[i]);
+            }
+        }
+
+        // Without a fixed time the clock is split over the moves that are left, but never more than half of it is used
+        if (limits.getTime() == SearchLimits.NO_LIMIT && remainingTime > 0 && !isInfinite)
+        {
+            limits.setTime(Math.max(1, Math.min(remainingTime / 2, remainingTime / movesToGo + increment / 2)));
+        }
+
+        synchronized (this)
+        {
+            this.isInfinite = isInfinite;
+        }
+
+        ParallelSearch search = this.search;
+
+        search.setIterationListener(result -> this.printInfo(result, search));
+        this.searchThread = new Thread(() -> this.search(search, limits), "jchess-uci-search");
+        this.searchThread.setDaemon(true);
+        this.searchThread.start();
+    }
+
+    /**
+     * Runs a search and prints the best move. An infinite search waits for <i>stop</i> before it answers, even if it finished earlier
+     * @param search The search
+     * @param limits When the search has to stop
+     */
+    private void search(ParallelSearch search, SearchLimits limits)
+    {
+        SearchResult result = search.search(this.board, limits);
+        boolean isInterrupted = false;
+
+        synchronized (this)
+        {
+            while (this.isInfinite)
+            {
+                try
+                {
+                    this.wait();
+                }
+                catch (InterruptedException exception)
+                {
+                    isInterrupted = true;
+                }
+            }
+        }
+
+        if (isInterrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        int[] principalVariation = result.getPrincipalVariation();
+
+        if (result.getBestMove() == Move.NONE)
+        {
+            // There is no legal move, which GUIs expect as "0000"
+            this.output.println("bestmove 0000");
+        }
+        else if (principalVariation.length > 1 && principalVariation[0] == result.getBestMove())
+        {
+            this.output.println("bestmove " + Move.toUCIString(result.getBestMove()) + " ponder " + Move.toUCIString(principalVariation[1]));
+        }
+        else
+        {
+            this.output.println("bestmove " + Move.toUCIString(result.getBestMove()));
+        }
+    }
+
+    /**
+     * Stops the running search and waits until it printed its best move
+     * A stop that reaches the search before it really started is repeated until the search thread ends
+     */
+    private void stopSearch()
+    {
+        Thread thread = this.searchThread;
+        boolean isInterrupted = false;
+
+        if (thread == null)
+        {
+            return;
+        }
+
+        synchronized (this)
+        {
+            this.isInfinite = false;
+            this.notifyAll();
+        }
+
+        while (thread.isAlive())
+        {
+            this.search.stop();
+
+            try
+            {
+                thread.join(STOP_INTERVAL);
+            }
+            catch (InterruptedException exception)
+            {
+                isInterrupted = true;
+            }
+        }
+
+        this.searchThread = null;
+
+        if (isInterrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Prints the result of a completed iteration
+     * @param result The result of the iteration
+     * @param search The search, its transposition table tells how full it is
+     */
+    private void printInfo(SearchResult result, ParallelSearch search)
+    {
+        String score = result.isMateScore() ? "mate " + result.getMateInMoves() : "cp " + result.getScore();
+
+        this.output.println("info depth " + result.getDepth()
+            + " score " + score
+            + " nodes " + result.getNodes()
+            + " nps " + result.getNodesPerSecond()
+            + " time " + result.getTime() / 1000000
+            + " hashfull " + search.getTranspositionTable().getUsage()
+            + " pv " + result.getPrincipalVariationString());
+    }
+}
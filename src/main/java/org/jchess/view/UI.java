@@ -1,8 +1,16 @@
 package org.jchess.view;
 
+import java.util.Map;
+
+import org.jchess.control.BitboardManager;
 import org.jchess.control.MoveManager;
+import org.jchess.engine.SearchResult;
 import org.jchess.model.Board;
+import org.jchess.model.BookMove;
 import org.jchess.model.Color;
+import org.jchess.model.Move;
+import org.jchess.model.PerftResult;
+import org.jchess.model.PgnImportResult;
 import org.jchess.model.Piece;
 import org.jchess.model.Position;
 import org.jchess.model.Strings;
@@ -28,7 +36,6 @@ public class UI
      */
     public static void printBoard(Board board)
     {
-        Piece[] pieces = board.getPieces();
         int file;
         int rank;
 
@@ -40,30 +47,10 @@ public class UI
 
             for (file = 0; file < 8; file ++)
             {
-                boolean pieceFound = false;
+                Piece piece = board.getPieceAtSquare(BitboardManager.getSquare(file, rank));
 
                 System.out.print(' ');
-
-                for (Piece piece : pieces)
-                {
-                    if (piece == null)
-                    {
-                        continue;
-                    }
-
-                    if (Position.equals(piece.getPosition(), new Position(file, rank)))
-                    {
-                        System.out.print(UI.getPieceAbbreviation(piece));
-                        pieceFound = true;
-
-                        break;
-                    }
-                }
-
-                if (!pieceFound)
-                {
-                    System.out.print('.');
-                }
+                System.out.print(piece != null ? UI.getPieceAbbreviation(piece) : '.');
 
                 if (file == 7)
                 {
@@ -89,8 +76,8 @@ public class UI
      */
     public static void printBoardWithValidMoves(Board board, Piece targetPiece)
     {
-        Piece[] pieces = board.getPieces();
         Position[] targetPositions = MoveManager.getLegalMoves(board, targetPiece);
+        long targetSquares = 0; // a bitboard of all squares the piece can move to
         int file;
         int rank;
 
@@ -100,46 +87,27 @@ public class UI
             return;
         }
 
+        for (Position targetPosition : targetPositions)
+        {
+            targetSquares |= 1L << BitboardManager.getSquare(targetPosition);
+        }
+
         System.out.println(' ');
 
         for (rank = 7; rank > -1; rank --)
         {
             for (file = 0; file < 8; file ++)
             {
-                boolean pieceFound = false;
-                char ch = ' ';
-
-                System.out.print(' ');
+                int square = BitboardManager.getSquare(file, rank);
+                Piece piece = board.getPieceAtSquare(square);
+                char ch = piece != null ? UI.getPieceAbbreviation(piece) : '.';
 
-                for (Piece piece : pieces)
+                if ((targetSquares & (1L << square)) != 0)
                 {
-                    if (piece == null)
-                    {
-                        continue;
-                    }
-
-                    if (Position.equals(piece.getPosition(), new Position(file, rank)))
-                    {
-                        ch = UI.getPieceAbbreviation(piece);
-                        pieceFound = true;
-
-                        break;
-                    }
-                }
-
-                if (!pieceFound)
-                {
-                    ch = '.';
-                }
-
-                for (Position targePosition : targetPositions)
-                {
-                    if (Position.equals(new Position(file, rank), targePosition))
-                    {
-                        ch = '_';
-                    }
+                    ch = '_';
                 }
 
+                System.out.print(' ');
                 System.out.print(ch);
 
                 if (file == 7)
@@ -154,6 +122,92 @@ public class UI
         System.out.println("Piece count: " + board.getPieces().length);
     }
 
+    /**
+     * Prints the node count of every move of a perft run followed by the total and the speed
+     * @param result The result of the perft run
+     */
+    public static void printPerftResult(PerftResult result)
+    {
+        for (Map.Entry<String, Long> entry : result.getDivide().entrySet())
+        {
+            System.out.println(entry.getKey() + ": " + entry.getValue());
+        }
+
+        System.out.println(' ');
+        System.out.println("Depth: " + result.getDepth());
+        System.out.println("Nodes: " + result.getNodes());
+        System.out.println("Time: " + result.getTime() / 1000000 + " ms");
+        System.out.println("Nodes per second: " + result.getNodesPerSecond());
+    }
+
+    /**
+     * Prints the statistics of the games of a PGN file and how fast they were read
+     * @param result The result of the import
+     */
+    public static void printPgnResult(PgnImportResult result)
+    {
+        System.out.println("Games: " + result.getGames());
+        System.out.println("Invalid games: " + result.getInvalidGames());
+        System.out.println("Games with an illegal move: " + result.getIllegalMoveGames());
+
+        if (result.getFirstInvalidLine() != 0)
+        {
+            System.out.println("First invalid game: line " + result.getFirstInvalidLine());
+        }
+
+        System.out.println("White wins: " + result.getWhiteWins());
+        System.out.println("Black wins: " + result.getBlackWins());
+        System.out.println("Draws: " + result.getDraws());
+        System.out.println("Unknown results: " + result.getUnknownResults());
+        System.out.println("Positions: " + result.getPositions());
+        System.out.println("Time: " + result.getTime() / 1000000 + " ms");
+        System.out.println("Games per second: " + result.getGamesPerSecond());
+    }
+
+    /**
+     * Prints the moves an opening book suggests for a position and how often each of them is played
+     * @param moves The book moves
+     */
+    public static void printBookMoves(BookMove[] moves)
+    {
+        int totalWeight = 0;
+
+        if (moves.length == 0)
+        {
+            UI.println("The book does not know this position");
+            return;
+        }
+
+        for (int i = 0; i < moves.length; i ++)
+        {
+            totalWeight += moves[i].getWeight();
+        }
+
+        for (int i = 0; i < moves.length; i ++)
+        {
+            UI.println(Move.toUCIString(moves[i].getMove()) + ": " + moves[i].getWeight()
+                + (totalWeight == 0 ? "" : " (" + moves[i].getWeight() * 100 / totalWeight + "%)"));
+        }
+    }
+
+    /**
+     * Prints the best move of a search together with its score and the expected continuation
+     * @param result The result of the search
+     */
+    public static void printSearchResult(SearchResult result)
+    {
+        if (result.getBestMove() == Move.NONE)
+        {
+            UI.println("There are no legal moves in this position");
+            return;
+        }
+
+        UI.println("Best move: " + Move.toUCIString(result.getBestMove()));
+        UI.println("Score: " + (result.isMateScore() ? "mate in " + result.getMateInMoves() : (result.getScore() / 100.0) + " pawns"));
+        UI.println("Line: " + result.getPrincipalVariationString());
+        UI.println("Depth: " + result.getDepth() + ", nodes: " + result.getNodes() + ", time: " + result.getTime() / 1000000 + " ms");
+    }
+
     /**
      * Gets the correct abbreviation for a given piece type
      * @param piece The piece for which we want to get the abbreviation
@@ -0,0 +1,69 @@
+package org.jchess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.jchess.control.FENManager;
+import org.jchess.control.ZobristManager;
+import org.jchess.exceptions.InvalidFENException;
+import org.jchess.model.Board;
+import org.junit.Test;
+
+/**
+ * Checks that boards survive being written as FEN and read again
+ */
+public class FENTest
+{
+    private static final String[] FENS = {
+        FENManager.START_FEN,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+        "rnbqkbnr/pppp1ppp/8/8/3Pp3/8/PPP1PPPP/RNBQKBNR b Qk d3 0 2",
+        "8/8/8/8/8/8/8/K6k b - - 3 40"
+    };
+
+    @Test
+    public void fenRoundTrip()
+    {
+        Board board = new Board();
+
+        for (String FEN : FENS)
+        {
+            // The same board is set up again for every position, so nothing of the previous one may be left over
+            FENManager.setBoard(board, FEN);
+            assertEquals(FEN, FENManager.getFEN(board));
+            assertEquals(FEN, ZobristManager.computeKey(board), board.getZobristKey());
+        }
+    }
+
+    @Test
+    public void invalidCharacterOffset()
+    {
+        // The "x" is the 12th character
+        assertOffset("rnbqkbnr/ppxppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", 11);
+        // The side to move
+        assertOffset("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1", 44);
+    }
+
+    /**
+     * Reads an invalid FEN and compares the offset the reader reports
+     * @param FEN The invalid FEN
+     * @param expectedOffset The index of the first character that cannot be read
+     */
+    private static void assertOffset(String FEN, int expectedOffset)
+    {
+        try
+        {
+            FENManager.setBoard(new Board(), FEN);
+            fail(FEN);
+        }
+        catch (InvalidFENException exception)
+        {
+            assertEquals(FEN, expectedOffset, exception.getOffset());
+        }
+    }
+}
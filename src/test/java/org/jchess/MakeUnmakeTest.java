@@ -0,0 +1,132 @@
+package org.jchess;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.EvaluationManager;
+import org.jchess.control.FENManager;
+import org.jchess.control.MoveManager;
+import org.jchess.control.ZobristManager;
+import org.jchess.model.Board;
+import org.jchess.model.Move;
+import org.jchess.model.MoveList;
+import org.junit.Test;
+
+/**
+ * Checks that making and taking back moves keeps the incrementally updated state of a board right
+ */
+public class MakeUnmakeTest
+{
+    private static final int GAMES_PER_POSITION = 20;
+    private static final int MAX_PLIES = 80;
+    private static final String[] FENS = {
+        FENManager.START_FEN,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3"
+    }; // positions with castling, en passant, promotions and checks
+
+    @Test
+    public void unmakeRestoresEveryPositionOfTheTree()
+    {
+        for (String FEN : FENS)
+        {
+            Board board = BoardManager.generateBoard(FEN);
+
+            assertTree(board, FEN, 3);
+            assertEquals(FEN, FENManager.getFEN(board));
+        }
+    }
+
+    @Test
+    public void incrementalStateMatchesRebuild()
+    {
+        Random random = new Random(1);
+
+        for (String FEN : FENS)
+        {
+            for (int game = 0; game < GAMES_PER_POSITION; game ++)
+            {
+                Board board = BoardManager.generateBoard(FEN);
+                String[] FENs = new String[MAX_PLIES];
+                MoveList moveList = new MoveList();
+                int plies = 0;
+
+                // Play random moves and check the board after every one
+                while (plies < MAX_PLIES)
+                {
+                    moveList.clear();
+                    MoveManager.generateLegalMoves(board, moveList);
+
+                    if (moveList.size() == 0)
+                    {
+                        break;
+                    }
+
+                    int move = moveList.get(random.nextInt(moveList.size()));
+
+                    FENs[plies] = FENManager.getFEN(board);
+                    BoardManager.makeMove(board, move);
+                    plies ++;
+                    assertState(board, FEN + " after " + Move.toUCIString(move));
+                }
+
+                // Take all of them back, every position has to be the one before the move
+                while (plies > 0)
+                {
+                    BoardManager.unmakeMove(board);
+                    plies --;
+                    assertEquals(FENs[plies], FENManager.getFEN(board));
+                    assertState(board, FENs[plies]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes and takes back every move down to a depth, the board has to be the same as before every move afterwards
+     * @param board The board
+     * @param FEN The position of the board
+     * @param depth How many plies deep the tree is walked
+     */
+    private static void assertTree(Board board, String FEN, int depth)
+    {
+        MoveList moveList = new MoveList();
+
+        MoveManager.generateLegalMoves(board, moveList);
+
+        for (int i = 0; i < moveList.size(); i ++)
+        {
+            BoardManager.makeMove(board, moveList.get(i));
+
+            if (depth > 1)
+            {
+                assertTree(board, FENManager.getFEN(board), depth - 1);
+            }
+
+            BoardManager.unmakeMove(board);
+            assertEquals(FEN, FENManager.getFEN(board));
+        }
+    }
+
+    /**
+     * Compares the Zobrist key and the evaluation scores of a board to the ones computed from scratch
+     * @param board The board
+     * @param message Describes the position if the check fails
+     */
+    private static void assertState(Board board, String message)
+    {
+        Board rebuilt = BoardManager.copyBoard(board);
+
+        EvaluationManager.updateScores(rebuilt);
+
+        assertEquals(message, ZobristManager.computeKey(board), board.getZobristKey());
+        assertEquals(message, rebuilt.getMiddlegameScore(), board.getMiddlegameScore());
+        assertEquals(message, rebuilt.getEndgameScore(), board.getEndgameScore());
+        assertEquals(message, rebuilt.getPhase(), board.getPhase());
+    }
+}
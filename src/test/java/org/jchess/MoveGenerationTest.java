@@ -0,0 +1,111 @@
+package org.jchess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.FENManager;
+import org.jchess.control.MoveManager;
+import org.jchess.model.Board;
+import org.jchess.model.Move;
+import org.jchess.model.MoveGenerationType;
+import org.jchess.model.MoveList;
+import org.junit.Test;
+
+/**
+ * Checks that the staged move generation splits the legal moves into captures and quiet moves without losing or repeating any
+ */
+public class MoveGenerationTest
+{
+    private static final String[] FENS = {
+        FENManager.START_FEN,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3"
+    }; // positions with castling, en passant, promotions and checks
+
+    @Test
+    public void capturesAndQuietsAreAllMoves()
+    {
+        for (String FEN : FENS)
+        {
+            assertStages(BoardManager.generateBoard(FEN), 3);
+        }
+
+        // Promotions, with and without a capture
+        assertStages(BoardManager.generateBoard("1n2k3/P7/8/8/8/8/5p2/4K1N1 w - - 0 1"), 2);
+    }
+
+    /**
+     * Compares the stages in every position of a tree
+     * @param board The board
+     * @param depth How many plies deep the tree is walked
+     */
+    private static void assertStages(Board board, int depth)
+    {
+        MoveList moveList = new MoveList();
+
+        MoveManager.generateLegalMoves(board, moveList);
+        assertStages(board, moveList);
+
+        if (depth == 1)
+        {
+            return;
+        }
+
+        for (int i = 0; i < moveList.size(); i ++)
+        {
+            BoardManager.makeMove(board, moveList.get(i));
+            assertStages(board, depth - 1);
+            BoardManager.unmakeMove(board);
+        }
+    }
+
+    /**
+     * Compares the captures and the quiet moves of a position to all of its moves
+     * @param board The board
+     * @param allMoves All legal moves of the position
+     */
+    private static void assertStages(Board board, MoveList allMoves)
+    {
+        String FEN = FENManager.getFEN(board);
+        MoveList captures = new MoveList();
+        MoveList quiets = new MoveList();
+        Set<Integer> all = new HashSet<>();
+        Set<Integer> union = new HashSet<>();
+
+        MoveManager.generateLegalMoves(board, captures, MoveGenerationType.CAPTURES);
+        MoveManager.generateLegalMoves(board, quiets, MoveGenerationType.QUIETS);
+
+        for (int i = 0; i < allMoves.size(); i ++)
+        {
+            all.add(allMoves.get(i));
+        }
+
+        for (int i = 0; i < captures.size(); i ++)
+        {
+            int move = captures.get(i);
+
+            assertTrue(FEN, Move.isCapture(move) || Move.isPromotion(move));
+            assertTrue(FEN, union.add(move));
+        }
+
+        for (int i = 0; i < quiets.size(); i ++)
+        {
+            int move = quiets.get(i);
+
+            assertFalse(FEN, Move.isCapture(move) || Move.isPromotion(move));
+            // A move in both stages would already be in the set
+            assertTrue(FEN, union.add(move));
+        }
+
+        assertEquals(FEN, all, union);
+        assertEquals(FEN, allMoves.size(), captures.size() + quiets.size());
+    }
+}
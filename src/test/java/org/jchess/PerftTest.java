@@ -0,0 +1,63 @@
+package org.jchess;
+
+import static org.junit.Assert.assertEquals;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.FENManager;
+import org.jchess.control.PerftManager;
+import org.junit.Test;
+
+/**
+ * Checks the move generation by counting the move trees of the well known perft positions
+ */
+public class PerftTest
+{
+    @Test
+    public void startPosition()
+    {
+        assertPerft(FENManager.START_FEN, 5, 4865609L);
+    }
+
+    @Test
+    public void kiwipete()
+    {
+        assertPerft("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 4, 4085603L);
+    }
+
+    @Test
+    public void position3()
+    {
+        assertPerft("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 6, 11030083L);
+    }
+
+    @Test
+    public void position4()
+    {
+        assertPerft("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 5, 15833292L);
+    }
+
+    @Test
+    public void position5()
+    {
+        assertPerft("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 4, 2103487L);
+    }
+
+    @Test
+    public void position6()
+    {
+        assertPerft("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", 4, 3894594L);
+    }
+
+    @Test
+    public void depthZeroIsTheBoardItself()
+    {
+        assertEquals(1L, PerftManager.perft(BoardManager.generateBoard(), 0));
+        assertEquals(1L, PerftManager.divide(BoardManager.generateBoard(), 0).getNodes());
+        assertEquals(1L, PerftManager.divide(BoardManager.generateBoard(), -1, 2).getNodes());
+    }
+
+    private static void assertPerft(String FEN, int depth, long expectedNodes)
+    {
+        assertEquals(FEN, expectedNodes, PerftManager.perft(BoardManager.generateBoard(FEN), depth));
+    }
+}
@@ -0,0 +1,114 @@
+package org.jchess;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jchess.model.PgnImportResult;
+import org.jchess.pgn.PgnImporter;
+import org.jchess.pgn.PgnReader;
+import org.junit.Test;
+
+/**
+ * Checks that splitting a PGN file between several threads gives the same statistics as reading it in one piece
+ */
+public class PgnImporterTest
+{
+    // Ten lines with a comment that contains a line looking like a tag and an escaped line with a brace
+    private static final String VALID_GAME =
+        "[Event \"Valid\"]\n" +
+        "[Result \"1/2-1/2\"]\n" +
+        "\n" +
+        "1. d4 {a comment that goes on\n" +
+        "[Note \"not a tag\"]\n" +
+        "} d5 2. c4 ; a line comment with a { brace\n" +
+        "% an escaped line with a { brace\n" +
+        "2... e6 1/2-1/2\n" +
+        "\n" +
+        "\n";
+
+    private static final int INPUT_SIZE = 1 << 22; // several chunks, so the games are really split between the threads
+    private static final int VALID_GAMES = INPUT_SIZE / VALID_GAME.length() + 1;
+
+    @Test
+    public void sameResultForAnyThreadCount() throws IOException
+    {
+        byte[] input = createInput();
+        PgnImportResult result = new PgnImporter(1).importGames(new ByteArrayInputStream(input), null);
+
+        assertResult(result);
+
+        for (int threads = 2; threads <= 4; threads ++)
+        {
+            PgnImportResult parallelResult = new PgnImporter(threads).importGames(new ByteArrayInputStream(input), null);
+
+            assertResult(parallelResult);
+            assertEquals(result.getPositions(), parallelResult.getPositions());
+        }
+    }
+
+    @Test
+    public void sameGamesAsReader() throws IOException
+    {
+        byte[] input = createInput();
+        AtomicLong importedGames = new AtomicLong();
+        PgnReader reader = new PgnReader(ByteBuffer.wrap(input));
+        long games = reader.games().count();
+
+        new PgnImporter(4).importGames(new ByteArrayInputStream(input), game -> importedGames.incrementAndGet());
+
+        assertEquals(games, importedGames.get());
+        assertEquals(2, reader.getInvalidGameCount());
+    }
+
+    @Test(timeout = 60000, expected = ConsumerError.class)
+    public void consumerErrorStopsImport() throws IOException
+    {
+        // A single worker only has two chunks, so the splitting would wait forever if the failed chunk was not handed back
+        new PgnImporter(1).importGames(new ByteArrayInputStream(createInput()), game -> { throw new ConsumerError(); });
+    }
+
+    /**
+     * Creates an input of several chunks, whose invalid games are at the very end
+     * @return The input
+     */
+    private static byte[] createInput()
+    {
+        StringBuilder input = new StringBuilder(INPUT_SIZE + VALID_GAME.length() + PgnReaderTest.PGN.length());
+
+        for (int i = 0; i < VALID_GAMES; i ++)
+        {
+            input.append(VALID_GAME);
+        }
+
+        input.append(PgnReaderTest.PGN);
+
+        return input.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares the statistics of an import of the input of <i>createInput()</i>
+     * @param result The result of the import
+     */
+    private static void assertResult(PgnImportResult result)
+    {
+        assertEquals(VALID_GAMES + 4, result.getGames());
+        assertEquals(2, result.getInvalidGames());
+        assertEquals(1, result.getIllegalMoveGames());
+        assertEquals(VALID_GAMES * 10L + PgnReaderTest.ILLEGAL_MOVE_LINE, result.getFirstInvalidLine());
+        assertEquals(VALID_GAMES, result.getDraws());
+        assertEquals(1, result.getWhiteWins());
+        assertEquals(1, result.getBlackWins());
+        assertEquals(0, result.getUnknownResults());
+        assertEquals(VALID_GAMES * 4L + 11, result.getPositions());
+    }
+
+    private static class ConsumerError extends Error
+    {
+        private static final long serialVersionUID = 1L;
+    }
+}
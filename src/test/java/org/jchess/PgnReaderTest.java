@@ -0,0 +1,123 @@
+package org.jchess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jchess.exceptions.InvalidPGNException;
+import org.jchess.model.Game;
+import org.jchess.pgn.PgnReader;
+import org.junit.Test;
+
+/**
+ * Checks that the PGN reader skips comments and escaped lines, and reports invalid games on the right line
+ */
+public class PgnReaderTest
+{
+    // Every game starts on a line that is a multiple of 10 plus 1, so the expected lines are easy to count
+    static final String PGN =
+        "[Event \"Comments\"]\n" +
+        "[Result \"1-0\"]\n" +
+        "\n" +
+        "1. e4 e5 {a comment that goes on\n" +
+        "[on a line that looks like a tag]\n" +
+        "} 2. Nf3 $1 Nc6 (2... d6 3. d4) 3. Bb5 a6 ; the rest of the line {\n" +
+        "% an escaped line with [brackets] and {a brace\n" +
+        "4. Ba4!? 1-0\n" +
+        "\n" +
+        "\n" +
+        "[Event \"Illegal move\"]\n" +
+        "[Result \"*\"]\n" +
+        "\n" +
+        "1. e4 e5\n" +
+        "2. Ke3 Nc6 *\n" +
+        "\n" +
+        "\n" +
+        "\n" +
+        "\n" +
+        "\n" +
+        "[Event \"Invalid FEN\"]\n" +
+        "[Result \"*\"]\n" +
+        "[SetUp \"1\"]\n" +
+        "[FEN \"rnbqkbnr/ppxppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1\"]\n" +
+        "\n" +
+        "1. e4 *\n" +
+        "\n" +
+        "\n" +
+        "\n" +
+        "\n" +
+        "[Event \"After the invalid games\"]\n" +
+        "[Result \"0-1\"]\n" +
+        "\n" +
+        "1. f3 e5 2. g4 Qh4# 0-1\n" +
+        "\n";
+
+    static final long ILLEGAL_MOVE_LINE = 15;
+    static final long INVALID_FEN_LINE = 24;
+
+    @Test
+    public void readGames() throws IOException
+    {
+        Game game;
+        PgnReader reader = new PgnReader(ByteBuffer.wrap(PGN.getBytes(StandardCharsets.UTF_8)));
+
+        // The comment, the variation and the escaped line do not end the first game or add moves to it
+        game = reader.readGame();
+        assertEquals("Comments", game.getTag("Event"));
+        assertEquals(7, game.getMoveCount());
+        assertEquals("1-0", game.getResult());
+
+        assertInvalid(reader, ILLEGAL_MOVE_LINE, true);
+        assertInvalid(reader, INVALID_FEN_LINE, false);
+
+        // The reader continues with the game after an invalid one
+        game = reader.readGame();
+        assertEquals("After the invalid games", game.getTag("Event"));
+        assertEquals(4, game.getMoveCount());
+        assertEquals("0-1", game.getResult());
+
+        assertNull(reader.readGame());
+        assertEquals(4, reader.getGameCount());
+        assertEquals(2, reader.getInvalidGameCount());
+    }
+
+    @Test
+    public void forEachGameSkipsInvalidGames() throws IOException
+    {
+        List<Game> games = new ArrayList<>();
+        PgnReader reader = new PgnReader(ByteBuffer.wrap(PGN.getBytes(StandardCharsets.UTF_8)));
+
+        reader.forEachGame(games::add);
+
+        assertEquals(2, games.size());
+        assertEquals("Comments", games.get(0).getTag("Event"));
+        assertEquals("After the invalid games", games.get(1).getTag("Event"));
+        assertEquals(2, reader.getInvalidGameCount());
+    }
+
+    /**
+     * Reads the next game, which has to be invalid
+     * @param reader The reader
+     * @param expectedLine The line the error has to be reported on
+     * @param isIllegalMove Does the game have to contain a well-formed move that is not legal?
+     */
+    private static void assertInvalid(PgnReader reader, long expectedLine, boolean isIllegalMove) throws IOException
+    {
+        try
+        {
+            reader.readGame();
+            fail("The game at line " + expectedLine + " should be invalid");
+        }
+        catch (InvalidPGNException exception)
+        {
+            assertEquals(expectedLine, exception.getLine());
+            assertEquals(isIllegalMove, exception.isIllegalMove());
+        }
+    }
+}
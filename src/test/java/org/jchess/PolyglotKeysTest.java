@@ -0,0 +1,59 @@
+package org.jchess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.jchess.book.PolyglotKeys;
+import org.jchess.control.BoardManager;
+import org.jchess.model.Board;
+import org.junit.Test;
+
+/**
+ * Checks the built in Polyglot keys against the example keys of the Polyglot book format description
+ */
+public class PolyglotKeysTest
+{
+    @Test
+    public void startPosition()
+    {
+        assertKey(0x463b96181691fc9cL);
+    }
+
+    @Test
+    public void enPassantFileOnlyCountsIfAPawnCanCapture()
+    {
+        // After e2e4 no black pawn stands next to e4, so the en passant file is left out
+        assertKey(0x823c9b50fd114196L, "e2e4");
+        assertKey(0x0756b94461c50fb0L, "e2e4", "d7d5");
+        assertKey(0x662fafb965db29d4L, "e2e4", "d7d5", "e4e5");
+        // The pawn on e5 can capture on f6
+        assertKey(0x22a48b5a8e47ff78L, "e2e4", "d7d5", "e4e5", "f7f5");
+        // The pawn on b4 can capture on c3
+        assertKey(0x3c8123ea7b067637L, "a2a4", "b7b5", "h2h4", "b5b4", "c2c4");
+    }
+
+    @Test
+    public void castlingRights()
+    {
+        assertKey(0x652a607ca3f242c1L, "e2e4", "d7d5", "e4e5", "f7f5", "e1e2");
+        assertKey(0x00fdd303c946bdd9L, "e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7");
+        assertKey(0x5c3f9b829b279560L, "a2a4", "b7b5", "h2h4", "b5b4", "c2c4", "b4c3", "a1a3");
+    }
+
+    /**
+     * Plays moves from the standard position and compares the key of the reached position
+     * @param expectedKey The key of the Polyglot book format description
+     * @param moves The moves in UCI notation
+     */
+    private static void assertKey(long expectedKey, String... moves)
+    {
+        Board board = BoardManager.generateBoard();
+
+        for (String move : moves)
+        {
+            assertTrue(move, BoardManager.movePieceUCI(board, move));
+        }
+
+        assertEquals(Long.toHexString(expectedKey), Long.toHexString(PolyglotKeys.STANDARD.computeKey(board)));
+    }
+}
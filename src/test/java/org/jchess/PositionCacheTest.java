@@ -0,0 +1,147 @@
+package org.jchess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.jchess.control.BoardManager;
+import org.jchess.control.FENManager;
+import org.jchess.model.Board;
+import org.jchess.uci.PositionCache;
+import org.junit.Test;
+
+/**
+ * Checks that the board a UCI session keeps between position commands is the same as setting it up from scratch
+ */
+public class PositionCacheTest
+{
+    private static final String[] GAME = { "e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1" };
+    private static final String OTHER_FEN = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    public void extendByOneMove()
+    {
+        PositionCache cache = new PositionCache();
+
+        assertTrue(cache.setPosition(FENManager.START_FEN, moves(8), 0));
+        assertTrue(cache.setPosition(FENManager.START_FEN, moves(9), 0));
+
+        // Only the new move is played, the board is not set up again
+        assertEquals(1, cache.getRebuilds());
+        assertEquals(9, cache.getPlayedMoves());
+        assertBoard(cache, FENManager.START_FEN, moves(9));
+    }
+
+    @Test
+    public void takeBackMoves()
+    {
+        PositionCache cache = new PositionCache();
+        String[] changedGame = { "e2e4", "e7e5", "g1f3", "b8c6", "f1c4" };
+
+        assertTrue(cache.setPosition(FENManager.START_FEN, moves(9), 0));
+        assertTrue(cache.setPosition(FENManager.START_FEN, moves(6), 0));
+
+        assertEquals(1, cache.getRebuilds());
+        assertEquals(9, cache.getPlayedMoves());
+        assertBoard(cache, FENManager.START_FEN, moves(6));
+
+        // The game goes on differently, the moves after the common ones are taken back and the new move is played
+        assertTrue(cache.setPosition(FENManager.START_FEN, changedGame, 0));
+
+        assertEquals(1, cache.getRebuilds());
+        assertEquals(10, cache.getPlayedMoves());
+        assertBoard(cache, FENManager.START_FEN, changedGame);
+    }
+
+    @Test
+    public void changeFEN()
+    {
+        PositionCache cache = new PositionCache();
+        String[] otherGame = { "e1g1", "e8c8" };
+
+        assertTrue(cache.setPosition(FENManager.START_FEN, moves(4), 0));
+        assertTrue(cache.setPosition(OTHER_FEN, otherGame, 0));
+
+        assertEquals(2, cache.getRebuilds());
+        assertEquals(6, cache.getPlayedMoves());
+        assertBoard(cache, OTHER_FEN, otherGame);
+
+        // Going back to the first FEN plays all of its moves again
+        assertTrue(cache.setPosition(FENManager.START_FEN, moves(4), 0));
+
+        assertEquals(3, cache.getRebuilds());
+        assertEquals(10, cache.getPlayedMoves());
+        assertBoard(cache, FENManager.START_FEN, moves(4));
+    }
+
+    @Test
+    public void illegalMove()
+    {
+        PositionCache cache = new PositionCache();
+        String[] illegalGame = { "e2e4", "e7e5", "e1e3", "b8c6" };
+
+        assertTrue(cache.setPosition(FENManager.START_FEN, moves(4), 0));
+
+        // The board stays at the position before the illegal move and the moves after it are not played
+        assertFalse(cache.setPosition(FENManager.START_FEN, illegalGame, 0));
+
+        assertEquals(1, cache.getRebuilds());
+        assertEquals(4, cache.getPlayedMoves());
+        assertEquals(2, cache.getMoveCount());
+        assertBoard(cache, FENManager.START_FEN, moves(2));
+
+        // The next command continues from the moves that were legal
+        assertTrue(cache.setPosition(FENManager.START_FEN, moves(5), 0));
+
+        assertEquals(1, cache.getRebuilds());
+        assertEquals(7, cache.getPlayedMoves());
+        assertBoard(cache, FENManager.START_FEN, moves(5));
+    }
+
+    @Test
+    public void movesAfterStart()
+    {
+        PositionCache cache = new PositionCache();
+        String[] command = { "position", "startpos", "moves", "e2e4", "e7e5" };
+
+        assertTrue(cache.setPosition(FENManager.START_FEN, command, 3));
+
+        assertEquals(2, cache.getMoveCount());
+        assertBoard(cache, FENManager.START_FEN, moves(2));
+    }
+
+    /**
+     * Gets the first moves of the test game
+     * @param count How many moves
+     * @return The moves
+     */
+    private static String[] moves(int count)
+    {
+        String[] moves = new String[count];
+
+        System.arraycopy(GAME, 0, moves, 0, count);
+
+        return moves;
+    }
+
+    /**
+     * Compares the board of the cache to a board that was set up from the FEN and all moves
+     * @param cache The cache
+     * @param FEN The start position
+     * @param moves The moves that have to be on the board
+     */
+    private static void assertBoard(PositionCache cache, String FEN, String[] moves)
+    {
+        Board board = new Board();
+
+        FENManager.setBoard(board, FEN);
+
+        for (String move : moves)
+        {
+            assertTrue(move, BoardManager.movePieceUCI(board, move));
+        }
+
+        assertEquals(FENManager.getFEN(board), FENManager.getFEN(cache.getBoard()));
+        assertEquals(board.getZobristKey(), cache.getBoard().getZobristKey());
+    }
+}